@@ -0,0 +1,148 @@
+package com.example.productmanagement.benchmark;
+
+import com.example.productmanagement.dto.ProductDto;
+import com.example.productmanagement.model.Product;
+import com.example.productmanagement.repo.ProductRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test data and stand-ins shared by the benchmarks, nothing here touches the network or a database.
+ */
+final class BenchmarkFixtures {
+
+    private static final long SEED = 42L;
+
+    private static final byte[] HNB_RATES = ("["
+            + "{\"valuta\":\"EUR\",\"jedinica\":1,\"srednji_tecaj\":\"7,534500\"},"
+            + "{\"valuta\":\"USD\",\"jedinica\":1,\"srednji_tecaj\":\"6,635000\"},"
+            + "{\"valuta\":\"GBP\",\"jedinica\":1,\"srednji_tecaj\":\"8,497000\"},"
+            + "{\"valuta\":\"CHF\",\"jedinica\":1,\"srednji_tecaj\":\"7,627000\"},"
+            + "{\"valuta\":\"JPY\",\"jedinica\":100,\"srednji_tecaj\":\"5,296000\"},"
+            + "{\"valuta\":\"CAD\",\"jedinica\":1,\"srednji_tecaj\":\"5,191000\"},"
+            + "{\"valuta\":\"AUD\",\"jedinica\":1,\"srednji_tecaj\":\"4,778000\"},"
+            + "{\"valuta\":\"SEK\",\"jedinica\":1,\"srednji_tecaj\":\"0,677000\"},"
+            + "{\"valuta\":\"NOK\",\"jedinica\":1,\"srednji_tecaj\":\"0,716000\"},"
+            + "{\"valuta\":\"DKK\",\"jedinica\":1,\"srednji_tecaj\":\"1,013000\"},"
+            + "{\"valuta\":\"PLN\",\"jedinica\":1,\"srednji_tecaj\":\"1,609000\"},"
+            + "{\"valuta\":\"CZK\",\"jedinica\":1,\"srednji_tecaj\":\"0,308000\"},"
+            + "{\"valuta\":\"HUF\",\"jedinica\":100,\"srednji_tecaj\":\"1,781000\"}"
+            + "]").getBytes(StandardCharsets.UTF_8);
+
+    private BenchmarkFixtures() {
+    }
+
+    static List<Product> products(int count) {
+        Random random = new Random(SEED);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product(String.format("C%09d", i), "Product " + i, randomPrice(random), i % 3 != 0);
+            product.setId((long) i + 1);
+            products.add(product);
+        }
+        return products;
+    }
+
+    static List<ProductDto> productDtos(int count) {
+        List<ProductDto> dtos = new ArrayList<>(count);
+        for (Product product : products(count)) {
+            dtos.add(ProductDto.builder()
+                    .id(product.getId())
+                    .code(product.getCode())
+                    .name(product.getName())
+                    .priceEur(product.getPriceEur())
+                    .priceUsd(product.getPriceEur().multiply(new BigDecimal("1.0850")))
+                    .isAvailable(product.isAvailable())
+                    .build());
+        }
+        return dtos;
+    }
+
+    static BigDecimal randomPrice(Random random) {
+        return BigDecimal.valueOf(1 + random.nextInt(1_000_000), 2);
+    }
+
+    /**
+     * RestTemplate answering HNB rate list requests from memory.
+     */
+    static RestTemplate hnbStub() {
+        return new RestTemplate() {
+            @Override
+            public <T> T execute(String url, HttpMethod method, RequestCallback requestCallback,
+                                 ResponseExtractor<T> responseExtractor, Object... uriVariables) {
+                try {
+                    return responseExtractor.extractData(new InMemoryResponse(HNB_RATES));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Repository backed by an in-memory list, supporting the finders used by ProductService.
+     */
+    @SuppressWarnings("unchecked")
+    static ProductRepository repository(List<Product> products) {
+        return (ProductRepository) Proxy.newProxyInstance(
+                ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> new ArrayList<>(products);
+                    case "findByIdGreaterThanOrderByIdAsc" -> page(products, (Long) args[0], (Limit) args[1]);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static List<Product> page(List<Product> products, Long afterId, Limit limit) {
+        int from = (int) Math.min(afterId, products.size());
+        int to = Math.min(from + limit.max(), products.size());
+        return from >= to ? Collections.emptyList() : new ArrayList<>(products.subList(from, to));
+    }
+
+    private record InMemoryResponse(byte[] body) implements ClientHttpResponse {
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatus.OK;
+        }
+
+        @Override
+        public String getStatusText() {
+            return HttpStatus.OK.getReasonPhrase();
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.productmanagement.benchmark;
+
+import com.example.productmanagement.configuration.HnbClientProperties;
+import com.example.productmanagement.repo.InMemoryExchangeRateSnapshotRepository;
+import com.example.productmanagement.service.impl.HnbExchangeRateService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EUR to USD conversion on the snapshot cross rate, with and without the per-price Caffeine cache
+ * that used to sit in front of it. "hit" draws from a small set of prices that fits the cache,
+ * "miss" from a range far larger than the 1000 entry bound.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExchangeRateConversionBenchmark {
+
+    private static final int PRICE_POOL_SIZE = 1 << 16;
+
+    @Param({"none", "caffeine"})
+    public String cache;
+
+    @Param({"hit", "miss"})
+    public String prices;
+
+    private HnbExchangeRateService exchangeRateService;
+    private Cache<BigDecimal, BigDecimal> perPriceCache;
+    private BigDecimal[] pricePool;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        exchangeRateService = new HnbExchangeRateService(BenchmarkFixtures.hnbStub(),
+                new InMemoryExchangeRateSnapshotRepository(), event -> {
+        }, new HnbClientProperties());
+        exchangeRateService.refreshSnapshot();
+        perPriceCache = Caffeine.newBuilder().maximumSize(1000).build();
+
+        Random random = new Random(7);
+        int distinctPrices = "hit".equals(prices) ? 100 : 1_000_000;
+        pricePool = new BigDecimal[PRICE_POOL_SIZE];
+        for (int i = 0; i < pricePool.length; i++) {
+            pricePool[i] = BigDecimal.valueOf(1 + random.nextInt(distinctPrices), 2);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal convertEurToUsd() {
+        BigDecimal priceEur = pricePool[next++ & (PRICE_POOL_SIZE - 1)];
+        if ("caffeine".equals(cache)) {
+            return perPriceCache.get(priceEur, exchangeRateService::convertEurToUsd);
+        }
+        return exchangeRateService.convertEurToUsd(priceEur);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.productmanagement.benchmark;
+
+import com.example.productmanagement.configuration.AppConfig;
+import com.example.productmanagement.configuration.HnbClientProperties;
+import com.example.productmanagement.exception.ExchangeRateUnavailableException;
+import com.example.productmanagement.repo.InMemoryExchangeRateSnapshotRepository;
+import com.example.productmanagement.service.impl.HnbExchangeRateService;
+import com.example.productmanagement.service.impl.HnbStubServer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full rate list refresh over HTTP: request through the pooled client of AppConfig to a local HnbStubServer,
+ * streaming parse and snapshot swap. "malformed" answers every request with one broken srednji_tecaj, the cost of
+ * a rejected list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExchangeRateFetchBenchmark {
+
+    @Param({"none", "malformed"})
+    public String faults;
+
+    private HnbStubServer hnb;
+    private HnbExchangeRateService exchangeRateService;
+
+    @Setup
+    public void setUp() throws IOException {
+        hnb = HnbStubServer.start("malformed".equals(faults)
+                ? HnbStubServer.Faults.NONE.withMalformedRate(1)
+                : HnbStubServer.Faults.NONE);
+        HnbClientProperties clientProperties = new HnbClientProperties();
+        clientProperties.setBaseUrl(hnb.baseUrl());
+        exchangeRateService = new HnbExchangeRateService(new AppConfig().restTemplate(clientProperties),
+                new InMemoryExchangeRateSnapshotRepository(), event -> {
+        }, clientProperties);
+    }
+
+    @TearDown
+    public void tearDown() {
+        hnb.close();
+    }
+
+    @Benchmark
+    public Object refreshSnapshot() {
+        try {
+            return exchangeRateService.refreshSnapshot();
+        } catch (ExchangeRateUnavailableException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.productmanagement.benchmark;
+
+import com.example.productmanagement.dto.ProductDto;
+import com.example.productmanagement.mapper.ProductMapper;
+import com.example.productmanagement.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMapperBenchmark {
+
+    private ProductMapper mapper;
+    private Product product;
+    private ProductDto dto;
+
+    @Setup
+    public void setUp() {
+        mapper = new ProductMapper();
+        product = BenchmarkFixtures.products(1).get(0);
+        dto = BenchmarkFixtures.productDtos(1).get(0);
+    }
+
+    @Benchmark
+    public ProductDto toDto() {
+        return mapper.toDto(product);
+    }
+
+    @Benchmark
+    public Product toEntity() {
+        return mapper.toEntity(dto);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.productmanagement.benchmark;
+
+import com.example.productmanagement.configuration.CatalogSnapshotProperties;
+import com.example.productmanagement.configuration.HnbClientProperties;
+import com.example.productmanagement.configuration.ProductCacheProperties;
+import com.example.productmanagement.configuration.ProductCodeFilterProperties;
+import com.example.productmanagement.mapper.ProductMapper;
+import com.example.productmanagement.model.Product;
+import com.example.productmanagement.repo.InMemoryExchangeRateSnapshotRepository;
+import com.example.productmanagement.repo.ProductRepository;
+import com.example.productmanagement.service.impl.HnbExchangeRateService;
+import com.example.productmanagement.service.impl.ProductCache;
+import com.example.productmanagement.service.impl.ProductCatalogSnapshot;
+import com.example.productmanagement.service.impl.ProductCodeFilter;
+import com.example.productmanagement.service.impl.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductService listing over an in-memory repository, so only service overhead is measured. Prices are no longer
+ * converted here but when a response is written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private ProductService productService;
+
+    @Setup
+    public void setUp() {
+        HnbExchangeRateService exchangeRateService = new HnbExchangeRateService(BenchmarkFixtures.hnbStub(),
+                new InMemoryExchangeRateSnapshotRepository(), event -> {
+        }, new HnbClientProperties());
+        exchangeRateService.refreshSnapshot();
+        ProductRepository repository = BenchmarkFixtures.repository(BenchmarkFixtures.products(size));
+        CatalogSnapshotProperties catalogProperties = new CatalogSnapshotProperties();
+        catalogProperties.setEnabled(false);
+        productService = new ProductService(repository, exchangeRateService,
+                new ProductCache(new ProductCacheProperties()), new ProductCodeFilter(null, new ProductCodeFilterProperties()),
+                new ProductCatalogSnapshot(repository, exchangeRateService, new ProductMapper(), new ObjectMapper(),
+                        catalogProperties), event -> {
+                }, new TransactionTemplate());
+    }
+
+    @Benchmark
+    public List<Product> findAll() {
+        return productService.findAll();
+    }
+
+    @Benchmark
+    public void forEachBatch(Blackhole blackhole) {
+        productService.forEachBatch(500, blackhole::consume);
+    }
+}
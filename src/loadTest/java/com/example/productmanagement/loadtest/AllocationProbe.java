@@ -0,0 +1,64 @@
+package com.example.productmanagement.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Heap allocated by the embedded Tomcat's threads and garbage collections between {@link #start()} and
+ * {@link #stop()}. Allocation of request threads that ended in between is not counted, Tomcat keeps its workers
+ * alive for a minute after they were last used.
+ */
+final class AllocationProbe {
+
+    // Acceptor, poller and request executor threads of the HTTP connector
+    private static final String SERVER_THREAD_PREFIX = "http-nio-";
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Map<Long, Long> allocatedAtStart = Map.of();
+    private long collectionsAtStart;
+    private long collectionMillisAtStart;
+
+    void start() {
+        allocatedAtStart = serverThreadAllocation();
+        collectionsAtStart = collections();
+        collectionMillisAtStart = collectionMillis();
+    }
+
+    Result stop() {
+        long allocated = 0;
+        for (Map.Entry<Long, Long> thread : serverThreadAllocation().entrySet()) {
+            allocated += thread.getValue() - allocatedAtStart.getOrDefault(thread.getKey(), 0L);
+        }
+        return new Result(allocated, collections() - collectionsAtStart, collectionMillis() - collectionMillisAtStart);
+    }
+
+    private Map<Long, Long> serverThreadAllocation() {
+        Map<Long, Long> allocation = new HashMap<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith(SERVER_THREAD_PREFIX)) {
+                long bytes = threads.getThreadAllocatedBytes(thread.getId());
+                if (bytes >= 0) {
+                    allocation.put(thread.getId(), bytes);
+                }
+            }
+        }
+        return allocation;
+    }
+
+    private static long collections() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(count -> count > 0).sum();
+    }
+
+    private static long collectionMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(millis -> millis > 0).sum();
+    }
+
+    record Result(long allocatedBytes, long collections, long collectionMillis) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.productmanagement.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latencies of one worker, kept in full (no histogram buckets) so percentiles are exact. Not thread-safe, every
+ * worker records into its own and they are merged once the run is over.
+ */
+final class LatencyRecorder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final long[][] samples = new long[Operation.values().length][INITIAL_CAPACITY];
+    private final int[] counts = new int[Operation.values().length];
+    private final long[] errors = new long[Operation.values().length];
+
+    void record(Operation operation, long latencyNanos, boolean failed) {
+        int i = operation.ordinal();
+        if (counts[i] == samples[i].length) {
+            samples[i] = Arrays.copyOf(samples[i], counts[i] * 2);
+        }
+        samples[i][counts[i]++] = latencyNanos;
+        if (failed) {
+            errors[i]++;
+        }
+    }
+
+    /**
+     * Statistics per operation, in {@link Operation} order, for the operations that were sent at all.
+     */
+    static Map<Operation, Stats> byOperation(List<LatencyRecorder> recorders) {
+        Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            Stats merged = merge(recorders, operation);
+            if (merged.count() > 0) {
+                stats.put(operation, merged);
+            }
+        }
+        return stats;
+    }
+
+    static Stats total(List<LatencyRecorder> recorders) {
+        return merge(recorders, Operation.values());
+    }
+
+    private static Stats merge(List<LatencyRecorder> recorders, Operation... operations) {
+        int count = 0;
+        long errorCount = 0;
+        for (LatencyRecorder recorder : recorders) {
+            for (Operation operation : operations) {
+                count += recorder.counts[operation.ordinal()];
+                errorCount += recorder.errors[operation.ordinal()];
+            }
+        }
+        long[] all = new long[count];
+        int offset = 0;
+        for (LatencyRecorder recorder : recorders) {
+            for (Operation operation : operations) {
+                int i = operation.ordinal();
+                System.arraycopy(recorder.samples[i], 0, all, offset, recorder.counts[i]);
+                offset += recorder.counts[i];
+            }
+        }
+        Arrays.sort(all);
+        return new Stats(count, errorCount, percentile(all, 0.5), percentile(all, 0.99), percentile(all, 0.999),
+                count == 0 ? 0 : all[count - 1]);
+    }
+
+    // Nearest rank: the smallest latency at least this share of the requests did not exceed
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    record Stats(long count, long errors, long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+
+        long percentileNanos(String percentile) {
+            return switch (percentile) {
+                case "p50" -> p50Nanos;
+                case "p99" -> p99Nanos;
+                case "p999" -> p999Nanos;
+                default -> throw new IllegalArgumentException("Unknown percentile " + percentile);
+            };
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.productmanagement.loadtest;
+
+import com.example.productmanagement.ProductManagementApplication;
+import com.example.productmanagement.service.impl.HnbStubServer;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the application against an embedded PostgreSQL and a local HNB stub ({@link HnbStubServer}), sends mixed
+ * read/write traffic to /api/products at a fixed rate and reports latency percentiles, throughput and server
+ * allocation. Exits with 1 when an SLO of load-test.properties is exceeded.
+ * <p>
+ * Requests are sent on schedule whether or not earlier ones were answered, and latency is measured from when a
+ * request was due rather than when it was sent, so a stalled server shows up in the percentiles instead of slowing
+ * the load down.
+ */
+public final class LoadTest {
+
+    private static final String[] PERCENTILES = {"p50", "p99", "p999"};
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.load();
+        List<String> violations;
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             HnbStubServer hnb = HnbStubServer.start(settings.hnbFaults());
+             ConfigurableApplicationContext application = startApplication(settings, postgres, hnb)) {
+            String baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            importProducts(client, baseUrl, settings.products());
+            JdbcTemplate jdbcTemplate = application.getBean(JdbcTemplate.class);
+            List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM product ORDER BY id", Long.class);
+            List<String> codes = jdbcTemplate.queryForList("SELECT code FROM product ORDER BY id", String.class);
+
+            violations = run(settings, client, new ProductTraffic(baseUrl, ids, codes, settings), hnb);
+        }
+        System.exit(violations.isEmpty() ? 0 : 1);
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadTestSettings settings, EmbeddedPostgres postgres,
+                                                                   HnbStubServer hnb) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:postgresql://localhost:" + postgres.getPort()
+                        + "/postgres?reWriteBatchedInserts=true",
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--hnb.client.base-url=" + hnb.baseUrl(),
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        // Given last, so they override the defaults above
+        arguments.addAll(settings.applicationArguments());
+        return new SpringApplicationBuilder(ProductManagementApplication.class).run(arguments.toArray(String[]::new));
+    }
+
+    private static void importProducts(HttpClient client, String baseUrl, int count) throws IOException, InterruptedException {
+        StringBuilder csv = new StringBuilder("code,name,priceEur,isAvailable\n");
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < count; i++) {
+            csv.append(String.format("S%09d", i)).append(",Product ").append(i).append(',')
+                    .append(BigDecimal.valueOf(100 + random.nextInt(1_000_000), 2)).append(',').append(i % 3 != 0).append('\n');
+        }
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/bulk"))
+                .header("Content-Type", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofString(csv.toString()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Import failed with " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    private static List<String> run(LoadTestSettings settings, HttpClient client, ProductTraffic traffic,
+                                    HnbStubServer hnb) throws InterruptedException, IOException {
+        int connections = settings.connections();
+        long intervalNanos = (long) (1e9 * connections / settings.rate());
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            recorders.add(recorder);
+            // Staggered, so the requests of all workers are spread evenly over each interval
+            long firstDue = start + intervalNanos * i / connections;
+            Thread worker = new Thread(() -> sendScheduled(client, traffic, recorder, firstDue, intervalNanos, measureFrom, end),
+                    "load-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+
+        AllocationProbe allocation = new AllocationProbe();
+        sleepUntil(measureFrom);
+        allocation.start();
+        sleepUntil(end);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        AllocationProbe.Result allocated = allocation.stop();
+
+        return report(settings, LatencyRecorder.byOperation(recorders), LatencyRecorder.total(recorders), allocated, hnb);
+    }
+
+    private static void sendScheduled(HttpClient client, ProductTraffic traffic, LatencyRecorder recorder,
+                                      long firstDue, long intervalNanos, long measureFrom, long end) {
+        SplittableRandom random = new SplittableRandom(firstDue);
+        for (long due = firstDue; due < end; due += intervalNanos) {
+            sleepUntil(due);
+            Operation operation = traffic.next(random);
+            boolean failed;
+            try {
+                failed = client.send(traffic.request(operation, random), HttpResponse.BodyHandlers.discarding())
+                        .statusCode() >= 400;
+            } catch (IOException e) {
+                failed = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (due >= measureFrom) {
+                recorder.record(operation, System.nanoTime() - due, failed);
+            }
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static List<String> report(LoadTestSettings settings, Map<Operation, LatencyRecorder.Stats> byOperation,
+                                       LatencyRecorder.Stats total, AllocationProbe.Result allocated,
+                                       HnbStubServer hnb) throws IOException {
+        double seconds = settings.duration().toNanos() / 1e9;
+        double bytesPerSecond = allocated.allocatedBytes() / seconds;
+        double bytesPerRequest = total.count() == 0 ? 0 : (double) allocated.allocatedBytes() / total.count();
+        double errorRate = total.count() == 0 ? 0 : (double) total.errors() / total.count();
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%-16s %9s %7s %10s %10s %10s %10s%n",
+                "operation", "requests", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        byOperation.forEach((operation, stats) -> report.append(row(operation.key(), stats)));
+        report.append(row(LoadTestSettings.ALL, total));
+        report.append(String.format(Locale.ROOT, "%nthroughput %.1f req/s (target %.1f), error rate %.4f%n",
+                total.count() / seconds, settings.rate(), errorRate));
+        report.append(String.format(Locale.ROOT, "server allocation %.1f MB/s, %.1f KB/request%n",
+                bytesPerSecond / (1024 * 1024), bytesPerRequest / 1024));
+        report.append(String.format(Locale.ROOT, "gc %d collections, %d ms%n",
+                allocated.collections(), allocated.collectionMillis()));
+        report.append(String.format(Locale.ROOT, "hnb stub %d requests, %d errors, %d malformed, %d timeouts%n",
+                hnb.requests(), hnb.errors(), hnb.malformed(), hnb.timeouts()));
+
+        List<String> violations = new ArrayList<>();
+        for (String percentile : PERCENTILES) {
+            settings.latencySlo(LoadTestSettings.ALL, percentile)
+                    .ifPresent(slo -> checkLatency(violations, LoadTestSettings.ALL, percentile, total, slo));
+            byOperation.forEach((operation, stats) -> settings.latencySlo(operation.key(), percentile)
+                    .ifPresent(slo -> checkLatency(violations, operation.key(), percentile, stats, slo)));
+        }
+        settings.errorRateSlo().ifPresent(slo -> {
+            if (errorRate > slo) {
+                violations.add(String.format(Locale.ROOT, "error rate %.4f > %.4f", errorRate, slo));
+            }
+        });
+        settings.allocationPerRequestSlo().ifPresent(slo -> checkAllocation(violations, "allocation per request",
+                bytesPerRequest, slo));
+        settings.allocationRateSlo().ifPresent(slo -> checkAllocation(violations, "allocation per second",
+                bytesPerSecond, slo));
+
+        report.append(System.lineSeparator());
+        if (violations.isEmpty()) {
+            report.append("All SLOs met").append(System.lineSeparator());
+        } else {
+            report.append("SLOs exceeded:").append(System.lineSeparator());
+            violations.forEach(violation -> report.append("  ").append(violation).append(System.lineSeparator()));
+        }
+
+        System.out.print(report);
+        if (settings.reportFile().isPresent()) {
+            Path file = Path.of(settings.reportFile().get());
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, report);
+        }
+        return violations;
+    }
+
+    private static String row(String name, LatencyRecorder.Stats stats) {
+        return String.format(Locale.ROOT, "%-16s %9d %7d %10.2f %10.2f %10.2f %10.2f%n", name, stats.count(), stats.errors(),
+                millis(stats.p50Nanos()), millis(stats.p99Nanos()), millis(stats.p999Nanos()), millis(stats.maxNanos()));
+    }
+
+    private static void checkLatency(List<String> violations, String scope, String percentile,
+                                     LatencyRecorder.Stats stats, Duration slo) {
+        long actual = stats.percentileNanos(percentile);
+        if (actual > slo.toNanos()) {
+            violations.add(String.format(Locale.ROOT, "%s %s %.2f ms > %.2f ms", scope, percentile, millis(actual),
+                    millis(slo.toNanos())));
+        }
+    }
+
+    private static void checkAllocation(List<String> violations, String name, double actualBytes, DataSize slo) {
+        if (actualBytes > slo.toBytes()) {
+            violations.add(String.format(Locale.ROOT, "%s %.1f KB > %d KB", name, actualBytes / 1024, slo.toKilobytes()));
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
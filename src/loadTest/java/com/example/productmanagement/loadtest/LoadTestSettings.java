@@ -0,0 +1,148 @@
+package com.example.productmanagement.loadtest;
+
+import com.example.productmanagement.service.impl.HnbStubServer;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Properties;
+
+/**
+ * Settings and SLOs of a run: load-test.properties, overridden by system properties of the same name.
+ * An SLO left empty is not checked.
+ */
+final class LoadTestSettings {
+
+    private static final String RESOURCE = "/load-test.properties";
+    private static final String PREFIX = "load.";
+    private static final String APPLICATION_PREFIX = "load.app.";
+
+    static final String ALL = "all";
+
+    private final Properties properties;
+
+    private LoadTestSettings(Properties properties) {
+        this.properties = properties;
+    }
+
+    static LoadTestSettings load() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = LoadTestSettings.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException(RESOURCE + " not found on the classpath");
+            }
+            properties.load(in);
+        }
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith(PREFIX))
+                .forEach(name -> properties.setProperty(name, System.getProperty(name)));
+        return new LoadTestSettings(properties);
+    }
+
+    /**
+     * Products imported before the run, the pool read and updated by the traffic.
+     */
+    int products() {
+        return Integer.parseInt(required("load.products"));
+    }
+
+    /**
+     * Requests in flight at most, one connection each.
+     */
+    int connections() {
+        return Integer.parseInt(required("load.connections"));
+    }
+
+    /**
+     * Requests per second sent over all connections, independently of how fast responses arrive.
+     */
+    double rate() {
+        return Double.parseDouble(required("load.rate"));
+    }
+
+    Duration warmup() {
+        return DurationStyle.detectAndParse(required("load.warmup"));
+    }
+
+    Duration duration() {
+        return DurationStyle.detectAndParse(required("load.duration"));
+    }
+
+    int weight(Operation operation) {
+        return optional("load.mix." + operation.key()).map(Integer::parseInt).orElse(0);
+    }
+
+    /**
+     * Faults of the HNB stub, load.hnb.*; none unless set.
+     */
+    HnbStubServer.Faults hnbFaults() {
+        HnbStubServer.Faults faults = HnbStubServer.Faults.NONE;
+        faults = faults.withLatency(optional("load.hnb.min-latency").map(DurationStyle::detectAndParse).orElse(Duration.ZERO),
+                optional("load.hnb.max-latency").map(DurationStyle::detectAndParse).orElse(Duration.ZERO));
+        faults = faults.withErrorRate(optional("load.hnb.error-rate").map(Double::parseDouble).orElse(0.0));
+        faults = faults.withMalformedRate(optional("load.hnb.malformed-rate").map(Double::parseDouble).orElse(0.0));
+        faults = faults.withTimeoutRate(optional("load.hnb.timeout-rate").map(Double::parseDouble).orElse(0.0));
+        return optional("load.hnb.timeout").map(DurationStyle::detectAndParse).map(faults::withTimeout).orElse(faults);
+    }
+
+    /**
+     * Latency objective of an operation (or {@link #ALL} requests) at p50, p99 or p999.
+     */
+    Optional<Duration> latencySlo(String scope, String percentile) {
+        return optional("load.slo." + scope + "." + percentile).map(DurationStyle::detectAndParse);
+    }
+
+    /**
+     * Highest share of failed requests (status 4xx/5xx, timeouts, connection errors) of all requests.
+     */
+    OptionalDouble errorRateSlo() {
+        return optional("load.slo.error-rate").map(value -> OptionalDouble.of(Double.parseDouble(value)))
+                .orElse(OptionalDouble.empty());
+    }
+
+    /**
+     * Most heap allocated by the server's request threads per request.
+     */
+    Optional<DataSize> allocationPerRequestSlo() {
+        return optional("load.slo.allocation-per-request").map(DataSize::parse);
+    }
+
+    /**
+     * Most heap allocated by the server's request threads per second.
+     */
+    Optional<DataSize> allocationRateSlo() {
+        return optional("load.slo.allocation-rate").map(DataSize::parse);
+    }
+
+    /**
+     * load.app.* settings as command line arguments of the application, e.g. load.app.products.catalog-snapshot.enabled=false.
+     */
+    List<String> applicationArguments() {
+        List<String> arguments = new ArrayList<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(APPLICATION_PREFIX)) {
+                arguments.add("--" + name.substring(APPLICATION_PREFIX.length()) + "=" + properties.getProperty(name));
+            }
+        }
+        return arguments;
+    }
+
+    Optional<String> reportFile() {
+        return optional("load.report");
+    }
+
+    private String required(String name) {
+        return optional(name).orElseThrow(() -> new IllegalStateException(name + " is not set"));
+    }
+
+    private Optional<String> optional(String name) {
+        String value = properties.getProperty(name);
+        return value == null || value.isBlank() ? Optional.empty() : Optional.of(value.trim());
+    }
+}
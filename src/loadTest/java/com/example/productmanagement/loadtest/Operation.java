@@ -0,0 +1,26 @@
+package com.example.productmanagement.loadtest;
+
+/**
+ * Requests the load test sends to /api/products, named as in load-test.properties (load.mix.* and load.slo.*).
+ */
+enum Operation {
+
+    GET_BY_ID("get-by-id"),
+    GET_BY_CODE("get-by-code"),
+    GET_WITH_PRICES("get-with-prices"),
+    PAGE("page"),
+    SEARCH("search"),
+    CATALOG("catalog"),
+    CREATE("create"),
+    UPDATE("update");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.productmanagement.loadtest;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Picks the next operation by the configured mix and builds its request against the imported products.
+ * Reads and updates hit random products of the pool, creates add products with new codes.
+ */
+final class ProductTraffic {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int PAGE_SIZE = 100;
+    private static final int SEARCH_PAGE_SIZE = 50;
+
+    private final String products;
+    private final List<Long> ids;
+    private final List<String> codes;
+    private final Operation[] operations = Operation.values();
+    private final int[] cumulativeWeights = new int[operations.length];
+    private final AtomicLong created = new AtomicLong();
+
+    ProductTraffic(String baseUrl, List<Long> ids, List<String> codes, LoadTestSettings settings) {
+        this.products = baseUrl + "/api/products";
+        this.ids = ids;
+        this.codes = codes;
+        int total = 0;
+        for (Operation operation : operations) {
+            total += settings.weight(operation);
+            cumulativeWeights[operation.ordinal()] = total;
+        }
+        if (total == 0) {
+            throw new IllegalStateException("load.mix.* selects no operation");
+        }
+    }
+
+    Operation next(SplittableRandom random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (Operation operation : operations) {
+            if (pick < cumulativeWeights[operation.ordinal()]) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Weights do not cover " + pick);
+    }
+
+    HttpRequest request(Operation operation, SplittableRandom random) {
+        return switch (operation) {
+            case GET_BY_ID -> get("/" + randomId(random)).build();
+            case GET_BY_CODE -> get("/code/" + codes.get(random.nextInt(codes.size()))).build();
+            case GET_WITH_PRICES -> get("/" + randomId(random) + "?currencies=USD,GBP,CHF").build();
+            case PAGE -> get("?limit=" + PAGE_SIZE + "&after=" + randomId(random)).build();
+            case SEARCH -> get("/search?available=true&namePrefix="
+                    + URLEncoder.encode("Product " + random.nextInt(100), StandardCharsets.UTF_8)
+                    + "&sort=priceEur,desc&size=" + SEARCH_PAGE_SIZE).build();
+            case CATALOG -> get("").header("Accept-Encoding", "gzip").build();
+            case CREATE -> json(URI.create(products + "/new"))
+                    .POST(HttpRequest.BodyPublishers.ofString(newProduct(random)))
+                    .build();
+            case UPDATE -> json(URI.create(products + "/" + randomId(random)))
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"priceEur\":" + price(random) + "}"))
+                    .build();
+        };
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(products + path)).timeout(REQUEST_TIMEOUT).GET();
+    }
+
+    private static HttpRequest.Builder json(URI uri) {
+        return HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).header("Content-Type", "application/json");
+    }
+
+    private long randomId(SplittableRandom random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private String newProduct(SplittableRandom random) {
+        long number = created.incrementAndGet();
+        return "{\"code\":\"" + String.format("N%09d", number) + "\",\"name\":\"New product " + number
+                + "\",\"priceEur\":" + price(random) + ",\"available\":true}";
+    }
+
+    private static BigDecimal price(SplittableRandom random) {
+        return BigDecimal.valueOf(1 + random.nextInt(1_000_000), 2);
+    }
+}
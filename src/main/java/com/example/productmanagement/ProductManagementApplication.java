@@ -2,10 +2,14 @@ package com.example.productmanagement;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @EnableCaching
+@EnableScheduling
 public class ProductManagementApplication {
     public static void main(String[] args) {
         SpringApplication.run(ProductManagementApplication.class, args);
@@ -1,37 +1,119 @@
 package com.example.productmanagement.configuration;
 
+import com.example.productmanagement.dto.ProductDto;
+import com.example.productmanagement.dto.ProductFields;
+import com.example.productmanagement.service.InvalidationBus;
+import com.example.productmanagement.service.impl.ExchangeRateCacheLoader;
+import com.example.productmanagement.service.impl.InProcessInvalidationBus;
+import com.example.productmanagement.service.impl.PostgresInvalidationBus;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.concurrent.TimeUnit;
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.Map;
 
 @EnableCaching
 @Configuration
 public class AppConfig {
 
+    /**
+     * HNB client on the JDK HttpClient, which keeps connections alive and reuses them between requests.
+     * A stalled HNB fails the call with a ResourceAccessException after the configured timeouts.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(HnbClientProperties hnbClientProperties) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(hnbClientProperties.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(hnbClientProperties.getReadTimeout());
+        return new RestTemplate(requestFactory);
     }
 
+    /**
+     * Times beans annotated with @Timed, such as ProductService.
+     */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .maximumSize(1000)
-                .expireAfterWrite(5, TimeUnit.MINUTES)
-                //.expireAfterWrite(24, TimeUnit.HOURS)
-                .removalListener((key, value, cause) -> {
-                    System.out.println("🔄 Cache entry removed: " + key + " (reason: " + cause + ")");
-                }));
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
 
-        cacheManager.setCacheNames(java.util.Arrays.asList("exchangeRates", "eurToUsd"));
+    /**
+     * Products are written through the ?fields= filter; responses without a selection write every field.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer productFieldsFilter() {
+        return builder -> builder
+                .mixIn(ProductDto.class, ProductFields.FilterMixIn.class)
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
 
+    /**
+     * Carries cache invalidations between the instances, see ClusterInvalidation.
+     */
+    @Bean
+    public InvalidationBus invalidationBus(ClusterInvalidationProperties properties, JdbcTemplate jdbcTemplate,
+                                           DataSourceProperties dataSourceProperties) {
+        return switch (properties.getTransport()) {
+            case POSTGRES -> new PostgresInvalidationBus(jdbcTemplate, dataSourceProperties, properties);
+            case IN_PROCESS -> new InProcessInvalidationBus();
+        };
+    }
+
+    /**
+     * Caches of @Cacheable methods, each configured under caches.specs.<name>. With refresh-after-write a read of an
+     * aged entry still returns it and reloads it in the background, so hot entries are not dropped to a blocking load.
+     */
+    @Bean
+    public CacheManager cacheManager(CaffeineCacheProperties cacheProperties, HnbPublicationProperties publication,
+                                     ExchangeRateCacheLoader exchangeRateCacheLoader) {
+        Map<String, CacheLoader<Object, Object>> loaders = Map.of(ExchangeRateCacheLoader.CACHE_NAME, exchangeRateCacheLoader);
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Only the configured caches exist, an unknown cache name fails instead of getting an unconfigured cache
+        cacheManager.setCacheNames(List.of());
+        cacheProperties.getSpecs().forEach((name, spec) ->
+                cacheManager.registerCustomCache(name, buildCache(name, spec, loaders.get(name), publication)));
         return cacheManager;
     }
-}
\ No newline at end of file
+
+    private static Cache<Object, Object> buildCache(String name, CaffeineCacheProperties.Spec spec,
+                                                    CacheLoader<Object, Object> loader,
+                                                    HnbPublicationProperties publication) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                // hit/miss/eviction counts are published by actuator's cache metrics
+                .recordStats();
+        if (spec.isExpireAtHnbPublication()) {
+            builder.expireAfter(new HnbPublicationExpiry(publication, spec.getExpireAfterWrite()));
+        } else {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+
+        if (spec.getRefreshAfterWrite() == null) {
+            return builder.build();
+        }
+        if (loader == null) {
+            throw new IllegalStateException("Cache " + name + " has refresh-after-write but no loader to reload its entries");
+        }
+        // Reloads run on Caffeine's executor, the stale entry is served until the reload completes
+        return builder.refreshAfterWrite(spec.getRefreshAfterWrite()).build(loader);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.productmanagement.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "caches")
+public class CaffeineCacheProperties {
+
+    /**
+     * Caches of the Spring cache manager (@Cacheable) by cache name; a cache that is not listed does not exist.
+     */
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Spec {
+
+        /**
+         * Maximum number of entries in the cache.
+         */
+        private long maximumSize = 1000;
+
+        /**
+         * Upper bound on how long an entry is kept after it was written or reloaded.
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(5);
+
+        /**
+         * Age after which a read reloads the entry in the background while still returning the cached value.
+         * Needs a loader for the cache; no refresh when empty.
+         */
+        private Duration refreshAfterWrite;
+
+        /**
+         * Expire entries when HNB publishes the next rate list (see hnb.rates.publication.*) rather than a fixed
+         * expire-after-write after they were written, which then only caps the lifetime.
+         */
+        private boolean expireAtHnbPublication = false;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.productmanagement.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "products.catalog-snapshot")
+public class CatalogSnapshotProperties {
+
+    /**
+     * Whether GET /api/products (all fields, no currencies) is served from the pre-serialized catalog.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Whether a gzip copy is kept next to the plain JSON, for clients sending Accept-Encoding: gzip.
+     */
+    private boolean gzip = true;
+
+    /**
+     * Number of products read from the database per query while loading or reloading changed products.
+     */
+    private int batchSize = 1000;
+}
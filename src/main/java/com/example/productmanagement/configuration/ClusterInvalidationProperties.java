@@ -0,0 +1,40 @@
+package com.example.productmanagement.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cluster.invalidation")
+public class ClusterInvalidationProperties {
+
+    /**
+     * How invalidations reach the other instances: POSTGRES (LISTEN/NOTIFY on the application database)
+     * or IN_PROCESS (this instance only).
+     */
+    private Transport transport = Transport.POSTGRES;
+
+    /**
+     * PostgreSQL notification channel shared by all instances.
+     */
+    private String channel = "cache_invalidation";
+
+    /**
+     * Longest the listener waits for notifications before checking whether it is being stopped.
+     * Notifications are handed on as soon as they arrive.
+     */
+    private Duration pollTimeout = Duration.ofMillis(500);
+
+    /**
+     * Pause before the listener reconnects after losing its database connection.
+     */
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+
+    public enum Transport {
+        POSTGRES,
+        IN_PROCESS
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.productmanagement.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "hnb.client")
+public class HnbClientProperties {
+
+    /**
+     * Base URL of the HNB exchange rate API; point it at a local stand-in to run without HNB.
+     */
+    private String baseUrl = "https://api.hnb.hr";
+
+    /**
+     * Maximum time to establish a connection to HNB.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Maximum time to wait for the HNB response once the request is sent.
+     */
+    private Duration readTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,67 @@
+package com.example.productmanagement.configuration;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+
+/**
+ * Expires cache entries once HNB published the rate list following their write (plus the grace period), so an
+ * entry never outlives the rates it was computed from by more than that. A reload moves the expiry to the next
+ * publication. Reads do not extend an entry.
+ */
+class HnbPublicationExpiry implements Expiry<Object, Object> {
+
+    private final HnbPublicationProperties publication;
+    private final Duration maximum;
+    private final Clock clock;
+
+    HnbPublicationExpiry(HnbPublicationProperties publication, Duration maximum) {
+        this(publication, maximum, Clock.systemUTC());
+    }
+
+    HnbPublicationExpiry(HnbPublicationProperties publication, Duration maximum, Clock clock) {
+        this.publication = publication;
+        this.maximum = maximum;
+        this.clock = clock;
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        return timeToLive(clock.instant()).toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return timeToLive(clock.instant()).toNanos();
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+
+    /**
+     * Time from {@code now} until the grace period of the next publication ends, at most the configured maximum.
+     * Within the grace period of a publication that publication's end of grace applies.
+     */
+    Duration timeToLive(Instant now) {
+        LocalDate day = now.minus(publication.getGrace()).atZone(publication.getZone()).toLocalDate();
+        // Publication days repeat weekly, a week without any means no alignment
+        for (int i = 0; i <= 7; i++, day = day.plusDays(1)) {
+            if (!publication.getDays().contains(day.getDayOfWeek())) {
+                continue;
+            }
+            Instant deadline = ZonedDateTime.of(day, publication.getTime(), publication.getZone())
+                    .plus(publication.getGrace()).toInstant();
+            if (deadline.isAfter(now)) {
+                Duration untilDeadline = Duration.between(now, deadline);
+                return untilDeadline.compareTo(maximum) < 0 ? untilDeadline : maximum;
+            }
+        }
+        return maximum;
+    }
+}
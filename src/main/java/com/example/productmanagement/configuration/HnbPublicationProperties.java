@@ -0,0 +1,41 @@
+package com.example.productmanagement.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.Set;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "hnb.rates.publication")
+public class HnbPublicationProperties {
+
+    /**
+     * Local time at which HNB publishes the rate list.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.TIME)
+    private LocalTime time = LocalTime.of(16, 0);
+
+    /**
+     * Time zone of the publication time.
+     */
+    private ZoneId zone = ZoneId.of("Europe/Zagreb");
+
+    /**
+     * Days on which a rate list is published.
+     */
+    private Set<DayOfWeek> days = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+
+    /**
+     * Time after the publication by which the new list is expected to be fetched. Keep it above the
+     * refresh-after-write of caches expiring at publication, so entries read regularly are reloaded before they expire.
+     */
+    private Duration grace = Duration.ofMinutes(30);
+}
@@ -0,0 +1,21 @@
+package com.example.productmanagement.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "products.price-adjustment")
+public class PriceAdjustmentProperties {
+
+    /**
+     * Number of products repriced per UPDATE statement; caches are evicted once per chunk.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Number of finished jobs whose progress can still be queried.
+     */
+    private int retainedJobs = 100;
+}
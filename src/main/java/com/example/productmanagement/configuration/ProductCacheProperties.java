@@ -0,0 +1,39 @@
+package com.example.productmanagement.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "products.cache")
+public class ProductCacheProperties {
+
+    /**
+     * Approximate heap the products-by-id cache may use.
+     */
+    private DataSize maximumWeight = DataSize.ofMegabytes(64);
+
+    /**
+     * Approximate heap the code to id index may use.
+     */
+    private DataSize codeIndexMaximumWeight = DataSize.ofMegabytes(8);
+
+    /**
+     * Upper bound on how long a product is served from the local cache without being reloaded.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+    /**
+     * Name of a CacheManager bean (e.g. Redis) providing a shared second tier; the local cache is used alone when empty.
+     */
+    private String secondTierCacheManager;
+
+    /**
+     * Name of the cache in the second tier cache manager.
+     */
+    private String secondTierCacheName = "products";
+}
@@ -0,0 +1,34 @@
+package com.example.productmanagement.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "products.code-filter")
+public class ProductCodeFilterProperties {
+
+    /**
+     * Whether lookups by code are screened by the in-memory filter of existing codes.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of codes the filter is sized for; it is sized for twice the current catalog if that is larger.
+     */
+    private long expectedInsertions = 1_000_000;
+
+    /**
+     * Target probability that a code which does not exist still goes to the database.
+     */
+    private double falsePositiveProbability = 0.01;
+
+    /**
+     * How long after the filter was loaded codes it does not contain are still looked up in the database, so
+     * that codes written on other instances meanwhile are found while their announcements are on their way.
+     */
+    private Duration settleTime = Duration.ofSeconds(10);
+}
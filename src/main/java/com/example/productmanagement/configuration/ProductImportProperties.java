@@ -0,0 +1,21 @@
+package com.example.productmanagement.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "products.import")
+public class ProductImportProperties {
+
+    /**
+     * Number of rows written per JDBC batch (and per transaction).
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Maximum number of row errors returned in the import result.
+     */
+    private int maxReportedErrors = 1000;
+}
@@ -0,0 +1,43 @@
+package com.example.productmanagement.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "products.ingest")
+public class ProductIngestProperties {
+
+    /**
+     * Products that may wait in the queue; further creates are refused with 503 until the writer catches up.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * Maximum number of products written per batch (and per transaction).
+     */
+    private int batchSize = 500;
+
+    /**
+     * How long the writer waits for the first product of a batch before checking for shutdown.
+     */
+    private Duration pollTimeout = Duration.ofMillis(100);
+
+    /**
+     * How long the outcome of an ingested product can be looked up by its tracking id.
+     */
+    private Duration statusRetention = Duration.ofMinutes(10);
+
+    /**
+     * Upper bound on tracked outcomes, the oldest are dropped first.
+     */
+    private long maxTrackedStatuses = 100_000;
+
+    /**
+     * How long shutdown waits for the writer to drain the queue.
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+}
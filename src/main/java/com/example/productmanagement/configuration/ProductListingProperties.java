@@ -0,0 +1,28 @@
+package com.example.productmanagement.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "products.listing")
+public class ProductListingProperties {
+
+    /**
+     * Upper bound for the limit a client may request.
+     */
+    private int maxPageSize = 1000;
+
+    /**
+     * Number of rows read from the database per batch while streaming.
+     */
+    private int streamBatchSize = 500;
+
+    /**
+     * Cache-Control max-age of product GET responses; clients and shared caches revalidate with the ETag afterwards.
+     */
+    private Duration cacheMaxAge = Duration.ZERO;
+}
@@ -0,0 +1,31 @@
+package com.example.productmanagement.configuration;
+
+import com.example.productmanagement.controller.ByteBufferHttpMessageConverter;
+import com.example.productmanagement.controller.ExchangeRateHeadersInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ExchangeRateHeadersInterceptor exchangeRateHeadersInterceptor;
+
+    public WebConfig(ExchangeRateHeadersInterceptor exchangeRateHeadersInterceptor) {
+        this.exchangeRateHeadersInterceptor = exchangeRateHeadersInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(exchangeRateHeadersInterceptor).addPathPatterns("/api/products/**");
+    }
+
+    // Ahead of Jackson, which would otherwise serialize a ByteBuffer as a bean
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new ByteBufferHttpMessageConverter());
+    }
+}
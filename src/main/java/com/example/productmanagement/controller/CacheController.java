@@ -1,36 +1,33 @@
 package com.example.productmanagement.controller;
 
+import com.example.productmanagement.service.impl.CacheClearer;
 import org.springframework.cache.CacheManager;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 
+// Clears reach every instance, see ClusterInvalidation
 @RestController
 @RequestMapping("/api/cache")
 public class CacheController {
 
     private final CacheManager cacheManager;
+    private final CacheClearer cacheClearer;
 
-    public CacheController(CacheManager cacheManager) {
+    public CacheController(CacheManager cacheManager, CacheClearer cacheClearer) {
         this.cacheManager = cacheManager;
+        this.cacheClearer = cacheClearer;
     }
 
     @PostMapping("/clear")
     public String clearAll() {
-        cacheManager.getCacheNames().forEach(cacheName -> {
-            var cache = cacheManager.getCache(cacheName);
-            if (cache != null) {
-                cache.clear();
-            }
-        });
+        cacheClearer.clearAll();
         return "All caches cleared at " + LocalDateTime.now();
     }
 
     @PostMapping("/clear/{cacheName}")
     public String clearSpecific(@PathVariable String cacheName) {
-        var cache = cacheManager.getCache(cacheName);
-        if (cache != null) {
-            cache.clear();
+        if (cacheClearer.clear(cacheName)) {
             return "Cache '" + cacheName + "' cleared at " + LocalDateTime.now();
         }
         return "Cache '" + cacheName + "' not found";
@@ -40,4 +37,4 @@ public class CacheController {
     public java.util.Collection<String> getCacheNames() {
         return cacheManager.getCacheNames();
     }
-}
\ No newline at end of file
+}
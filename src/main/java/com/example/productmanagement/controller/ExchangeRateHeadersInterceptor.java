@@ -0,0 +1,59 @@
+package com.example.productmanagement.controller;
+
+import com.example.productmanagement.model.ExchangeRateSnapshot;
+import com.example.productmanagement.service.ExchangeRateService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Tells clients which rates the prices of a product read were converted with: the HNB validity date and the
+ * age of the snapshot, from which a client can tell stale rates (e.g. restored from the database while HNB
+ * is unreachable) by its own standard.
+ */
+@Component
+public class ExchangeRateHeadersInterceptor implements HandlerInterceptor {
+
+    public static final String RATE_DATE_HEADER = "X-Exchange-Rate-Date";
+
+    public static final String RATE_AGE_HEADER = "X-Exchange-Rate-Age";
+
+    private final ExchangeRateService exchangeRateService;
+    private final Clock clock;
+
+    @Autowired
+    public ExchangeRateHeadersInterceptor(ExchangeRateService exchangeRateService) {
+        this(exchangeRateService, Clock.systemUTC());
+    }
+
+    ExchangeRateHeadersInterceptor(ExchangeRateService exchangeRateService, Clock clock) {
+        this.exchangeRateService = exchangeRateService;
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        Optional<ExchangeRateSnapshot> current = exchangeRateService.currentSnapshot();
+        if (current.isEmpty()) {
+            return true;
+        }
+
+        ExchangeRateSnapshot snapshot = current.get();
+        Duration age = snapshot.getAge(clock.instant());
+        if (snapshot.getValidOn() != null) {
+            response.setHeader(RATE_DATE_HEADER, snapshot.getValidOn().toString());
+        }
+        response.setHeader(RATE_AGE_HEADER, String.valueOf(Math.max(0, age.toSeconds())));
+        return true;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.productmanagement.controller;
+
+import com.example.productmanagement.dto.PriceAdjustmentDto;
+import com.example.productmanagement.dto.PriceAdjustmentJobDto;
+import com.example.productmanagement.service.impl.PriceAdjustmentService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/products/price-adjustments")
+@RequiredArgsConstructor
+public class PriceAdjustmentController {
+
+    private final PriceAdjustmentService adjustmentService;
+
+    // Runs in the background, progress is polled at the returned Location
+    @PostMapping
+    public ResponseEntity<PriceAdjustmentJobDto> start(@Valid @RequestBody PriceAdjustmentDto adjustment) {
+        PriceAdjustmentJobDto job = adjustmentService.start(adjustment);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(job.getId()).toUri())
+                .body(job);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PriceAdjustmentJobDto> get(@PathVariable UUID id) {
+        return ResponseEntity.of(adjustmentService.find(id));
+    }
+}
@@ -1,15 +1,53 @@
 package com.example.productmanagement.controller;
 
+import com.example.productmanagement.configuration.ProductListingProperties;
 import com.example.productmanagement.dto.ProductDto;
+import com.example.productmanagement.dto.ProductFields;
+import com.example.productmanagement.dto.ProductPageDto;
+import com.example.productmanagement.dto.ProductPatchDto;
+import com.example.productmanagement.dto.ProductSearchResultDto;
+import com.example.productmanagement.exception.ProductPreconditionFailedException;
 import com.example.productmanagement.mapper.ProductMapper;
+import com.example.productmanagement.model.Currency;
+import com.example.productmanagement.model.ExchangeRateSnapshot;
+import com.example.productmanagement.model.PriceConverter;
 import com.example.productmanagement.model.Product;
+import com.example.productmanagement.repo.CatalogVersion;
+import com.example.productmanagement.repo.ProductSearchCriteria;
+import com.example.productmanagement.repo.ProductSummary;
+import com.example.productmanagement.service.ExchangeRateService;
+import com.example.productmanagement.service.impl.ProductCatalogSnapshot;
 import com.example.productmanagement.service.impl.ProductService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RestController
@@ -17,29 +55,337 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final String APPLICATION_MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
+    private static final Currency[] USD_ONLY = {Currency.USD};
+
+    private static final String GZIP = "gzip";
+
     private final ProductService service;
+    private final ExchangeRateService exchangeRateService;
     private final ProductMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final ProductListingProperties listingProperties;
+    private final ProductCatalogSnapshot catalogSnapshot;
 
     @PostMapping("/{product}")
     public ResponseEntity<ProductDto> create(@Valid @RequestBody ProductDto productDto) {
         Product productEntity = mapper.toEntity(productDto);
         Product savedProduct = service.save(productEntity);
-        ProductDto responseDto = mapper.toDto(savedProduct);
+        ProductDto responseDto = dtoMapper(ProductFields.ALL, null).apply(savedProduct);
         return ResponseEntity.ok(responseDto);
     }
 
+    /**
+     * Replaces all fields of a product. With If-Match (the product's ETag, or a list of ETags) the update only
+     * succeeds if the product is still at one of those versions, otherwise with 412.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<ProductDto> replace(@PathVariable Long id,
+                                              @Valid @RequestBody ProductDto productDto,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Product updated = service.update(id, expectedVersions(id, ifMatch), product -> {
+            product.setCode(productDto.getCode());
+            product.setName(productDto.getName());
+            product.setPriceEur(productDto.getPriceEur());
+            product.setAvailable(productDto.isAvailable());
+        });
+        return updated(updated);
+    }
+
+    /**
+     * Changes only the fields present in the body, e.g. {"priceEur": 12.50}; If-Match as for PUT.
+     */
+    @PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_MERGE_PATCH_JSON_VALUE})
+    public ResponseEntity<ProductDto> patch(@PathVariable Long id,
+                                            @Valid @RequestBody ProductPatchDto patch,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Product updated = service.update(id, expectedVersions(id, ifMatch), product -> {
+            if (patch.getCode() != null) {
+                product.setCode(patch.getCode());
+            }
+            if (patch.getName() != null) {
+                product.setName(patch.getName());
+            }
+            if (patch.getPriceEur() != null) {
+                product.setPriceEur(patch.getPriceEur());
+            }
+            if (patch.getAvailable() != null) {
+                product.setAvailable(patch.getAvailable());
+            }
+        });
+        return updated(updated);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDto> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(mapper.toDto(service.findById(id)));
+    public ResponseEntity<ProductDto> getById(@PathVariable Long id,
+                                              @RequestParam(required = false) Currency[] currencies,
+                                              @RequestParam(required = false) List<String> fields,
+                                              WebRequest request) {
+        ProductFields selection = select(fields, request);
+        String ratesTag = ratesTag(selection, currencies);
+        Product product = service.findById(id);
+        return conditional(request, productEtag(product, ratesTag),
+                () -> dtoMapper(selection, currencies).apply(product));
+    }
+
+    @GetMapping("/code/{code}")
+    public ResponseEntity<ProductDto> getByCode(@PathVariable String code,
+                                                @RequestParam(required = false) Currency[] currencies,
+                                                @RequestParam(required = false) List<String> fields,
+                                                WebRequest request) {
+        ProductFields selection = select(fields, request);
+        String ratesTag = ratesTag(selection, currencies);
+        Product product = service.findByCode(code);
+        return conditional(request, productEtag(product, ratesTag),
+                () -> dtoMapper(selection, currencies).apply(product));
     }
 
     @GetMapping
-    public ResponseEntity<List<ProductDto>> getAll() {
-        List<ProductDto> dtos = service.findAll().stream()
-                .map(mapper::toDto)
+    public ResponseEntity<List<ProductDto>> getAll(@RequestParam(required = false) Currency[] currencies,
+                                                   @RequestParam(required = false) List<String> fields,
+                                                   WebRequest request) {
+        ProductFields selection = select(fields, request);
+        // Checked before any product is loaded, so a 304 costs one aggregate query
+        String etag = catalogEtag(service.catalogVersion(), ratesTag(selection, currencies));
+
+        return conditional(request, etag, () -> service.findAll().stream()
+                .map(dtoMapper(selection, currencies))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * The whole catalog with all fields, as the pre-serialized JSON of the catalog snapshot (gzip encoded when the
+     * client accepts it) instead of querying, converting and serializing every product again. Falls back to
+     * {@link #getAll} when the snapshot is disabled.
+     */
+    @GetMapping(params = {"!fields", "!currencies", "!limit"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getAllSerialized(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                              WebRequest request) {
+        Optional<ProductCatalogSnapshot.Body> snapshot = catalogSnapshot.current();
+        if (snapshot.isEmpty()) {
+            return getAll(null, null, request);
+        }
+        ProductCatalogSnapshot.Body body = snapshot.get();
+        boolean gzip = body.hasGzip() && acceptsGzip(acceptEncoding);
+
+        // Both encodings are different representations, each with its own validator
+        String etag = "\"" + body.tag() + (gzip ? "-" + GZIP : "") + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl()).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        return gzip
+                ? response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(body.gzip())
+                : response.body(body.json());
+    }
+
+    /**
+     * Filtered, sorted search, e.g. ?available=true&minPrice=10&maxPrice=100&namePrefix=usb&sort=priceEur,desc&page=0&size=50.
+     * Sortable by id, code, name and priceEur; size is capped at products.listing.max-page-size.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchResultDto> search(@RequestParam(required = false) Boolean available,
+                                                         @RequestParam(required = false) BigDecimal minPrice,
+                                                         @RequestParam(required = false) BigDecimal maxPrice,
+                                                         @RequestParam(required = false) String namePrefix,
+                                                         @PageableDefault(size = 50, sort = "id") Pageable pageable,
+                                                         @RequestParam(required = false) Currency[] currencies,
+                                                         @RequestParam(required = false) List<String> fields,
+                                                         WebRequest request) {
+        ProductFields selection = select(fields, request);
+        Pageable page = PageRequest.of(pageable.getPageNumber(),
+                Math.min(pageable.getPageSize(), listingProperties.getMaxPageSize()), pageable.getSort());
+        Slice<ProductSummary> products = service.search(
+                new ProductSearchCriteria(available, minPrice, maxPrice, namePrefix), page);
+
+        List<ProductDto> dtos = products.getContent().stream()
+                .map(summaryMapper(selection, currencies))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(new ProductSearchResultDto(dtos, page.getPageNumber(), page.getPageSize(), products.hasNext()));
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<ProductPageDto> getPage(@RequestParam(required = false) Long after,
+                                                  @RequestParam int limit,
+                                                  @RequestParam(required = false) Currency[] currencies,
+                                                  @RequestParam(required = false) List<String> fields,
+                                                  WebRequest request) {
+        ProductFields selection = select(fields, request);
+        int pageSize = Math.max(1, Math.min(limit, listingProperties.getMaxPageSize()));
+        List<Product> products = service.findPage(after, pageSize);
+
+        List<ProductDto> dtos = products.stream()
+                .map(dtoMapper(selection, currencies))
                 .collect(Collectors.toList());
+        Long nextCursor = products.size() < pageSize ? null : products.get(products.size() - 1).getId();
+
+        return ResponseEntity.ok(new ProductPageDto(dtos, nextCursor));
+    }
+
+    // Newline-delimited JSON, written batch by batch so the catalog is never held in memory
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll(@RequestParam(required = false) Currency[] currencies,
+                                                           @RequestParam(required = false) List<String> fields) {
+        ProductFields selection = ProductFields.of(fields);
+        ObjectWriter writer = objectMapper.writerFor(ProductDto.class)
+                .with(selection.filters())
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        Function<Product, ProductDto> toDto = dtoMapper(selection, currencies);
 
-        return ResponseEntity.ok(dtos);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                service.forEachBatch(listingProperties.getStreamBatchSize(), batch -> {
+                    try {
+                        for (Product product : batch) {
+                            writer.writeValue(generator, toDto.apply(product));
+                            generator.writeRaw('\n');
+                        }
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private ResponseEntity<ProductDto> updated(Product product) {
+        return ResponseEntity.ok()
+                .eTag(productEtag(product, ratesTag(ProductFields.ALL, null)))
+                .body(dtoMapper(ProductFields.ALL, null).apply(product));
+    }
+
+    // Remembered for ProductFieldsResponseAdvice, which leaves out the fields that were not selected
+    private static ProductFields select(List<String> fields, WebRequest request) {
+        ProductFields selection = ProductFields.of(fields);
+        if (selection != ProductFields.ALL) {
+            request.setAttribute(ProductFields.REQUEST_ATTRIBUTE, selection, RequestAttributes.SCOPE_REQUEST);
+        }
+        return selection;
+    }
+
+    // Versions of this product named by If-Match, null when any will do (no If-Match or *). Only the version part
+    // of an ETag matters for writes, the rates part changes without the product changing
+    private static Set<Long> expectedVersions(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        for (String element : ifMatch.split(",")) {
+            String etag = element.trim();
+            if ("*".equals(etag)) {
+                return null;
+            }
+            // If-Match uses the strong comparison (RFC 9110 13.1.1), a weak tag never matches
+            if (etag.startsWith("W/") || etag.length() < 2 || !etag.startsWith("\"") || !etag.endsWith("\"")) {
+                continue;
+            }
+            String[] parts = etag.substring(1, etag.length() - 1).split("-");
+            if (parts.length == 3 && parts[0].equals(String.valueOf(id))) {
+                try {
+                    versions.add(Long.valueOf(parts[1]));
+                } catch (NumberFormatException ignored) {
+                    // cannot match any version
+                }
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new ProductPreconditionFailedException("If-Match " + ifMatch + " names no ETag of product with ID " + id);
+        }
+        return versions;
+    }
+
+    /**
+     * Answers 304 without mapping, converting or serializing anything when the client's If-None-Match
+     * still matches, otherwise the body with its ETag. Both carry the same Cache-Control.
+     */
+    private <T> ResponseEntity<T> conditional(WebRequest request, String etag, Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl()).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl()).body(body.get());
+    }
+
+    private CacheControl cacheControl() {
+        return CacheControl.maxAge(listingProperties.getCacheMaxAge()).cachePublic().mustRevalidate();
+    }
+
+    // Any gzip in Accept-Encoding that is not explicitly refused with q=0
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase(GZIP)) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0{0,3})?");
+            }
+        }
+        return false;
+    }
+
+    // Read before the products are loaded: a refresh in between then yields a tag no client holds, never a stale match.
+    // EUR-only responses do not depend on the rates at all.
+    private String ratesTag(ProductFields fields, Currency[] currencies) {
+        if (!fields.includes(ProductFields.PRICE_USD) && (currencies == null || currencies.length == 0)) {
+            return "0";
+        }
+        return exchangeRateService.currentSnapshot()
+                .map(ExchangeRateSnapshot::getRatesTag)
+                .orElse("0");
+    }
+
+    private static String productEtag(Product product, String ratesTag) {
+        return "\"" + product.getId() + "-" + product.getVersion() + "-" + ratesTag + "\"";
+    }
+
+    // Read before the products are loaded, like the rates tag: a change in between yields a tag no client holds
+    private static String catalogEtag(CatalogVersion version, String ratesTag) {
+        return "\"" + version.products() + "-" + Long.toHexString(version.idSum()) + "-"
+                + Long.toHexString(version.versionSum()) + "-" + ratesTag + "\"";
+    }
+
+    // Same prices as dtoMapper, from the projected columns instead of an entity
+    private Function<ProductSummary, ProductDto> summaryMapper(ProductFields fields, Currency[] currencies) {
+        BiConsumer<ProductDto, BigDecimal> pricer = pricer(fields, currencies);
+        return summary -> {
+            ProductDto dto = mapper.toDto(summary);
+            pricer.accept(dto, summary.priceEur());
+            return dto;
+        };
     }
 
+    private Function<Product, ProductDto> dtoMapper(ProductFields fields, Currency[] currencies) {
+        BiConsumer<ProductDto, BigDecimal> pricer = pricer(fields, currencies);
+        return product -> {
+            ProductDto dto = mapper.toDto(product);
+            pricer.accept(dto, product.getPriceEur());
+            return dto;
+        };
+    }
+
+    // Only the requested prices are converted, all of one response with the rates of the same snapshot
+    private BiConsumer<ProductDto, BigDecimal> pricer(ProductFields fields, Currency[] currencies) {
+        PriceConverter usdConverter = fields.includes(ProductFields.PRICE_USD) ? service.priceConverter(USD_ONLY) : null;
+        PriceConverter converter = currencies == null || currencies.length == 0 ? null : service.priceConverter(currencies);
+        return (dto, priceEur) -> {
+            if (usdConverter != null) {
+                dto.setPriceUsd(usdConverter.convert(priceEur).get(Currency.USD));
+            }
+            if (converter != null) {
+                dto.setPrices(converter.convert(priceEur));
+            }
+        };
+    }
 }
\ No newline at end of file
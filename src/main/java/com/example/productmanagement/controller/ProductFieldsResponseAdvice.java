@@ -0,0 +1,28 @@
+package com.example.productmanagement.controller;
+
+import com.example.productmanagement.dto.ProductFields;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * Writes only the {@link ProductFields} the product request selected, for single products and lists alike.
+ */
+@ControllerAdvice(assignableTypes = ProductController.class)
+public class ProductFieldsResponseAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(ProductFields.REQUEST_ATTRIBUTE) instanceof ProductFields fields) {
+            bodyContainer.setFilters(fields.filters());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.productmanagement.controller;
+
+import com.example.productmanagement.dto.BulkImportResultDto;
+import com.example.productmanagement.service.impl.ProductImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/products")
+@RequiredArgsConstructor
+public class ProductImportController {
+
+    private final ProductImportService importService;
+
+    // Body is read row by row, never buffered as a whole
+    @PostMapping(value = "/bulk", consumes = {
+            MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE,
+            "text/csv"
+    })
+    public ResponseEntity<BulkImportResultDto> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                              InputStream body) throws IOException {
+        return ResponseEntity.ok(importService.importProducts(body, MediaType.parseMediaType(contentType)));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.productmanagement.controller;
+
+import com.example.productmanagement.dto.IngestStatusDto;
+import com.example.productmanagement.dto.ProductDto;
+import com.example.productmanagement.mapper.ProductMapper;
+import com.example.productmanagement.service.impl.ProductIngestService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/products/ingest")
+@RequiredArgsConstructor
+public class ProductIngestController {
+
+    private final ProductIngestService ingestService;
+    private final ProductMapper mapper;
+
+    // Validated here, written later in a batch; the outcome is polled at the returned Location
+    @PostMapping
+    public ResponseEntity<IngestStatusDto> ingest(@Valid @RequestBody ProductDto productDto) {
+        IngestStatusDto status = ingestService.enqueue(mapper.toEntity(productDto));
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(status.getTrackingId()).toUri())
+                .body(status);
+    }
+
+    @GetMapping("/{trackingId}")
+    public ResponseEntity<IngestStatusDto> status(@PathVariable UUID trackingId) {
+        return ResponseEntity.of(ingestService.status(trackingId));
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.productmanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResultDto {
+
+    private long received;
+
+    private long imported;
+
+    private long rejected;
+
+    /**
+     * Errors of rejected rows, capped at products.import.max-reported-errors; {@link #rejected} is always the full count.
+     */
+    private List<RowErrorDto> errors;
+
+    @Builder
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowErrorDto {
+
+        /**
+         * 1-based position of the row in the request body (data rows only for CSV).
+         */
+        private long row;
+
+        private String code;
+
+        private String message;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.productmanagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IngestStatusDto {
+
+    public enum Status { QUEUED, WRITTEN, REJECTED, FAILED }
+
+    private UUID trackingId;
+
+    private Status status;
+
+    private String code;
+
+    /**
+     * Id of the created product, once WRITTEN.
+     */
+    private Long productId;
+
+    /**
+     * Why the product was REJECTED (e.g. duplicate code) or FAILED.
+     */
+    private String message;
+}
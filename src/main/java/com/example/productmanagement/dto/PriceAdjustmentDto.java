@@ -0,0 +1,29 @@
+package com.example.productmanagement.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceAdjustmentDto {
+
+    /**
+     * Change of the EUR price in percent, e.g. 3 raises every price by 3%, -10 lowers it by 10%.
+     */
+    @NotNull(message = "Percent is required")
+    @DecimalMin(value = "-100", inclusive = false, message = "Percent must be greater than -100")
+    private BigDecimal percent;
+
+    /**
+     * Only reprice products with this availability, all products when absent.
+     */
+    private Boolean available;
+}
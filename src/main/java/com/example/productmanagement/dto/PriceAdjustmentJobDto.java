@@ -0,0 +1,45 @@
+package com.example.productmanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceAdjustmentJobDto {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private UUID id;
+
+    private Status status;
+
+    private BigDecimal percent;
+
+    private Boolean available;
+
+    /**
+     * Products repriced so far; every chunk counted here is committed.
+     */
+    private long updated;
+
+    private long chunks;
+
+    /**
+     * Highest product id repriced so far, products are processed in id order.
+     */
+    private Long lastId;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    private String error;
+}
@@ -1,6 +1,9 @@
 package com.example.productmanagement.dto;
 
+import com.example.productmanagement.model.CurrencyPrices;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -30,8 +33,15 @@ public class ProductDto {
     @NotNull(message = "Price in EUR is required")
     private BigDecimal priceEur;
 
+    // Converted only when selected, see ProductFields
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     private BigDecimal priceUsd;
 
     private boolean isAvailable;
 
+    // Only present when requested with ?currencies=
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private CurrencyPrices prices;
+
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.example.productmanagement.dto;
+
+import com.example.productmanagement.exception.UnknownFieldException;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Fields of {@link ProductDto} a client selected with ?fields=, e.g. ?fields=code,name,priceEur.
+ * Without a selection every field is written. Fields that are not selected are neither computed nor
+ * serialized, so EUR-only clients never pay for the USD conversion. {@code prices} is not selectable,
+ * it is written whenever ?currencies= asks for it.
+ */
+public final class ProductFields {
+
+    /**
+     * Jackson filter id of {@link ProductDto}, applied through {@link FilterMixIn}.
+     */
+    public static final String FILTER_ID = "productFields";
+
+    /**
+     * Request attribute holding the selection of the current request, read when the response is written.
+     */
+    public static final String REQUEST_ATTRIBUTE = ProductFields.class.getName();
+
+    public static final String PRICE_USD = "priceUsd";
+
+    private static final String PRICES = "prices";
+    private static final Set<String> SELECTABLE = Set.of("code", "name", "priceEur", PRICE_USD, "available");
+
+    public static final ProductFields ALL = new ProductFields(SELECTABLE);
+
+    private final Set<String> selected;
+
+    private ProductFields(Set<String> selected) {
+        this.selected = selected;
+    }
+
+    /**
+     * @param fields field names as given in ?fields=, null or empty for all fields
+     * @throws UnknownFieldException if a name is not a field of {@link ProductDto}
+     */
+    public static ProductFields of(Collection<String> fields) {
+        if (fields == null) {
+            return ALL;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!SELECTABLE.contains(name)) {
+                throw new UnknownFieldException("Unknown field '" + name + "', expected any of " + SELECTABLE);
+            }
+            selected.add(name);
+        }
+        return selected.isEmpty() ? ALL : new ProductFields(selected);
+    }
+
+    public boolean includes(String field) {
+        return selected.contains(field);
+    }
+
+    public FilterProvider filters() {
+        Set<String> written = new LinkedHashSet<>(selected);
+        written.add(PRICES);
+        return new SimpleFilterProvider().addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(written));
+    }
+
+    /**
+     * Mix-in that puts {@link ProductDto} under {@link #FILTER_ID} in the application's ObjectMapper only,
+     * other mappers (and the DTO itself) stay unaware of the filter.
+     */
+    @JsonFilter(FILTER_ID)
+    public interface FilterMixIn {
+    }
+}
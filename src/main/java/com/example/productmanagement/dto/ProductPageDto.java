@@ -0,0 +1,23 @@
+package com.example.productmanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageDto {
+
+    private List<ProductDto> items;
+
+    /**
+     * Cursor to pass as {@code after} to fetch the next page, null when this is the last page.
+     */
+    private Long nextCursor;
+
+}
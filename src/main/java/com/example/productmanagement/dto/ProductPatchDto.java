@@ -0,0 +1,32 @@
+package com.example.productmanagement.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Partial update of a product: only the fields present (non-null) are changed.
+ */
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPatchDto {
+
+    @Size(min = 10, max = 10, message = "Code must be exactly 10 characters long")
+    private String code;
+
+    @Pattern(regexp = ".*\\S.*", message = "Name must not be blank")
+    private String name;
+
+    @DecimalMin(value = "0.01", message = "Price must be a positive value, at least 0.01")
+    private BigDecimal priceEur;
+
+    private Boolean available;
+}
@@ -0,0 +1,26 @@
+package com.example.productmanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResultDto {
+
+    private List<ProductDto> items;
+
+    private int page;
+
+    private int size;
+
+    /**
+     * Whether a request for {@code page + 1} returns more products.
+     */
+    private boolean hasNext;
+}
@@ -0,0 +1,13 @@
+package com.example.productmanagement.event;
+
+/**
+ * Published after caches were cleared on request (POST /api/cache/clear), here or on another instance.
+ * @param cacheName name of the cleared cache, null when every cache was cleared
+ * @param remote whether the clear was announced by another instance, see {@code ClusterInvalidation}
+ */
+public record CachesClearedEvent(String cacheName, boolean remote) {
+
+    public boolean isAll() {
+        return cacheName == null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.productmanagement.event;
+
+/**
+ * Published after the exchange rate snapshot was replaced by rates that differ from the previous ones,
+ * or cleared, here or on another instance.
+ * @param cleared whether the snapshot was dropped rather than replaced
+ * @param remote whether the change was announced by another instance, see {@code ClusterInvalidation}
+ */
+public record ExchangeRatesChangedEvent(boolean cleared, boolean remote) {
+}
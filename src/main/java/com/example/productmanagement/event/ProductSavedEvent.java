@@ -0,0 +1,17 @@
+package com.example.productmanagement.event;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published after {@code ProductService} saved a single product. The caches of this instance were already
+ * updated write-through, only other instances have copies to drop.
+ * @param id id of the saved product
+ * @param codes code of the product, and its previous code if the save changed it
+ */
+public record ProductSavedEvent(Long id, Collection<String> codes) {
+
+    public ProductSavedEvent {
+        codes = List.copyOf(codes);
+    }
+}
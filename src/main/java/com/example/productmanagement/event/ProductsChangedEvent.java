@@ -0,0 +1,23 @@
+package com.example.productmanagement.event;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published after products were written outside of {@code ProductService.save} (bulk import, bulk updates),
+ * or on another instance, so anything caching products can drop its copies.
+ * @param ids ids of the changed products
+ * @param codes codes of the changed products, empty when codes did not change
+ * @param remote whether the change was announced by another instance, see {@code ClusterInvalidation}
+ */
+public record ProductsChangedEvent(Collection<Long> ids, Collection<String> codes, boolean remote) {
+
+    public ProductsChangedEvent {
+        ids = List.copyOf(ids);
+        codes = List.copyOf(codes);
+    }
+
+    public ProductsChangedEvent(Collection<Long> ids, Collection<String> codes) {
+        this(ids, codes, false);
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.productmanagement.exception;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -14,6 +17,8 @@ import java.util.stream.Collectors;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final String INGEST_RETRY_AFTER_SECONDS = "1";
+
     @ExceptionHandler(ExchangeRateUnavailableException.class)
     public ResponseEntity<Object> handleExchangeRateUnavailable(ExchangeRateUnavailableException ex) {
         Map<String, Object> body = new HashMap<>();
@@ -24,11 +29,38 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.SERVICE_UNAVAILABLE);
     }
 
+    // Backpressure of the async ingest queue, the producer should slow down and retry
+    @ExceptionHandler(IngestQueueFullException.class)
+    public ResponseEntity<Object> handleIngestQueueFull(IngestQueueFullException ex) {
+        ResponseEntity<Object> response = buildResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, INGEST_RETRY_AFTER_SECONDS)
+                .body(response.getBody());
+    }
+
     @ExceptionHandler(ProductNotFoundException.class)
     public ResponseEntity<Object> handleProductNotFound(ProductNotFoundException ex) {
         return buildResponse(HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
+    // Concurrent update of the same product
+    @ExceptionHandler(ProductConflictException.class)
+    public ResponseEntity<Object> handleProductConflict(ProductConflictException ex) {
+        return buildResponse(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    // If-Match naming none of the product's current ETag
+    @ExceptionHandler(ProductPreconditionFailedException.class)
+    public ResponseEntity<Object> handleProductPreconditionFailed(ProductPreconditionFailedException ex) {
+        return buildResponse(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+    }
+
+    // A write colliding with existing data, e.g. changing a product's code to one that is taken
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Object> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        return buildResponse(HttpStatus.CONFLICT, "Conflicts with existing data: " + ex.getMostSpecificCause().getMessage());
+    }
+
     // @Valid
     @ExceptionHandler({
             MethodArgumentNotValidException.class,
@@ -47,6 +79,18 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    // Unparseable query parameters, e.g. an unknown code in ?currencies=
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<Object> handleArgumentTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        return buildResponse(HttpStatus.BAD_REQUEST, "Invalid value for parameter '" + ex.getName() + "': " + ex.getValue());
+    }
+
+    // ?fields= naming something that is not a product field
+    @ExceptionHandler(UnknownFieldException.class)
+    public ResponseEntity<Object> handleUnknownField(UnknownFieldException ex) {
+        return buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
     // Catch-all handler (fallback)
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleGeneralError(Exception ex) {
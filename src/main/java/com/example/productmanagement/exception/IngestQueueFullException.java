@@ -0,0 +1,7 @@
+package com.example.productmanagement.exception;
+
+public class IngestQueueFullException extends RuntimeException {
+    public IngestQueueFullException(String message) {
+        super(message);
+    }
+}
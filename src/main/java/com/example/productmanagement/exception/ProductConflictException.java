@@ -0,0 +1,11 @@
+package com.example.productmanagement.exception;
+
+public class ProductConflictException extends RuntimeException {
+    public ProductConflictException(String message) {
+        super(message);
+    }
+
+    public ProductConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.productmanagement.exception;
+
+public class ProductPreconditionFailedException extends RuntimeException {
+    public ProductPreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.productmanagement.exception;
+
+public class UnknownFieldException extends RuntimeException {
+    public UnknownFieldException(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.productmanagement.mapper;
 
 import com.example.productmanagement.dto.ProductDto;
 import com.example.productmanagement.model.Product;
+import com.example.productmanagement.repo.ProductSummary;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -17,11 +18,24 @@ public class ProductMapper {
                 .code(product.getCode())
                 .name(product.getName())
                 .priceEur(product.getPriceEur())
-                .priceUsd(product.getPriceUsd())
                 .isAvailable(product.isAvailable())
                 .build();
     }
 
+    public ProductDto toDto(ProductSummary summary) {
+        if (summary == null) {
+            return null;
+        }
+
+        return ProductDto.builder()
+                .id(summary.id())
+                .code(summary.code())
+                .name(summary.name())
+                .priceEur(summary.priceEur())
+                .isAvailable(summary.available())
+                .build();
+    }
+
     public Product toEntity(ProductDto dto) {
         if (dto == null) {
             return null;
@@ -32,7 +46,6 @@ public class ProductMapper {
         product.setCode(dto.getCode());
         product.setName(dto.getName());
         product.setPriceEur(dto.getPriceEur());
-        product.setPriceUsd(dto.getPriceUsd());
         product.setAvailable(dto.isAvailable());
 
         return product;
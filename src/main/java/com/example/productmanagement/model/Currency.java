@@ -1,6 +1,21 @@
 package com.example.productmanagement.model;
 
+/**
+ * Currencies products are priced in, all present in the HNB rate list.
+ * The ordinal doubles as the row/column index of the snapshot's cross rate matrix.
+ */
 public enum Currency {
     EUR,
-    USD
+    USD,
+    GBP,
+    CHF,
+    JPY,
+    CAD,
+    AUD,
+    SEK,
+    NOK,
+    DKK,
+    PLN,
+    CZK,
+    HUF
 }
@@ -0,0 +1,47 @@
+package com.example.productmanagement.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * A product's price in several currencies, written as a JSON object keyed by currency code.
+ * The currency array is shared by every product of a response, only the amounts are per product.
+ */
+@JsonSerialize(using = CurrencyPrices.Serializer.class)
+public final class CurrencyPrices {
+
+    private final Currency[] currencies;
+    private final BigDecimal[] amounts;
+
+    CurrencyPrices(Currency[] currencies, BigDecimal[] amounts) {
+        this.currencies = currencies;
+        this.amounts = amounts;
+    }
+
+    public BigDecimal get(Currency currency) {
+        for (int i = 0; i < currencies.length; i++) {
+            if (currencies[i] == currency) {
+                return amounts[i];
+            }
+        }
+        return null;
+    }
+
+    public static final class Serializer extends JsonSerializer<CurrencyPrices> {
+
+        @Override
+        public void serialize(CurrencyPrices prices, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < prices.currencies.length; i++) {
+                generator.writeFieldName(prices.currencies[i].name());
+                generator.writeNumber(prices.amounts[i]);
+            }
+            generator.writeEndObject();
+        }
+    }
+}
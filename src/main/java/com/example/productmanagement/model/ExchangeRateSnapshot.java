@@ -0,0 +1,146 @@
+package com.example.productmanagement.model;
+
+import com.example.productmanagement.exception.ExchangeRateUnavailableException;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable set of exchange rates fetched from HNB at one point in time.
+ * A new snapshot is built on every refresh and swapped in as a whole, so readers never see a mix of old and new rates.
+ */
+@Getter
+public final class ExchangeRateSnapshot {
+
+    // 34 significant digits: multiplying a price by the cross rate agrees with rate-by-rate conversion at 4 decimals
+    // except within about 1e-30 of a HALF_UP rounding tie, where the truncated quotient can land just below the tie
+    private static final MathContext CROSS_RATE_PRECISION = MathContext.DECIMAL128;
+
+    public static final int PRICE_SCALE = 4;
+
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long id;
+
+    private final Map<String, BigDecimal> rates;
+
+    private final Instant fetchedAt;
+
+    // Date HNB publishes the rate list for, null if the response carried none
+    private final LocalDate validOn;
+
+    // Hash of the rates only, equal for snapshots with equal rates whichever instance fetched them and when
+    private final String ratesTag;
+
+    // Dense CURRENCIES x CURRENCIES matrix, [from.ordinal() * CURRENCIES.length + to.ordinal()]
+    @Getter(AccessLevel.NONE)
+    private final BigDecimal[] crossRates;
+
+    public ExchangeRateSnapshot(long id, Map<String, BigDecimal> rates, Instant fetchedAt) {
+        this(id, rates, fetchedAt, null);
+    }
+
+    public ExchangeRateSnapshot(long id, Map<String, BigDecimal> rates, Instant fetchedAt, LocalDate validOn) {
+        this.id = id;
+        this.rates = Map.copyOf(rates);
+        this.fetchedAt = fetchedAt;
+        this.validOn = validOn;
+        this.ratesTag = computeRatesTag(this.rates);
+        this.crossRates = computeCrossRates(this.rates);
+    }
+
+    public BigDecimal getRate(String currency) {
+        BigDecimal rate = rates.get(currency);
+        if (rate == null) {
+            throw new ExchangeRateUnavailableException("No exchange rate for " + currency + " in snapshot " + id);
+        }
+        return rate;
+    }
+
+    /**
+     * Multiplier converting an amount in {@code from} into {@code to}, computed once when the snapshot is built.
+     */
+    public BigDecimal getCrossRate(Currency from, Currency to) {
+        BigDecimal crossRate = crossRates[from.ordinal() * CURRENCIES.length + to.ordinal()];
+        if (crossRate == null) {
+            throw new ExchangeRateUnavailableException("No " + from + "/" + to + " cross rate in snapshot " + id);
+        }
+        return crossRate;
+    }
+
+    public BigDecimal convert(BigDecimal amount, Currency from, Currency to) {
+        return amount.multiply(getCrossRate(from, to)).setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Converter into all of {@code to} at once, holding the needed row of the matrix.
+     */
+    public PriceConverter priceConverter(Currency from, Currency[] to) {
+        Currency[] currencies = distinct(to);
+        BigDecimal[] row = new BigDecimal[currencies.length];
+        for (int i = 0; i < currencies.length; i++) {
+            row[i] = getCrossRate(from, currencies[i]);
+        }
+        return new PriceConverter(currencies, row);
+    }
+
+    public Duration getAge(Instant now) {
+        return Duration.between(fetchedAt, now);
+    }
+
+    // A currency asked for twice is converted and written once, where it was first asked for
+    private static Currency[] distinct(Currency[] currencies) {
+        boolean[] seen = new boolean[CURRENCIES.length];
+        Currency[] distinct = new Currency[currencies.length];
+        int count = 0;
+        for (Currency currency : currencies) {
+            if (!seen[currency.ordinal()]) {
+                seen[currency.ordinal()] = true;
+                distinct[count++] = currency;
+            }
+        }
+        return count == currencies.length ? currencies : Arrays.copyOf(distinct, count);
+    }
+
+    private static BigDecimal[] computeCrossRates(Map<String, BigDecimal> rates) {
+        BigDecimal[] crossRates = new BigDecimal[CURRENCIES.length * CURRENCIES.length];
+        for (Currency from : CURRENCIES) {
+            BigDecimal fromRate = rates.get(from.name());
+            if (fromRate == null) {
+                continue;
+            }
+            for (Currency to : CURRENCIES) {
+                BigDecimal toRate = rates.get(to.name());
+                if (toRate != null) {
+                    crossRates[from.ordinal() * CURRENCIES.length + to.ordinal()] =
+                            fromRate.divide(toRate, CROSS_RATE_PRECISION);
+                }
+            }
+        }
+        return crossRates;
+    }
+
+    // FNV-1a over "currency=rate;" in currency order, the rate without trailing zeros so 7.50 and 7.5 match
+    private static String computeRatesTag(Map<String, BigDecimal> rates) {
+        long hash = FNV_OFFSET_BASIS;
+        for (Map.Entry<String, BigDecimal> rate : new TreeMap<>(rates).entrySet()) {
+            String text = rate.getKey() + '=' + rate.getValue().stripTrailingZeros().toPlainString() + ';';
+            for (int i = 0; i < text.length(); i++) {
+                hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+            }
+        }
+        return Long.toHexString(hash);
+    }
+}
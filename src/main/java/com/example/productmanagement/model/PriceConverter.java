@@ -0,0 +1,27 @@
+package com.example.productmanagement.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Converts amounts from one currency into a fixed list of currencies, with the cross rates of a single
+ * snapshot resolved up front, so each amount is converted in one pass over plain arrays.
+ */
+public final class PriceConverter {
+
+    private final Currency[] currencies;
+    private final BigDecimal[] crossRates;
+
+    PriceConverter(Currency[] currencies, BigDecimal[] crossRates) {
+        this.currencies = currencies;
+        this.crossRates = crossRates;
+    }
+
+    public CurrencyPrices convert(BigDecimal amount) {
+        BigDecimal[] amounts = new BigDecimal[crossRates.length];
+        for (int i = 0; i < crossRates.length; i++) {
+            amounts[i] = amount.multiply(crossRates[i]).setScale(ExchangeRateSnapshot.PRICE_SCALE, RoundingMode.HALF_UP);
+        }
+        return new CurrencyPrices(currencies, amounts);
+    }
+}
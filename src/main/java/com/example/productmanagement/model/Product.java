@@ -7,16 +7,21 @@ import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 
 @Getter
 @Setter
 @Entity
+@DynamicUpdate
 @NoArgsConstructor
-public class Product {
+public class Product implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ProductIdGenerator.SEQUENCE_NAME)
+    @GenericGenerator(name = ProductIdGenerator.SEQUENCE_NAME, type = ProductIdGenerator.class)
     private Long id;
 
     @Column(unique = true, length = 10, nullable = false)
@@ -33,12 +38,14 @@ public class Product {
     @Column(name = "price_eur", nullable = false)
     private BigDecimal priceEur;
 
-    @Transient
-    private BigDecimal priceUsd;
-
     @Column(name = "is_available")
     private boolean isAvailable;
 
+    // Incremented on every update, part of the product's HTTP ETag
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     public Product(String code, String name, BigDecimal priceEur, boolean isAvailable) {
         this.code = code;
         this.name = name;
@@ -0,0 +1,35 @@
+package com.example.productmanagement.model;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Product id generator: {@code product_seq} with the pooled-lo optimizer, so one sequence call hands out
+ * a whole block of ids and inserts can be batched. The block size is read from the
+ * {@value #ALLOCATION_SIZE_SETTING} Hibernate setting and must match the sequence increment.
+ */
+public class ProductIdGenerator extends SequenceStyleGenerator {
+
+    public static final String SEQUENCE_NAME = "product_seq";
+
+    public static final String ALLOCATION_SIZE_SETTING = "products.id.allocation-size";
+
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        Object allocationSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSettings()
+                .getOrDefault(ALLOCATION_SIZE_SETTING, DEFAULT_ALLOCATION_SIZE);
+
+        parameters.setProperty(SEQUENCE_PARAM, SEQUENCE_NAME);
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.productmanagement.repo;
+
+/**
+ * Aggregates over the whole product table that change with every insert, update and delete: ids come from a
+ * sequence and are never reused, versions only grow. Equal values mean an unchanged catalog.
+ */
+public record CatalogVersion(long products, long idSum, long versionSum) {
+}
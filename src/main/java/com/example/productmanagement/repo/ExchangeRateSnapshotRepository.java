@@ -0,0 +1,72 @@
+package com.example.productmanagement.repo;
+
+import com.example.productmanagement.model.ExchangeRateSnapshot;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps the last exchange rate snapshot fetched from HNB, so a restarted instance can convert prices
+ * before its first successful refresh.
+ */
+@Repository
+public class ExchangeRateSnapshotRepository {
+
+    private static final String SELECT_RATES = "SELECT currency, rate, valid_on, fetched_at FROM exchange_rate";
+
+    private static final String DELETE_RATES = "DELETE FROM exchange_rate";
+
+    private static final String INSERT_RATE =
+            "INSERT INTO exchange_rate (currency, rate, valid_on, fetched_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExchangeRateSnapshotRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param id id the restored snapshot is given
+     * @return the persisted snapshot, empty if none was saved yet
+     */
+    public Optional<ExchangeRateSnapshot> load(long id) {
+        Map<String, BigDecimal> rates = new HashMap<>();
+        LocalDate[] validOn = new LocalDate[1];
+        Instant[] fetchedAt = new Instant[1];
+        jdbcTemplate.query(SELECT_RATES, rs -> {
+            rates.put(rs.getString("currency"), rs.getBigDecimal("rate"));
+            Date date = rs.getDate("valid_on");
+            validOn[0] = date != null ? date.toLocalDate() : null;
+            fetchedAt[0] = rs.getTimestamp("fetched_at").toInstant();
+        });
+        if (rates.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new ExchangeRateSnapshot(id, rates, fetchedAt[0], validOn[0]));
+    }
+
+    /**
+     * Replaces the persisted snapshot with the given one.
+     */
+    @Transactional
+    public void save(ExchangeRateSnapshot snapshot) {
+        Date validOn = snapshot.getValidOn() != null ? Date.valueOf(snapshot.getValidOn()) : null;
+        Timestamp fetchedAt = Timestamp.from(snapshot.getFetchedAt());
+        List<Object[]> rows = new ArrayList<>(snapshot.getRates().size());
+        snapshot.getRates().forEach((currency, rate) -> rows.add(new Object[]{currency, rate, validOn, fetchedAt}));
+
+        jdbcTemplate.update(DELETE_RATES);
+        jdbcTemplate.batchUpdate(INSERT_RATE, rows);
+    }
+}
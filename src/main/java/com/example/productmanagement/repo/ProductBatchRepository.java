@@ -0,0 +1,142 @@
+package com.example.productmanagement.repo;
+
+import com.example.productmanagement.model.Product;
+import com.example.productmanagement.model.ProductIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access for bulk reads and writes, bypassing the persistence context so inserts can be sent
+ * as one batch and whole-table scans do not materialize entities.
+ */
+@Repository
+public class ProductBatchRepository {
+
+    // All rows in one statement, passed as one array per column; only the rows actually inserted come back
+    private static final String INSERT_PRODUCTS = "INSERT INTO product (id, code, name, price_eur, is_available) "
+            + "SELECT * FROM unnest(?::int8[], ?::varchar[], ?::varchar[], ?::numeric[], ?::bool[]) "
+            + "ON CONFLICT (code) DO NOTHING RETURNING id";
+
+    private static final String NEXT_ID_BLOCKS =
+            "SELECT nextval('" + ProductIdGenerator.SEQUENCE_NAME + "') FROM generate_series(1, ?)";
+
+    private static final String SELECT_ALL_CODES = "SELECT code FROM product";
+
+    private static final String COUNT_PRODUCTS = "SELECT count(*) FROM product";
+
+    // Next chunk in id order, repriced by a single statement; the version bump invalidates ETags and If-Match.
+    // A price never drops below the smallest valid one, 0.01, however far it is lowered
+    private static final String ADJUST_PRICES = "UPDATE product SET price_eur = GREATEST(ROUND(price_eur * ?, 2), 0.01), "
+            + "version = version + 1 "
+            + "WHERE id IN (SELECT id FROM product WHERE id > ?%s ORDER BY id LIMIT ?) RETURNING id";
+
+    private static final String AVAILABILITY_FILTER = " AND is_available = ?";
+
+    private static final int CODE_SCAN_FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int allocationSize;
+
+    public ProductBatchRepository(JdbcTemplate jdbcTemplate, @Value("${products.id.allocation-size:50}") int allocationSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.allocationSize = allocationSize;
+    }
+
+    /**
+     * Streams every product code, fetched in rounds of {@value #CODE_SCAN_FETCH_SIZE} rows.
+     * Only the code column is read, so PostgreSQL can answer from the unique index on code.
+     */
+    // PostgreSQL only honours the fetch size (server-side cursor) inside a transaction
+    @Transactional(readOnly = true)
+    public void forEachCode(Consumer<String> consumer) {
+        JdbcTemplate scanTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        scanTemplate.setFetchSize(CODE_SCAN_FETCH_SIZE);
+        scanTemplate.query(SELECT_ALL_CODES, rs -> {
+            consumer.accept(rs.getString(1));
+        });
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject(COUNT_PRODUCTS, Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Inserts all products with a single statement, skipping duplicates: a code that already exists, also when it
+     * was inserted concurrently, or that an earlier product of the list has (rows go in in list order).
+     * Ids are assigned from product_seq the same way Hibernate's pooled-lo optimizer does, one sequence call per block.
+     * @param products products to insert, their ids are set; cleared again on skipped products
+     * @return per product whether it was inserted, false for a duplicate
+     */
+    public boolean[] insertIgnoringDuplicates(List<Product> products) {
+        int size = products.size();
+        if (size == 0) {
+            return new boolean[0];
+        }
+        assignIds(products);
+        Long[] ids = new Long[size];
+        String[] codes = new String[size];
+        String[] names = new String[size];
+        BigDecimal[] prices = new BigDecimal[size];
+        Boolean[] available = new Boolean[size];
+        for (int i = 0; i < size; i++) {
+            Product product = products.get(i);
+            ids[i] = product.getId();
+            codes[i] = product.getCode();
+            names[i] = product.getName();
+            prices[i] = product.getPriceEur();
+            available[i] = product.isAvailable();
+        }
+        // RETURNING tells which rows were inserted, batch update counts can't: with reWriteBatchedInserts
+        // the driver reports SUCCESS_NO_INFO for every row, skipped ones included
+        Set<Long> insertedIds = new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_PRODUCTS);
+            ps.setArray(1, connection.createArrayOf("int8", ids));
+            ps.setArray(2, connection.createArrayOf("varchar", codes));
+            ps.setArray(3, connection.createArrayOf("varchar", names));
+            ps.setArray(4, connection.createArrayOf("numeric", prices));
+            ps.setArray(5, connection.createArrayOf("bool", available));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1)));
+
+        boolean[] inserted = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            inserted[i] = insertedIds.contains(ids[i]);
+            if (!inserted[i]) {
+                products.get(i).setId(null);
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Multiplies the EUR price of the next {@code limit} products after {@code afterId} by {@code factor},
+     * rounded to cents and at least 0.01, in one set-based UPDATE.
+     * @param available only products with this availability, all products when null
+     * @return ids of the repriced products, fewer than {@code limit} once the end of the table is reached
+     */
+    public List<Long> adjustPrices(long afterId, BigDecimal factor, Boolean available, int limit) {
+        if (available == null) {
+            return jdbcTemplate.queryForList(String.format(ADJUST_PRICES, ""), Long.class, factor, afterId, limit);
+        }
+        return jdbcTemplate.queryForList(String.format(ADJUST_PRICES, AVAILABILITY_FILTER), Long.class,
+                factor, afterId, available, limit);
+    }
+
+    private void assignIds(List<Product> products) {
+        int blocks = (products.size() + allocationSize - 1) / allocationSize;
+        List<Long> blockStarts = jdbcTemplate.queryForList(NEXT_ID_BLOCKS, Long.class, blocks);
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setId(blockStarts.get(i / allocationSize) + i % allocationSize);
+        }
+    }
+}
@@ -1,7 +1,32 @@
 package com.example.productmanagement.repo;
 
 import com.example.productmanagement.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
-}
\ No newline at end of file
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductSearchRepository {
+
+    /**
+     * Keyset (cursor) page: products with id greater than the given cursor, in id order.
+     * @param id cursor - id of the last product of the previous page
+     * @param limit maximum number of products to return
+     * @return next page of products
+     */
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Single-row lookup through the unique index on code.
+     */
+    Optional<Product> findByCode(String code);
+
+    /**
+     * One aggregate row instead of the products, to tell whether the catalog changed without loading it.
+     */
+    @Query("SELECT new com.example.productmanagement.repo.CatalogVersion(count(p), coalesce(sum(p.id), 0L), "
+            + "coalesce(sum(p.version), 0L)) FROM Product p")
+    CatalogVersion catalogVersion();
+}
@@ -0,0 +1,13 @@
+package com.example.productmanagement.repo;
+
+import java.math.BigDecimal;
+
+/**
+ * Filters of a product search, null fields do not restrict the result.
+ * @param available availability of the products
+ * @param minPrice lowest EUR price, inclusive
+ * @param maxPrice highest EUR price, inclusive
+ * @param namePrefix case-insensitive start of the name
+ */
+public record ProductSearchCriteria(Boolean available, BigDecimal minPrice, BigDecimal maxPrice, String namePrefix) {
+}
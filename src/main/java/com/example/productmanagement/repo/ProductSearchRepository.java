@@ -0,0 +1,17 @@
+package com.example.productmanagement.repo;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Search fragment of {@link ProductRepository}, implemented with a JPQL query built from the filters actually set.
+ */
+public interface ProductSearchRepository {
+
+    /**
+     * @param criteria filters, unset ones are left out of the query entirely so the planner can use the matching index
+     * @param pageable page, size and sort (by id, code, name or priceEur); id breaks ties
+     * @return one page of matching products, without a count query
+     */
+    Slice<ProductSummary> search(ProductSearchCriteria criteria, Pageable pageable);
+}
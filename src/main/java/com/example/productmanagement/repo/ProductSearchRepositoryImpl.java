@@ -0,0 +1,91 @@
+package com.example.productmanagement.repo;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class ProductSearchRepositoryImpl implements ProductSearchRepository {
+
+    private static final String SELECT_SUMMARIES = "select new " + ProductSummary.class.getName()
+            + "(p.id, p.code, p.name, p.priceEur, p.isAvailable) from Product p where 1 = 1";
+
+    private static final String LIKE_ESCAPE = "!";
+
+    // Request property -> JPQL path; anything else is rejected rather than concatenated into the query
+    private static final Map<String, String> SORTABLE = Map.of(
+            "id", "p.id",
+            "code", "p.code",
+            "name", "p.name",
+            "priceEur", "p.priceEur");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<ProductSummary> search(ProductSearchCriteria criteria, Pageable pageable) {
+        StringBuilder jpql = new StringBuilder(SELECT_SUMMARIES);
+        Map<String, Object> parameters = new HashMap<>();
+
+        // A literal rather than a parameter, so PostgreSQL can match the partial index on available products
+        if (criteria.available() != null) {
+            jpql.append(criteria.available() ? " and p.isAvailable = true" : " and p.isAvailable = false");
+        }
+        if (criteria.minPrice() != null) {
+            jpql.append(" and p.priceEur >= :minPrice");
+            parameters.put("minPrice", criteria.minPrice());
+        }
+        if (criteria.maxPrice() != null) {
+            jpql.append(" and p.priceEur <= :maxPrice");
+            parameters.put("maxPrice", criteria.maxPrice());
+        }
+        if (StringUtils.hasLength(criteria.namePrefix())) {
+            jpql.append(" and lower(p.name) like :namePrefix escape '" + LIKE_ESCAPE + "'");
+            parameters.put("namePrefix", escapeLike(criteria.namePrefix().toLowerCase(Locale.ROOT)) + "%");
+        }
+        jpql.append(orderBy(pageable.getSort()));
+
+        TypedQuery<ProductSummary> query = entityManager.createQuery(jpql.toString(), ProductSummary.class);
+        parameters.forEach(query::setParameter);
+        // One row more than the page tells whether there is a next page, no count(*) needed
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize() + 1);
+
+        List<ProductSummary> rows = query.getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    private static String orderBy(Sort sort) {
+        StringBuilder orderBy = new StringBuilder(" order by ");
+        boolean byId = false;
+        for (Sort.Order order : sort) {
+            String path = SORTABLE.get(order.getProperty());
+            if (path == null) {
+                throw new InvalidDataAccessApiUsageException("Cannot sort products by " + order.getProperty());
+            }
+            orderBy.append(path).append(order.isAscending() ? " asc, " : " desc, ");
+            byId |= "id".equals(order.getProperty());
+        }
+        if (!byId) {
+            orderBy.append("p.id asc, ");
+        }
+        return orderBy.substring(0, orderBy.length() - 2);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace(LIKE_ESCAPE, LIKE_ESCAPE + LIKE_ESCAPE)
+                .replace("%", LIKE_ESCAPE + "%")
+                .replace("_", LIKE_ESCAPE + "_");
+    }
+}
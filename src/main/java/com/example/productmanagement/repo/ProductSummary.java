@@ -0,0 +1,10 @@
+package com.example.productmanagement.repo;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only product row selected by a JPQL constructor expression: no entity, no persistence context
+ * entry, no dirty-checking snapshot, only the columns a listing shows.
+ */
+public record ProductSummary(Long id, String code, String name, BigDecimal priceEur, boolean available) {
+}
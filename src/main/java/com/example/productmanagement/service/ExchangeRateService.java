@@ -1,6 +1,11 @@
 package com.example.productmanagement.service;
 
+import com.example.productmanagement.model.Currency;
+import com.example.productmanagement.model.ExchangeRateSnapshot;
+import com.example.productmanagement.model.PriceConverter;
+
 import java.math.BigDecimal;
+import java.util.Optional;
 
 public interface ExchangeRateService {
 
@@ -17,5 +22,33 @@ public interface ExchangeRateService {
      * @return equivalent price in USD
      */
     BigDecimal convertEurToUsd(BigDecimal priceEur);
-}
 
+    /**
+     * Converts an amount between any two supported currencies
+     * @param amount amount in {@code from}
+     * @param from currency of the amount
+     * @param to target currency
+     * @return equivalent amount in {@code to}
+     */
+    BigDecimal convert(BigDecimal amount, Currency from, Currency to);
+
+    /**
+     * Converter from one currency into several, all rates taken from the same snapshot
+     * @param from currency of the amounts to convert
+     * @param to target currencies, in the order the converted amounts are returned
+     * @return converter bound to the current snapshot
+     */
+    PriceConverter priceConverter(Currency from, Currency[] to);
+
+    /**
+     * Returns the rate snapshot conversions are currently served from, without triggering a fetch
+     * @return current snapshot, empty until the first successful refresh
+     */
+    Optional<ExchangeRateSnapshot> currentSnapshot();
+
+    /**
+     * Fetches fresh rates from HNB and atomically replaces the current snapshot
+     * @return the new snapshot
+     */
+    ExchangeRateSnapshot refreshSnapshot();
+}
@@ -0,0 +1,30 @@
+package com.example.productmanagement.service;
+
+/**
+ * Broadcast channel between the instances of the application, carrying cache invalidations.
+ */
+public interface InvalidationBus {
+
+    /**
+     * Sends a message to every subscriber on every instance, including this one
+     * @param payload message text, at most 7999 bytes in UTF-8
+     */
+    void publish(String payload);
+
+    /**
+     * Registers a receiver of the messages published from now on
+     * @param subscriber receiver, called on the bus's delivery thread
+     */
+    void subscribe(Subscriber subscriber);
+
+    interface Subscriber {
+
+        void onMessage(String payload);
+
+        /**
+         * Called when the bus is connected again after an outage, messages published meanwhile were lost.
+         */
+        default void onReconnected() {
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.event.CachesClearedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Clears caches on request. The clear is announced with a {@link CachesClearedEvent}, so every instance
+ * clears the same caches; a clear of every cache also covers the product cache.
+ */
+@Slf4j
+@Component
+public class CacheClearer {
+
+    private final CacheManager cacheManager;
+    private final ProductCache productCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CacheClearer(CacheManager cacheManager, ProductCache productCache, ApplicationEventPublisher eventPublisher) {
+        this.cacheManager = cacheManager;
+        this.productCache = productCache;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public void clearAll() {
+        clearLocally(null);
+        eventPublisher.publishEvent(new CachesClearedEvent(null, false));
+    }
+
+    /**
+     * @return false if there is no cache of that name
+     */
+    public boolean clear(String cacheName) {
+        if (cacheManager.getCache(cacheName) == null) {
+            return false;
+        }
+        clearLocally(cacheName);
+        eventPublisher.publishEvent(new CachesClearedEvent(cacheName, false));
+        return true;
+    }
+
+    @EventListener
+    public void onCachesCleared(CachesClearedEvent event) {
+        if (event.remote()) {
+            clearLocally(event.cacheName());
+            log.info("Cache {} cleared by another instance", event.isAll() ? "(all)" : event.cacheName());
+        }
+    }
+
+    private void clearLocally(String cacheName) {
+        if (cacheName != null) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+            return;
+        }
+        cacheManager.getCacheNames().forEach(name -> {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        });
+        productCache.clear();
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.event.CachesClearedEvent;
+import com.example.productmanagement.event.ExchangeRatesChangedEvent;
+import com.example.productmanagement.event.ProductSavedEvent;
+import com.example.productmanagement.event.ProductsChangedEvent;
+import com.example.productmanagement.service.InvalidationBus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the caches of all instances in step. Product changes, cache clears and exchange rate changes made here
+ * are sent over the {@link InvalidationBus}; those announced by other instances are published here as the same
+ * events marked remote, so the components owning the caches apply them as if they had happened locally.
+ * Remote events are never sent on. When the bus reports lost messages, every cache is cleared, which also reloads
+ * the {@link ProductCodeFilter}.
+ */
+@Slf4j
+@Component
+public class ClusterInvalidation implements MeterBinder {
+
+    // pg_notify refuses payloads of 8000 bytes or more
+    static final int MAX_PAYLOAD_BYTES = 7999;
+
+    private final InvalidationBus bus;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    // Messages come back to their sender as well, they are recognized by this id
+    private final String origin = UUID.randomUUID().toString();
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public ClusterInvalidation(InvalidationBus bus, ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper) {
+        this.bus = bus;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        bus.subscribe(new InvalidationBus.Subscriber() {
+            @Override
+            public void onMessage(String payload) {
+                receive(payload);
+            }
+
+            @Override
+            public void onReconnected() {
+                log.warn("Invalidations from other instances may have been lost, clearing all caches");
+                eventPublisher.publishEvent(new CachesClearedEvent(null, true));
+            }
+        });
+    }
+
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        if (!event.remote()) {
+            send(new Message(origin, Kind.PRODUCTS, List.copyOf(event.ids()), List.copyOf(event.codes()), null, false));
+        }
+    }
+
+    @EventListener
+    public void onProductSaved(ProductSavedEvent event) {
+        send(new Message(origin, Kind.PRODUCTS, List.of(event.id()), List.copyOf(event.codes()), null, false));
+    }
+
+    @EventListener
+    public void onCachesCleared(CachesClearedEvent event) {
+        if (!event.remote()) {
+            send(new Message(origin, Kind.CACHES, List.of(), List.of(), event.cacheName(), false));
+        }
+    }
+
+    @EventListener
+    public void onExchangeRatesChanged(ExchangeRatesChangedEvent event) {
+        if (!event.remote()) {
+            send(new Message(origin, Kind.RATES, List.of(), List.of(), null, event.cleared()));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cluster.invalidation.messages", sent, AtomicLong::get)
+                .tag("direction", "sent")
+                .description("Invalidation messages exchanged with other instances")
+                .register(registry);
+        FunctionCounter.builder("cluster.invalidation.messages", received, AtomicLong::get)
+                .tag("direction", "received")
+                .description("Invalidation messages exchanged with other instances")
+                .register(registry);
+        FunctionCounter.builder("cluster.invalidation.failures", failed, AtomicLong::get)
+                .description("Invalidation messages that could not be sent or read")
+                .register(registry);
+    }
+
+    long getSent() {
+        return sent.get();
+    }
+
+    long getReceived() {
+        return received.get();
+    }
+
+    long getFailed() {
+        return failed.get();
+    }
+
+    // A failed send leaves other instances with stale copies until they expire, the local change stands regardless
+    private void send(Message message) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalidation message could not be written", e);
+        }
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            sendSplit(message);
+            return;
+        }
+        try {
+            bus.publish(payload);
+            sent.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            log.warn("Invalidation {} could not be sent to other instances: {}", message.kind(), e.getMessage());
+        }
+    }
+
+    // Ids and codes are evicted independently, so they can travel in separate messages
+    private void sendSplit(Message message) {
+        List<Long> ids = message.ids();
+        List<String> codes = message.codes();
+        if (!ids.isEmpty() && !codes.isEmpty()) {
+            send(message.with(ids, List.of()));
+            send(message.with(List.of(), codes));
+        } else if (ids.size() > 1) {
+            send(message.with(ids.subList(0, ids.size() / 2), List.of()));
+            send(message.with(ids.subList(ids.size() / 2, ids.size()), List.of()));
+        } else if (codes.size() > 1) {
+            send(message.with(List.of(), codes.subList(0, codes.size() / 2)));
+            send(message.with(List.of(), codes.subList(codes.size() / 2, codes.size())));
+        } else {
+            failed.incrementAndGet();
+            log.warn("Invalidation {} exceeds {} bytes and cannot be split, not sent", message.kind(), MAX_PAYLOAD_BYTES);
+        }
+    }
+
+    void receive(String payload) {
+        Message message;
+        try {
+            message = objectMapper.readValue(payload, Message.class);
+        } catch (JsonProcessingException e) {
+            failed.incrementAndGet();
+            log.warn("Unreadable invalidation message ignored: {}", e.getOriginalMessage());
+            return;
+        }
+        if (origin.equals(message.origin())) {
+            return;
+        }
+        received.incrementAndGet();
+        switch (message.kind()) {
+            case PRODUCTS -> eventPublisher.publishEvent(new ProductsChangedEvent(message.ids(), message.codes(), true));
+            case CACHES -> eventPublisher.publishEvent(new CachesClearedEvent(message.cacheName(), true));
+            case RATES -> eventPublisher.publishEvent(new ExchangeRatesChangedEvent(message.cleared(), true));
+        }
+    }
+
+    enum Kind {
+        PRODUCTS,
+        CACHES,
+        RATES
+    }
+
+    record Message(String origin, Kind kind, List<Long> ids, List<String> codes, String cacheName, boolean cleared) {
+
+        Message with(List<Long> ids, List<String> codes) {
+            return new Message(origin, kind, ids, codes, cacheName, cleared);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.dto.ProductDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads comma separated products. The first line is a header naming the columns
+ * (code, name, priceEur, isAvailable in any order); fields may be double-quoted.
+ */
+class CsvProductRowSource implements ProductRowSource {
+
+    private static final String CODE = "code";
+    private static final String NAME = "name";
+    private static final String PRICE_EUR = "priceeur";
+    private static final String IS_AVAILABLE = "isavailable";
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+    private final BufferedReader reader;
+    private int codeColumn = -1;
+    private int nameColumn = -1;
+    private int priceColumn = -1;
+    private int availableColumn = -1;
+    private long rowNumber;
+
+    CsvProductRowSource(InputStream body) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        readHeader();
+    }
+
+    @Override
+    public Row next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        rowNumber++;
+        List<String> fields = split(line);
+        try {
+            ProductDto product = new ProductDto();
+            product.setCode(field(fields, codeColumn));
+            product.setName(field(fields, nameColumn));
+            String price = field(fields, priceColumn);
+            product.setPriceEur(price == null || price.isEmpty() ? null : new BigDecimal(price));
+            product.setAvailable(parseBoolean(field(fields, availableColumn)));
+            return Row.of(rowNumber, product);
+        } catch (NumberFormatException e) {
+            return Row.failed(rowNumber, "priceEur: not a number");
+        } catch (IllegalArgumentException e) {
+            return Row.failed(rowNumber, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readHeader() throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            return;
+        }
+        List<String> columns = split(header.startsWith(BYTE_ORDER_MARK) ? header.substring(1) : header);
+        for (int i = 0; i < columns.size(); i++) {
+            switch (columns.get(i).trim().toLowerCase(Locale.ROOT)) {
+                case CODE -> codeColumn = i;
+                case NAME -> nameColumn = i;
+                case PRICE_EUR -> priceColumn = i;
+                case IS_AVAILABLE, "available" -> availableColumn = i;
+                default -> {
+                    // unknown columns are ignored
+                }
+            }
+        }
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column < 0 || column >= fields.size() ? null : fields.get(column);
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (value == null || value.isEmpty() || value.equalsIgnoreCase("false")) {
+            return false;
+        }
+        if (value.equalsIgnoreCase("true")) {
+            return true;
+        }
+        throw new IllegalArgumentException("isAvailable: must be true or false");
+    }
+
+    // RFC 4180 style: commas inside double quotes are kept, doubled quotes are unescaped
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
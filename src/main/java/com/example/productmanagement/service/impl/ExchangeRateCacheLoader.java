@@ -0,0 +1,28 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.service.ExchangeRateService;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reloads entries of the exchangeRates cache when they are refreshed in the background. Rates are read from the
+ * current snapshot, so a refresh never calls HNB once a snapshot exists; failures keep the cached rate.
+ */
+@Component
+public class ExchangeRateCacheLoader implements CacheLoader<Object, Object> {
+
+    public static final String CACHE_NAME = "exchangeRates";
+
+    private final ExchangeRateService exchangeRateService;
+
+    public ExchangeRateCacheLoader(ExchangeRateService exchangeRateService) {
+        this.exchangeRateService = exchangeRateService;
+    }
+
+    @Override
+    public Object load(Object currency) {
+        return exchangeRateService.currentSnapshot()
+                .orElseGet(exchangeRateService::refreshSnapshot)
+                .getRate((String) currency);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.exception.ExchangeRateUnavailableException;
+import com.example.productmanagement.service.ExchangeRateService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the exchange rate snapshot warm by refreshing it in the background, ahead of the rate TTL,
+ * so conversions on the request path never wait for HNB. A failed refresh keeps the previous snapshot in place.
+ */
+@Slf4j
+@Component
+public class ExchangeRateRefresher implements MeterBinder {
+
+    private final ExchangeRateService exchangeRateService;
+    private final boolean enabled;
+    private final Clock clock;
+
+    private final AtomicLong refreshSuccesses = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+
+    @Autowired
+    public ExchangeRateRefresher(ExchangeRateService exchangeRateService,
+                                 @Value("${hnb.rates.refresh.enabled:true}") boolean enabled) {
+        this(exchangeRateService, enabled, Clock.systemUTC());
+    }
+
+    ExchangeRateRefresher(ExchangeRateService exchangeRateService, boolean enabled, Clock clock) {
+        this.exchangeRateService = exchangeRateService;
+        this.enabled = enabled;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${hnb.rates.refresh.interval:PT4M}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            exchangeRateService.refreshSnapshot();
+            refreshSuccesses.incrementAndGet();
+        } catch (ExchangeRateUnavailableException e) {
+            refreshFailures.incrementAndGet();
+            log.warn("Exchange rate refresh failed, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Seconds since the current snapshot was fetched, NaN while there is none yet.
+     */
+    double snapshotAgeSeconds() {
+        return exchangeRateService.currentSnapshot()
+                .map(snapshot -> snapshot.getAge(clock.instant()).toMillis() / 1000.0)
+                .orElse(Double.NaN);
+    }
+
+    long getRefreshSuccesses() {
+        return refreshSuccesses.get();
+    }
+
+    long getRefreshFailures() {
+        return refreshFailures.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TimeGauge.builder("hnb.rates.snapshot.age", this, TimeUnit.SECONDS, ExchangeRateRefresher::snapshotAgeSeconds)
+                .description("Time since the exchange rate snapshot in use was fetched from HNB")
+                .register(registry);
+        FunctionCounter.builder("hnb.rates.refresh", refreshSuccesses, AtomicLong::get)
+                .tag("result", "success")
+                .description("Background exchange rate refreshes")
+                .register(registry);
+        FunctionCounter.builder("hnb.rates.refresh", refreshFailures, AtomicLong::get)
+                .tag("result", "failure")
+                .description("Background exchange rate refreshes")
+                .register(registry);
+    }
+}
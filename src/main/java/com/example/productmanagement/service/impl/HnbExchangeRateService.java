@@ -1,97 +1,398 @@
 package com.example.productmanagement.service.impl;
 
+import com.example.productmanagement.configuration.HnbClientProperties;
+import com.example.productmanagement.event.ExchangeRatesChangedEvent;
 import com.example.productmanagement.exception.ExchangeRateUnavailableException;
+import com.example.productmanagement.model.Currency;
+import com.example.productmanagement.model.ExchangeRateSnapshot;
+import com.example.productmanagement.model.PriceConverter;
+import com.example.productmanagement.repo.ExchangeRateSnapshotRepository;
 import com.example.productmanagement.service.ExchangeRateService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.math.MathContext;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.example.productmanagement.model.Currency.EUR;
 import static com.example.productmanagement.model.Currency.USD;
 
+@Slf4j
 @Service
-public class HnbExchangeRateService implements ExchangeRateService {
+public class HnbExchangeRateService implements ExchangeRateService, MeterBinder {
 
     private final RestTemplate restTemplate;
 
+    private final ExchangeRateSnapshotRepository snapshotRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
     private final String EXCHANGE_RATE_NOT_FOUND = "Exchange rate not found in HNB API response.";
 
     private final String INVALID_EXCHANGE_RATE_FORMAT = "Invalid exchange rate format.";
 
     private final String HNB_CALL_ERROR = "Error occurred while calling HNB API: ";
 
+    private final String INVALID_RESPONSE = "Invalid HNB API response: ";
+
     private final String MID_MARKET_EXCHANGE_RATE = "srednji_tecaj";
 
-    private final String EUR_URL = "https://api.hnb.hr/tecajn/v2?valuta=EUR";
+    private final String CURRENCY = "valuta";
+
+    private final String UNIT = "jedinica";
+
+    private final String VALID_ON = "datum_primjene";
+
+    // Full rate list, every currency in one response
+    private static final String RATES_PATH = "/tecajn/v2";
+
+    private final String ratesUrl;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final AtomicLong snapshotSequence = new AtomicLong();
+
+    // Swapped as a whole on refresh, conversions only ever read this reference
+    private volatile ExchangeRateSnapshot snapshot;
+
+    // Fetch currently talking to HNB, shared by every caller that needs rates meanwhile
+    private final AtomicReference<CompletableFuture<ExchangeRateSnapshot>> inFlight = new AtomicReference<>();
+
+    private final AtomicLong coalescedWaiters = new AtomicLong();
 
-    private final String USD_URL = "https://api.hnb.hr/tecajn/v2?valuta=USD";
+    private final AtomicLong fetches = new AtomicLong();
+    private final AtomicLong fetchNanos = new AtomicLong();
+    private final AtomicLong fetchFailures = new AtomicLong();
 
-    public HnbExchangeRateService(RestTemplate restTemplate) {
+    public HnbExchangeRateService(RestTemplate restTemplate, ExchangeRateSnapshotRepository snapshotRepository,
+                                  ApplicationEventPublisher eventPublisher, HnbClientProperties clientProperties) {
         this.restTemplate = restTemplate;
+        this.snapshotRepository = snapshotRepository;
+        this.eventPublisher = eventPublisher;
+        this.ratesUrl = UriComponentsBuilder.fromHttpUrl(clientProperties.getBaseUrl()).path(RATES_PATH).toUriString();
+    }
+
+    /**
+     * Starts from the last persisted snapshot, so conversions work before the first refresh reaches HNB.
+     */
+    @PostConstruct
+    public void restoreSnapshot() {
+        try {
+            snapshotRepository.load(snapshotSequence.incrementAndGet()).ifPresent(restored -> {
+                snapshot = restored;
+                log.info("Restored exchange rate snapshot valid on {}, fetched at {}", restored.getValidOn(), restored.getFetchedAt());
+            });
+        } catch (DataAccessException e) {
+            log.warn("Persisted exchange rate snapshot could not be loaded: {}", e.getMessage());
+        }
     }
 
     @Override
-    @Cacheable(value = "exchangeRates", key = "#currency")
+    @Cacheable(value = "exchangeRates", key = "#currency", sync = true)
     public BigDecimal getExchangeRate(String currency) {
-        String url = getExchangeUrl(currency);
-        try {
-            Map[] response = restTemplate.getForObject(url, Map[].class);
+        return getOrLoadSnapshot().getRate(currency);
+    }
 
-            if (response == null || response.length == 0 || response[0].get(MID_MARKET_EXCHANGE_RATE) == null) {
-                throw new ExchangeRateUnavailableException(EXCHANGE_RATE_NOT_FOUND);
-            }
+    @Override
+    public BigDecimal convertEurToUsd(BigDecimal priceEur) {
+        return convert(priceEur, EUR, USD);
+    }
+
+    @Override
+    public BigDecimal convert(BigDecimal amount, Currency from, Currency to) {
+        return getOrLoadSnapshot().convert(amount, from, to);
+    }
 
-            String rateStr = (String) response[0].get(MID_MARKET_EXCHANGE_RATE);
+    @Override
+    public PriceConverter priceConverter(Currency from, Currency[] to) {
+        return getOrLoadSnapshot().priceConverter(from, to);
+    }
 
-            try {
-                return new BigDecimal(rateStr.replace(",", "."));
-            } catch (NumberFormatException e) {
-                throw new ExchangeRateUnavailableException(INVALID_EXCHANGE_RATE_FORMAT + rateStr, e);
-            }
+    @Override
+    public Optional<ExchangeRateSnapshot> currentSnapshot() {
+        return Optional.ofNullable(snapshot);
+    }
 
-        } catch (RestClientException e) {
-            throw new ExchangeRateUnavailableException(HNB_CALL_ERROR + e.getMessage(), e);
+    /**
+     * Single-flight: while a fetch is running, concurrent callers (request path misses, the scheduled refresh,
+     * a reload after clearing the cache) wait for its result instead of calling HNB themselves.
+     */
+    @Override
+    public ExchangeRateSnapshot refreshSnapshot() {
+        CompletableFuture<ExchangeRateSnapshot> load = new CompletableFuture<>();
+        CompletableFuture<ExchangeRateSnapshot> running = inFlight.compareAndExchange(null, load);
+        if (running != null) {
+            coalescedWaiters.incrementAndGet();
+            return await(running);
+        }
+        try {
+            ExchangeRateSnapshot refreshed = loadSnapshot();
+            load.complete(refreshed);
+            return refreshed;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.set(null);
         }
     }
 
+    long getCoalescedWaiters() {
+        return coalescedWaiters.get();
+    }
+
     @Override
-    @Cacheable(value = "eurToUsd", key = "#priceEur")
-    public BigDecimal convertEurToUsd(BigDecimal priceEur) {
-        BigDecimal usdToHrkRate = getExchangeRate(USD.name());
-        BigDecimal eurToHrkRate = getExchangeRate(EUR.name());
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("hnb.rates.fetch.coalesced", coalescedWaiters, AtomicLong::get)
+                .description("Exchange rate loads that waited for a fetch already in flight instead of calling HNB")
+                .register(registry);
+        FunctionTimer.builder("hnb.rates.fetch", this, HnbExchangeRateService::getFetches,
+                        service -> service.fetchNanos.get(), TimeUnit.NANOSECONDS)
+                .description("Calls to HNB for the rate list, including reading the response")
+                .register(registry);
+        FunctionCounter.builder("hnb.rates.fetch.failures", fetchFailures, AtomicLong::get)
+                .description("Calls to HNB that yielded no usable rate list (unreachable, error status, incomplete or malformed)")
+                .register(registry);
+    }
+
+    long getFetches() {
+        return fetches.get();
+    }
 
-        BigDecimal priceHrk = priceEur.multiply(eurToHrkRate);
-        return priceHrk.divide(usdToHrkRate, 4, RoundingMode.HALF_UP);
+    long getFetchFailures() {
+        return fetchFailures.get();
+    }
+
+    // Other instances are told once the new rates are persisted, and only when the rates actually changed
+    private ExchangeRateSnapshot loadSnapshot() {
+        RateList rateList = fetchCompleteRates();
+        ExchangeRateSnapshot refreshed = new ExchangeRateSnapshot(snapshotSequence.incrementAndGet(),
+                rateList.rates(), Instant.now(), rateList.validOn());
+        ExchangeRateSnapshot previous = replaceSnapshot(refreshed);
+        persist(refreshed);
+        if (previous == null || !previous.getRates().equals(refreshed.getRates())
+                || !Objects.equals(previous.getValidOn(), refreshed.getValidOn())) {
+            eventPublisher.publishEvent(new ExchangeRatesChangedEvent(false, false));
+        }
+        return refreshed;
     }
 
     @CacheEvict(value = "exchangeRates", allEntries = true)
     public void clearExchangeRatesCache() {
-        System.out.println("Exchange rates cache cleared");
+        snapshot = null;
+        eventPublisher.publishEvent(new ExchangeRatesChangedEvent(true, false));
+        log.info("Exchange rates cache cleared");
     }
 
-    @CacheEvict(value = "eurToUsd", allEntries = true)
-    public void clearConversionCache() {
-        System.out.println("Conversion cache cleared");
+    @CacheEvict(value = "exchangeRates", allEntries = true)
+    public void clearAllCaches() {
+        snapshot = null;
+        eventPublisher.publishEvent(new ExchangeRatesChangedEvent(true, false));
+        log.info("All exchange rate caches cleared");
     }
 
-    @CacheEvict(value = {"exchangeRates", "eurToUsd"}, allEntries = true)
-    public void clearAllCaches() {
-        System.out.println("All exchange rate caches cleared");
+    /**
+     * Applies a rate change announced by another instance: new rates are taken from the persisted snapshot
+     * without calling HNB, a clear drops the snapshot and the cached rates here as well.
+     */
+    @EventListener
+    @CacheEvict(value = "exchangeRates", allEntries = true, condition = "#event.remote() && #event.cleared()")
+    public void onExchangeRatesChanged(ExchangeRatesChangedEvent event) {
+        if (!event.remote()) {
+            return;
+        }
+        if (event.cleared()) {
+            snapshot = null;
+            log.info("Exchange rates cache cleared by another instance");
+            return;
+        }
+        try {
+            snapshotRepository.load(snapshotSequence.incrementAndGet()).ifPresent(persisted -> {
+                if (adoptIfNewer(persisted)) {
+                    log.info("Adopted exchange rate snapshot valid on {}, fetched by another instance at {}",
+                            persisted.getValidOn(), persisted.getFetchedAt());
+                }
+            });
+        } catch (DataAccessException e) {
+            log.warn("Exchange rate snapshot announced by another instance could not be loaded: {}", e.getMessage());
+        }
+    }
+
+    private synchronized ExchangeRateSnapshot replaceSnapshot(ExchangeRateSnapshot replacement) {
+        ExchangeRateSnapshot previous = snapshot;
+        snapshot = replacement;
+        return previous;
+    }
+
+    // A fetch of this instance finishing meanwhile must not be replaced by older persisted rates
+    private synchronized boolean adoptIfNewer(ExchangeRateSnapshot persisted) {
+        ExchangeRateSnapshot current = snapshot;
+        if (current != null && !persisted.getFetchedAt().isAfter(current.getFetchedAt())) {
+            return false;
+        }
+        snapshot = persisted;
+        return true;
+    }
+
+    // Only blocks on HNB before the first snapshot exists, afterwards the scheduled refresh keeps it current
+    private ExchangeRateSnapshot getOrLoadSnapshot() {
+        ExchangeRateSnapshot current = snapshot;
+        return current != null ? current : refreshSnapshot();
+    }
+
+    private static ExchangeRateSnapshot await(CompletableFuture<ExchangeRateSnapshot> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ExchangeRateUnavailableException(e.getMessage(), e.getCause());
+        }
+    }
+
+    // Losing the persisted copy only costs a warm start, it never fails the refresh
+    private void persist(ExchangeRateSnapshot refreshed) {
+        try {
+            snapshotRepository.save(refreshed);
+        } catch (DataAccessException e) {
+            log.warn("Exchange rate snapshot {} could not be persisted: {}", refreshed.getId(), e.getMessage());
+        }
     }
 
-    private String getExchangeUrl(String currency) {
-        String url;
-        if (currency.equals(EUR.name())) {
-            url = EUR_URL;
-        } else {
-            url = USD_URL;
+    // Timed as a whole, a response without every supported currency counts as a failed call
+    private RateList fetchCompleteRates() {
+        long start = System.nanoTime();
+        try {
+            RateList rateList = fetchRates();
+            for (Currency currency : Currency.values()) {
+                if (!rateList.rates().containsKey(currency.name())) {
+                    throw new ExchangeRateUnavailableException(EXCHANGE_RATE_NOT_FOUND + " Missing " + currency);
+                }
+            }
+            return rateList;
+        } catch (RuntimeException e) {
+            fetchFailures.incrementAndGet();
+            throw e;
+        } finally {
+            fetchNanos.addAndGet(System.nanoTime() - start);
+            fetches.incrementAndGet();
         }
-        return url;
+    }
+
+    private RateList fetchRates() {
+        try {
+            return restTemplate.execute(ratesUrl, HttpMethod.GET, null, response -> readRates(response.getBody()));
+        } catch (RestClientException e) {
+            throw new ExchangeRateUnavailableException(HNB_CALL_ERROR + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Streams the rate list, reading only currency, unit, mid-market rate and validity date of each entry.
+     * An entry without a rate fails the whole list, so a partial table never replaces the current snapshot.
+     */
+    private RateList readRates(InputStream body) throws IOException {
+        Map<String, BigDecimal> rates = new LinkedHashMap<>();
+        LocalDate validOn = null;
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ExchangeRateUnavailableException(EXCHANGE_RATE_NOT_FOUND);
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String currency = null;
+                int unit = 1;
+                BigDecimal rate = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    if (CURRENCY.equals(field)) {
+                        currency = parser.getText();
+                    } else if (UNIT.equals(field)) {
+                        unit = parser.getValueAsInt(1);
+                    } else if (MID_MARKET_EXCHANGE_RATE.equals(field)) {
+                        rate = parseRate(parser);
+                    } else if (VALID_ON.equals(field) && validOn == null) {
+                        validOn = parseDate(parser.getText());
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                if (currency == null || rate == null) {
+                    throw new ExchangeRateUnavailableException(EXCHANGE_RATE_NOT_FOUND);
+                }
+                rates.put(currency, unit == 1 ? rate : rate.divide(BigDecimal.valueOf(unit), MathContext.DECIMAL64));
+            }
+        } catch (JsonProcessingException e) {
+            throw new ExchangeRateUnavailableException(INVALID_RESPONSE + e.getOriginalMessage(), e);
+        }
+        if (rates.isEmpty()) {
+            throw new ExchangeRateUnavailableException(EXCHANGE_RATE_NOT_FOUND);
+        }
+        return new RateList(rates, validOn);
+    }
+
+    // The validity date is informational, an unreadable one is dropped rather than failing the rates
+    private static LocalDate parseDate(String text) {
+        try {
+            return text != null ? LocalDate.parse(text) : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // HNB writes rates with a decimal comma, swapped while copying the token's characters
+    private BigDecimal parseRate(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            throw new ExchangeRateUnavailableException(INVALID_EXCHANGE_RATE_FORMAT + parser.getText());
+        }
+        char[] text = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        char[] digits = new char[length];
+        for (int i = 0; i < length; i++) {
+            char c = text[offset + i];
+            digits[i] = c == ',' ? '.' : c;
+        }
+        try {
+            return new BigDecimal(digits, 0, length);
+        } catch (NumberFormatException e) {
+            throw new ExchangeRateUnavailableException(INVALID_EXCHANGE_RATE_FORMAT + new String(text, offset, length), e);
+        }
+    }
+
+    private record RateList(Map<String, BigDecimal> rates, LocalDate validOn) {
     }
 }
@@ -0,0 +1,33 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.service.InvalidationBus;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Invalidation bus within one JVM: messages are delivered synchronously, on the publishing thread, to every
+ * subscriber of the same bus. Serves single-instance deployments and stands in for PostgreSQL in tests,
+ * where several instances share one bus.
+ */
+public class InProcessInvalidationBus implements InvalidationBus {
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String payload) {
+        subscribers.forEach(subscriber -> subscriber.onMessage(payload));
+    }
+
+    @Override
+    public void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Simulates the end of an outage of the transport.
+     */
+    public void reconnected() {
+        subscribers.forEach(Subscriber::onReconnected);
+    }
+}
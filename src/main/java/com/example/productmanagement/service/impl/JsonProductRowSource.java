@@ -0,0 +1,46 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.dto.ProductDto;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads either a JSON array or newline-delimited JSON objects, one product at a time.
+ */
+class JsonProductRowSource implements ProductRowSource {
+
+    private final MappingIterator<ProductDto> iterator;
+    private long rowNumber;
+    private boolean broken;
+
+    JsonProductRowSource(ObjectMapper objectMapper, InputStream body) throws IOException {
+        this.iterator = objectMapper.readerFor(ProductDto.class).readValues(body);
+    }
+
+    @Override
+    public Row next() throws IOException {
+        if (broken || !iterator.hasNextValue()) {
+            return null;
+        }
+        rowNumber++;
+        try {
+            return Row.of(rowNumber, iterator.nextValue());
+        } catch (StreamReadException e) {
+            // Malformed JSON, there is no reliable way to find the start of the next row
+            broken = true;
+            return Row.failed(rowNumber, "Malformed JSON: " + e.getOriginalMessage());
+        } catch (DatabindException e) {
+            return Row.failed(rowNumber, e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        iterator.close();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.configuration.ClusterInvalidationProperties;
+import com.example.productmanagement.service.InvalidationBus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Invalidation bus over PostgreSQL LISTEN/NOTIFY on the application database, so instances need no broker.
+ * Messages are sent with pg_notify on a pooled connection and delivered once the sending transaction commits.
+ * One dedicated connection outside the pool listens on the channel and hands messages to the subscribers on
+ * its own thread; after losing it, the listener reconnects and tells subscribers messages may have been lost.
+ */
+@Slf4j
+public class PostgresInvalidationBus implements InvalidationBus {
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private static final String NOTIFY = "SELECT pg_notify(?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ClusterInvalidationProperties properties;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running = true;
+    private Thread listener;
+
+    public PostgresInvalidationBus(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+                                   ClusterInvalidationProperties properties) {
+        if (!CHANNEL_NAME.matcher(properties.getChannel()).matches()) {
+            throw new IllegalArgumentException("Invalid invalidation channel name " + properties.getChannel());
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        listener = new Thread(this::listenUntilStopped, "invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+            listener.join(properties.getPollTimeout().toMillis() * 2);
+        }
+    }
+
+    @Override
+    public void publish(String payload) {
+        jdbcTemplate.queryForList(NOTIFY, properties.getChannel(), payload);
+    }
+
+    @Override
+    public void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    private void listenUntilStopped() {
+        boolean lost = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.getChannel());
+                }
+                if (lost) {
+                    log.info("Invalidation listener reconnected to channel {}", properties.getChannel());
+                    deliver(Subscriber::onReconnected);
+                    lost = false;
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                int pollTimeout = (int) properties.getPollTimeout().toMillis();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeout);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            deliver(subscriber -> subscriber.onMessage(notification.getParameter()));
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                lost = true;
+                log.warn("Invalidation listener lost its connection, reconnecting in {}: {}",
+                        properties.getReconnectDelay(), e.getMessage());
+                try {
+                    Thread.sleep(properties.getReconnectDelay().toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // A failing subscriber must not stop the listener or keep the others from their messages
+    private void deliver(Consumer<Subscriber> delivery) {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                delivery.accept(subscriber);
+            } catch (RuntimeException e) {
+                log.error("Invalidation subscriber failed on a message", e);
+            }
+        }
+    }
+}
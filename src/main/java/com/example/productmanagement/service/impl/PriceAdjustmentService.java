@@ -0,0 +1,172 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.configuration.PriceAdjustmentProperties;
+import com.example.productmanagement.dto.PriceAdjustmentDto;
+import com.example.productmanagement.dto.PriceAdjustmentJobDto;
+import com.example.productmanagement.dto.PriceAdjustmentJobDto.Status;
+import com.example.productmanagement.event.ProductsChangedEvent;
+import com.example.productmanagement.repo.ProductBatchRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Repricing campaigns ("raise all available products by 3%") run as background jobs of set-based UPDATEs,
+ * products.price-adjustment.chunk-size products per statement in id order. Every chunk commits on its own
+ * and is announced with one {@link ProductsChangedEvent}, so caches are evicted per chunk rather than per row.
+ * Jobs run one at a time; their progress is kept in memory for the last products.price-adjustment.retained-jobs jobs.
+ * Lowered prices stop at 0.01, the smallest valid price.
+ */
+@Slf4j
+@Service
+public class PriceAdjustmentService {
+
+    private static final BigDecimal MIN_PERCENT = BigDecimal.valueOf(-100);
+
+    private final ProductBatchRepository batchRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PriceAdjustmentProperties properties;
+    private final Executor executor;
+
+    private final Map<UUID, Job> jobs;
+
+    @Autowired
+    public PriceAdjustmentService(ProductBatchRepository batchRepository, ApplicationEventPublisher eventPublisher,
+                                  PriceAdjustmentProperties properties) {
+        this(batchRepository, eventPublisher, properties, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "price-adjustment");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    PriceAdjustmentService(ProductBatchRepository batchRepository, ApplicationEventPublisher eventPublisher,
+                           PriceAdjustmentProperties properties, Executor executor) {
+        this.batchRepository = batchRepository;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.executor = executor;
+        this.jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Job> eldest) {
+                return size() > properties.getRetainedJobs() && eldest.getValue().isFinished();
+            }
+        });
+    }
+
+    /**
+     * Queues a repricing job.
+     * @return the job, to be polled with {@link #find(UUID)}
+     * @throws IllegalArgumentException if the percent is missing or would take prices to 0 or below
+     */
+    public PriceAdjustmentJobDto start(PriceAdjustmentDto adjustment) {
+        if (adjustment.getPercent() == null || adjustment.getPercent().compareTo(MIN_PERCENT) <= 0) {
+            throw new IllegalArgumentException("Percent must be greater than " + MIN_PERCENT + ", got " + adjustment.getPercent());
+        }
+        Job job = new Job(UUID.randomUUID(), adjustment.getPercent(), adjustment.getAvailable());
+        jobs.put(job.id, job);
+        executor.execute(() -> run(job));
+        return job.toDto();
+    }
+
+    public Optional<PriceAdjustmentJobDto> find(UUID id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::toDto);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    private void run(Job job) {
+        job.started();
+        BigDecimal factor = BigDecimal.ONE.add(job.percent.movePointLeft(2));
+        int chunkSize = properties.getChunkSize();
+        try {
+            List<Long> ids;
+            do {
+                ids = batchRepository.adjustPrices(job.lastId != null ? job.lastId : 0L, factor, job.available, chunkSize);
+                if (!ids.isEmpty()) {
+                    eventPublisher.publishEvent(new ProductsChangedEvent(ids, List.of()));
+                    job.chunkDone(ids.size(), Collections.max(ids));
+                }
+            } while (ids.size() == chunkSize);
+            job.finished(Status.COMPLETED, null);
+            log.info("Price adjustment {} by {}% repriced {} products", job.id, job.percent, job.updated);
+        } catch (DataAccessException e) {
+            job.finished(Status.FAILED, e.getMostSpecificCause().getMessage());
+            log.warn("Price adjustment {} failed after {} products (up to id {}): {}",
+                    job.id, job.updated, job.lastId, e.getMessage());
+        } catch (RuntimeException e) {
+            // Anything else must not leave the job RUNNING forever either
+            job.finished(Status.FAILED, e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+            log.error("Price adjustment {} failed after {} products (up to id {})", job.id, job.updated, job.lastId, e);
+        }
+    }
+
+    /**
+     * Progress of one job, written only by the job's thread and read by status requests.
+     */
+    private static final class Job {
+
+        private final UUID id;
+        private final BigDecimal percent;
+        private final Boolean available;
+        private volatile Status status = Status.QUEUED;
+        private volatile long updated;
+        private volatile long chunks;
+        private volatile Long lastId;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private Job(UUID id, BigDecimal percent, Boolean available) {
+            this.id = id;
+            this.percent = percent;
+            this.available = available;
+        }
+
+        private void started() {
+            startedAt = Instant.now();
+            status = Status.RUNNING;
+        }
+
+        private void chunkDone(int size, long maxId) {
+            updated += size;
+            chunks++;
+            lastId = maxId;
+        }
+
+        private void finished(Status result, String message) {
+            error = message;
+            finishedAt = Instant.now();
+            status = result;
+        }
+
+        private boolean isFinished() {
+            return status == Status.COMPLETED || status == Status.FAILED;
+        }
+
+        private PriceAdjustmentJobDto toDto() {
+            return new PriceAdjustmentJobDto(id, status, percent, available, updated, chunks, lastId,
+                    startedAt, finishedAt, error);
+        }
+    }
+}
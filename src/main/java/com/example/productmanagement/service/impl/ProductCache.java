@@ -0,0 +1,164 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.configuration.ProductCacheProperties;
+import com.example.productmanagement.event.ProductsChangedEvent;
+import com.example.productmanagement.model.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read-through, write-through cache of products by id, with a code to id index on top.
+ * The local tier is Caffeine bounded by approximate heap weight; an optional second tier
+ * (any Spring {@link org.springframework.cache.Cache}, e.g. Redis) is consulted before the database.
+ * Products are stored without USD price and handed out as copies, so callers may modify what they get.
+ */
+@Component
+public class ProductCache implements MeterBinder {
+
+    // Rough per-entry cost of the Product object, boxed id, BigDecimal and Caffeine node, excluding strings
+    private static final int PRODUCT_ENTRY_OVERHEAD_BYTES = 160;
+    private static final int CODE_ENTRY_OVERHEAD_BYTES = 96;
+
+    private final Cache<Long, Product> productsById;
+    private final Cache<String, Long> idsByCode;
+    private final org.springframework.cache.Cache secondTier;
+
+    @Autowired
+    public ProductCache(ProductCacheProperties properties, BeanFactory beanFactory) {
+        this(properties, resolveSecondTier(properties, beanFactory));
+    }
+
+    /**
+     * Local tier only.
+     */
+    public ProductCache(ProductCacheProperties properties) {
+        this(properties, (org.springframework.cache.Cache) null);
+    }
+
+    public ProductCache(ProductCacheProperties properties, org.springframework.cache.Cache secondTier) {
+        this.productsById = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumWeight().toBytes())
+                .weigher((Long id, Product product) -> PRODUCT_ENTRY_OVERHEAD_BYTES
+                        + 2 * (product.getCode().length() + product.getName().length()))
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        this.idsByCode = Caffeine.newBuilder()
+                .maximumWeight(properties.getCodeIndexMaximumWeight().toBytes())
+                .weigher((String code, Long id) -> CODE_ENTRY_OVERHEAD_BYTES + 2 * code.length())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        this.secondTier = secondTier;
+    }
+
+    public Optional<Product> getById(Long id, Function<Long, Optional<Product>> loader) {
+        Product cached = productsById.get(id, key -> loadById(key, loader));
+        if (cached != null) {
+            idsByCode.put(cached.getCode(), cached.getId());
+        }
+        return Optional.ofNullable(cached).map(ProductCache::copy);
+    }
+
+    public Optional<Product> getByCode(String code, Function<String, Optional<Product>> loader) {
+        Long id = idsByCode.getIfPresent(code);
+        if (id != null) {
+            Product cached = productsById.getIfPresent(id);
+            if (cached != null && code.equals(cached.getCode())) {
+                return Optional.of(copy(cached));
+            }
+        }
+        Optional<Product> loaded = loader.apply(code);
+        loaded.ifPresent(this::put);
+        return loaded.map(ProductCache::copy);
+    }
+
+    /**
+     * Write-through: stores the product as just saved, replacing any previous copy.
+     */
+    public void put(Product product) {
+        Product stored = copy(product);
+        Product previous = productsById.asMap().put(stored.getId(), stored);
+        if (previous != null && !previous.getCode().equals(stored.getCode())) {
+            idsByCode.invalidate(previous.getCode());
+        }
+        idsByCode.put(stored.getCode(), stored.getId());
+        if (secondTier != null) {
+            secondTier.put(stored.getId(), stored);
+        }
+    }
+
+    public void evict(Collection<Long> ids, Collection<String> codes) {
+        for (Long id : ids) {
+            Product previous = productsById.asMap().remove(id);
+            if (previous != null) {
+                idsByCode.invalidate(previous.getCode());
+            }
+            if (secondTier != null) {
+                secondTier.evict(id);
+            }
+        }
+        idsByCode.invalidateAll(codes);
+    }
+
+    public void clear() {
+        productsById.invalidateAll();
+        idsByCode.invalidateAll();
+        if (secondTier != null) {
+            secondTier.clear();
+        }
+    }
+
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        evict(event.ids(), event.codes());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, productsById, "products");
+        CaffeineCacheMetrics.monitor(registry, idsByCode, "productCodes");
+    }
+
+    private Product loadById(Long id, Function<Long, Optional<Product>> loader) {
+        if (secondTier != null) {
+            Product shared = secondTier.get(id, Product.class);
+            if (shared != null) {
+                return shared;
+            }
+        }
+        Product loaded = loader.apply(id).map(ProductCache::copy).orElse(null);
+        if (loaded != null && secondTier != null) {
+            secondTier.put(id, loaded);
+        }
+        return loaded;
+    }
+
+    private static Product copy(Product product) {
+        Product copy = new Product(product.getCode(), product.getName(), product.getPriceEur(), product.isAvailable());
+        copy.setId(product.getId());
+        copy.setVersion(product.getVersion());
+        return copy;
+    }
+
+    private static org.springframework.cache.Cache resolveSecondTier(ProductCacheProperties properties, BeanFactory beanFactory) {
+        if (!StringUtils.hasText(properties.getSecondTierCacheManager())) {
+            return null;
+        }
+        CacheManager cacheManager = beanFactory.getBean(properties.getSecondTierCacheManager(), CacheManager.class);
+        return cacheManager.getCache(properties.getSecondTierCacheName());
+    }
+}
@@ -0,0 +1,372 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.configuration.CatalogSnapshotProperties;
+import com.example.productmanagement.dto.ProductDto;
+import com.example.productmanagement.event.CachesClearedEvent;
+import com.example.productmanagement.event.ProductsChangedEvent;
+import com.example.productmanagement.mapper.ProductMapper;
+import com.example.productmanagement.model.Currency;
+import com.example.productmanagement.model.ExchangeRateSnapshot;
+import com.example.productmanagement.model.PriceConverter;
+import com.example.productmanagement.model.Product;
+import com.example.productmanagement.repo.ProductRepository;
+import com.example.productmanagement.service.ExchangeRateService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The default representation of GET /api/products (every product with all fields, USD included, in id order)
+ * kept serialized as UTF-8 JSON, optionally with a gzip copy. Every product's JSON and its checksum are kept
+ * on their own, so after a change only the changed products are serialized again (all of them when the rates
+ * changed, from memory; a refresh bringing the same rates changes nothing) and the array is reassembled by
+ * copying bytes. Changes are collected as they happen and applied by the first read after them, so a burst of
+ * writes costs a single rebuild. The gzip copy is compressed by the first read asking for it, outside the
+ * rebuild, so readers of the plain JSON never wait for it and bodies replaced before anyone wanted gzip are
+ * never compressed.
+ */
+@Slf4j
+@Component
+public class ProductCatalogSnapshot implements MeterBinder {
+
+    private static final Currency[] USD_ONLY = {Currency.USD};
+    private static final Long FIRST_CURSOR = 0L;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final ProductRepository productRepository;
+    private final ExchangeRateService exchangeRateService;
+    private final ProductMapper mapper;
+    private final ObjectWriter writer;
+    private final CatalogSnapshotProperties properties;
+
+    // Only touched while holding the monitor of this snapshot
+    private final TreeMap<Long, Entry> entries = new TreeMap<>();
+    private boolean loaded;
+    // Rates the entries were rendered with; a refresh that brings the same rates leaves them as they are
+    private String renderedRatesTag;
+
+    // Products saved through ProductService, and ids announced by ProductsChangedEvent, since the last rebuild
+    private final Map<Long, Saved> savedProducts = new ConcurrentHashMap<>();
+    private final Set<Long> changedIds = ConcurrentHashMap.newKeySet();
+    // Set when every cache was cleared, the next rebuild loads the whole catalog again
+    private volatile boolean reloadAll;
+
+    private volatile Body current;
+
+    private final AtomicLong fullBuilds = new AtomicLong();
+    private final AtomicLong incrementalBuilds = new AtomicLong();
+
+    public ProductCatalogSnapshot(ProductRepository productRepository, ExchangeRateService exchangeRateService,
+                                  ProductMapper mapper, ObjectMapper objectMapper, CatalogSnapshotProperties properties) {
+        this.productRepository = productRepository;
+        this.exchangeRateService = exchangeRateService;
+        this.mapper = mapper;
+        this.writer = objectMapper.writerFor(ProductDto.class);
+        this.properties = properties;
+    }
+
+    /**
+     * @return the serialized catalog, rebuilt first if products or rates changed since; empty when disabled
+     */
+    public Optional<Body> current() {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        ExchangeRateSnapshot rates = exchangeRateService.currentSnapshot()
+                .orElseGet(exchangeRateService::refreshSnapshot);
+        Body body = current;
+        if (isCurrent(body, rates)) {
+            return Optional.of(body);
+        }
+        return Optional.of(rebuild(rates));
+    }
+
+    /**
+     * Write-through of a product just saved through ProductService.
+     */
+    public void put(Product product) {
+        if (properties.isEnabled()) {
+            savedProducts.merge(product.getId(), new Saved(product.getVersion(), mapper.toDto(product)),
+                    (previous, saved) -> saved.version() >= previous.version() ? saved : previous);
+        }
+    }
+
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        if (properties.isEnabled()) {
+            changedIds.addAll(event.ids());
+        }
+    }
+
+    @EventListener
+    public void onCachesCleared(CachesClearedEvent event) {
+        if (properties.isEnabled() && event.isAll()) {
+            reloadAll = true;
+        }
+    }
+
+    long getFullBuilds() {
+        return fullBuilds.get();
+    }
+
+    long getIncrementalBuilds() {
+        return incrementalBuilds.get();
+    }
+
+    private synchronized Body rebuild(ExchangeRateSnapshot rates) {
+        Body body = current;
+        if (isCurrent(body, rates)) {
+            return body;
+        }
+        long start = System.nanoTime();
+        if (reloadAll) {
+            reloadAll = false;
+            entries.clear();
+            loaded = false;
+        }
+        PriceConverter usdConverter = rates.priceConverter(Currency.EUR, USD_ONLY);
+        boolean ratesChanged = !rates.getRatesTag().equals(renderedRatesTag);
+
+        boolean full = !loaded;
+        if (full) {
+            loadAll(usdConverter);
+        }
+        applySaved(usdConverter);
+        reloadChanged(usdConverter);
+        if (ratesChanged && !full) {
+            for (Entry entry : entries.values()) {
+                entry.render(usdConverter);
+            }
+        }
+        renderedRatesTag = rates.getRatesTag();
+
+        body = assemble(rates.getRatesTag());
+        current = body;
+        (full ? fullBuilds : incrementalBuilds).incrementAndGet();
+        log.debug("Catalog snapshot of {} products ({} bytes) rebuilt in {} ms", entries.size(),
+                body.length(), (System.nanoTime() - start) / 1_000_000);
+        return body;
+    }
+
+    private boolean isCurrent(Body body, ExchangeRateSnapshot rates) {
+        return body != null && body.ratesTag().equals(rates.getRatesTag()) && !reloadAll
+                && savedProducts.isEmpty() && changedIds.isEmpty();
+    }
+
+    private void loadAll(PriceConverter usdConverter) {
+        Long cursor = FIRST_CURSOR;
+        List<Product> batch;
+        do {
+            batch = productRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(properties.getBatchSize()));
+            for (Product product : batch) {
+                entries.put(product.getId(), new Entry(product.getVersion(), mapper.toDto(product), usdConverter));
+                cursor = product.getId();
+            }
+        } while (batch.size() == properties.getBatchSize());
+        loaded = true;
+    }
+
+    private void applySaved(PriceConverter usdConverter) {
+        for (Map.Entry<Long, Saved> pending : List.copyOf(savedProducts.entrySet())) {
+            Saved saved = pending.getValue();
+            // A product saved again meanwhile stays pending for the next rebuild
+            savedProducts.remove(pending.getKey(), saved);
+            Entry existing = entries.get(saved.dto().getId());
+            if (existing == null || existing.version <= saved.version()) {
+                entries.put(saved.dto().getId(), new Entry(saved.version(), saved.dto(), usdConverter));
+            }
+        }
+    }
+
+    // The event only carries ids, the database has the current state; products that are gone are dropped
+    private void reloadChanged(PriceConverter usdConverter) {
+        List<Long> ids = new ArrayList<>(changedIds);
+        changedIds.removeAll(ids);
+        for (int from = 0; from < ids.size(); from += properties.getBatchSize()) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + properties.getBatchSize()));
+            Set<Long> missing = new HashSet<>(chunk);
+            for (Product product : productRepository.findAllById(chunk)) {
+                missing.remove(product.getId());
+                entries.put(product.getId(), new Entry(product.getVersion(), mapper.toDto(product), usdConverter));
+            }
+            missing.forEach(entries::remove);
+        }
+    }
+
+    // The tag folds the checksums of the entries instead of hashing the whole array again
+    private Body assemble(String ratesTag) {
+        int length = 2 + Math.max(0, entries.size() - 1);
+        long hash = FNV_OFFSET_BASIS;
+        for (Entry entry : entries.values()) {
+            length += entry.json.length;
+            hash = (hash ^ entry.crc) * FNV_PRIME;
+        }
+        byte[] json = new byte[length];
+        int position = 0;
+        json[position++] = '[';
+        for (Entry entry : entries.values()) {
+            if (position > 1) {
+                json[position++] = ',';
+            }
+            System.arraycopy(entry.json, 0, json, position, entry.json.length);
+            position += entry.json.length;
+        }
+        json[position] = ']';
+
+        String tag = Long.toHexString(hash) + "-" + Integer.toHexString(length);
+        return new Body(json, properties.isGzip(), tag, ratesTag, entries.size());
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, json.length / 8));
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed, 64 * 1024)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("products.catalog.snapshot.size", this, snapshot -> snapshot.current != null ? snapshot.current.length() : 0)
+                .baseUnit("bytes")
+                .description("Size of the serialized catalog served for GET /api/products")
+                .register(registry);
+        FunctionCounter.builder("products.catalog.snapshot.builds", fullBuilds, AtomicLong::get)
+                .tag("kind", "full")
+                .description("Rebuilds of the serialized catalog")
+                .register(registry);
+        FunctionCounter.builder("products.catalog.snapshot.builds", incrementalBuilds, AtomicLong::get)
+                .tag("kind", "incremental")
+                .description("Rebuilds of the serialized catalog")
+                .register(registry);
+    }
+
+    /**
+     * One serialized catalog. The arrays are shared between requests, each reader takes its own {@link #json()}
+     * or {@link #gzip()} view and must not write to it.
+     */
+    public static final class Body {
+
+        private final byte[] json;
+        private final boolean gzipEnabled;
+        private final String tag;
+        private final String ratesTag;
+        private final int products;
+        // Compressed on first use
+        private volatile byte[] gzip;
+
+        /**
+         * @param gzipEnabled whether {@link #gzip()} offers a gzip encoded copy
+         * @param tag content hash and length, a strong validator of the JSON
+         * @param ratesTag {@link ExchangeRateSnapshot#getRatesTag() rates} the USD prices were converted with
+         */
+        public Body(byte[] json, boolean gzipEnabled, String tag, String ratesTag, int products) {
+            this.json = json;
+            this.gzipEnabled = gzipEnabled;
+            this.tag = tag;
+            this.ratesTag = ratesTag;
+            this.products = products;
+        }
+
+        public ByteBuffer json() {
+            return ByteBuffer.wrap(json);
+        }
+
+        public boolean hasGzip() {
+            return gzipEnabled;
+        }
+
+        /**
+         * @return the gzip encoded JSON, compressed by the first caller; null when not kept
+         */
+        public ByteBuffer gzip() {
+            if (!gzipEnabled) {
+                return null;
+            }
+            byte[] compressed = gzip;
+            if (compressed == null) {
+                synchronized (this) {
+                    compressed = gzip;
+                    if (compressed == null) {
+                        compressed = ProductCatalogSnapshot.gzip(json);
+                        gzip = compressed;
+                    }
+                }
+            }
+            return ByteBuffer.wrap(compressed);
+        }
+
+        public String tag() {
+            return tag;
+        }
+
+        public String ratesTag() {
+            return ratesTag;
+        }
+
+        public int products() {
+            return products;
+        }
+
+        public int length() {
+            return json.length;
+        }
+    }
+
+    private record Saved(long version, ProductDto dto) {
+    }
+
+    // A product's serialized JSON and its checksum, with the DTO kept to serialize it again with other rates
+    private final class Entry {
+
+        private final long version;
+        private final ProductDto dto;
+        private byte[] json;
+        private long crc;
+
+        private Entry(long version, ProductDto dto, PriceConverter usdConverter) {
+            this.version = version;
+            this.dto = dto;
+            render(usdConverter);
+        }
+
+        private void render(PriceConverter usdConverter) {
+            dto.setPriceUsd(usdConverter.convert(dto.getPriceEur()).get(Currency.USD));
+            try {
+                json = writer.writeValueAsBytes(dto);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Product " + dto.getId() + " could not be serialized", e);
+            }
+            CRC32C checksum = new CRC32C();
+            checksum.update(json);
+            crc = checksum.getValue();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.configuration.ProductCodeFilterProperties;
+import com.example.productmanagement.event.CachesClearedEvent;
+import com.example.productmanagement.event.ProductsChangedEvent;
+import com.example.productmanagement.repo.ProductBatchRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of all existing product codes, put in front of lookups by code so that codes which
+ * do not exist are answered without a database round trip. A negative answer is exact; a positive one
+ * may be wrong with about products.code-filter.false-positive-probability and falls through to the database.
+ * Codes are never removed (deleted codes just become false positives) and the filter is filled from the
+ * database once the application is ready, and again after every cache was cleared; until then, and for
+ * products.code-filter.settle-time after, every code is reported as possibly present. Codes written on other
+ * instances are added as their {@link ProductsChangedEvent} arrives, so a negative answer is as current as the
+ * other caches of this instance.
+ */
+@Slf4j
+@Component
+public class ProductCodeFilter implements MeterBinder {
+
+    private final ProductBatchRepository batchRepository;
+    private final ProductCodeFilterProperties properties;
+
+    private final AtomicLong rejections = new AtomicLong();
+    private final AtomicLong passes = new AtomicLong();
+
+    // null while not (yet) loaded, all codes pass
+    private volatile BloomFilter filter;
+    // filter being loaded, written codes are recorded here too so none are lost while loading
+    private volatile BloomFilter loading;
+    // System.nanoTime() from which negative answers of the filter are trusted
+    private volatile long settledAt;
+
+    // Runs reloads after a clear, so the thread announcing it (e.g. the invalidation listener) is not held up
+    private final Executor executor;
+
+    @Autowired
+    public ProductCodeFilter(ProductBatchRepository batchRepository, ProductCodeFilterProperties properties) {
+        this(batchRepository, properties, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-code-filter");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    ProductCodeFilter(ProductBatchRepository batchRepository, ProductCodeFilterProperties properties, Executor executor) {
+        this.batchRepository = batchRepository;
+        this.properties = properties;
+        this.executor = executor;
+    }
+
+    /**
+     * @return false only if no product with this code exists
+     */
+    public boolean mightContain(String code) {
+        BloomFilter current = filter;
+        if (current == null || System.nanoTime() - settledAt < 0 || current.mightContain(code)) {
+            passes.incrementAndGet();
+            return true;
+        }
+        rejections.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Records a code once its product is committed, before the write is acknowledged to the client.
+     */
+    public void add(String code) {
+        // loading before filter: load() publishes filter before it clears loading, so a code missing the
+        // loading filter because the load just finished finds the new filter instead
+        BloomFilter next = loading;
+        BloomFilter current = filter;
+        if (next != null) {
+            next.put(code);
+        }
+        if (current != null && current != next) {
+            current.put(code);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            long expected = Math.max(properties.getExpectedInsertions(), 2 * batchRepository.count());
+            BloomFilter next = new BloomFilter(expected, properties.getFalsePositiveProbability());
+            loading = next;
+            batchRepository.forEachCode(next::put);
+            settledAt = System.nanoTime() + properties.getSettleTime().toNanos();
+            filter = next;
+            log.info("Product code filter loaded with {} codes ({} bits, {} hashes)",
+                    next.size(), next.bitCount(), next.hashCount());
+        } catch (DataAccessException e) {
+            log.warn("Product code filter could not be loaded, lookups by code go to the database: {}", e.getMessage());
+        } finally {
+            loading = null;
+        }
+    }
+
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        event.codes().forEach(this::add);
+    }
+
+    /**
+     * Reloads the filter when every cache was cleared, here or on another instance, and when invalidations from
+     * other instances may have been lost ({@link ClusterInvalidation} reconnected): codes of lost announcements
+     * would be rejected for good otherwise. Every code passes until the new filter is loaded and settled.
+     */
+    @EventListener
+    public void onCachesCleared(CachesClearedEvent event) {
+        if (properties.isEnabled() && event.isAll()) {
+            filter = null;
+            executor.execute(this::load);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("products.code.filter.lookups", rejections, AtomicLong::get)
+                .tag("result", "absent")
+                .description("Lookups by code screened by the code filter")
+                .register(registry);
+        FunctionCounter.builder("products.code.filter.lookups", passes, AtomicLong::get)
+                .tag("result", "maybe-present")
+                .description("Lookups by code screened by the code filter")
+                .register(registry);
+        Gauge.builder("products.code.filter.size", this, codeFilter -> {
+                    BloomFilter current = codeFilter.filter;
+                    return current != null ? current.size() : Double.NaN;
+                })
+                .description("Approximate number of codes recorded in the code filter")
+                .register(registry);
+    }
+
+    /**
+     * Lock-free bloom filter over a bit array of longs, k bit positions derived from one
+     * 64-bit hash by double hashing.
+     */
+    static final class BloomFilter {
+
+        private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+        private static final long FNV_PRIME = 0x100000001b3L;
+
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLong size = new AtomicLong();
+
+        BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+            long n = Math.max(1, expectedInsertions);
+            long bits = (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.min(Integer.MAX_VALUE - 8, (Math.max(64, bits) + 63) / 64);
+            this.words = new AtomicLongArray(words);
+            this.bitCount = (long) words * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            boolean changed = false;
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+                long mask = 1L << bit;
+                int index = (int) (bit >>> 6);
+                long word = words.get(index);
+                while ((word & mask) == 0) {
+                    if (words.compareAndSet(index, word, word | mask)) {
+                        changed = true;
+                        break;
+                    }
+                    word = words.get(index);
+                }
+            }
+            if (changed) {
+                size.incrementAndGet();
+            }
+        }
+
+        long size() {
+            return size.get();
+        }
+
+        long bitCount() {
+            return bitCount;
+        }
+
+        int hashCount() {
+            return hashCount;
+        }
+
+        // FNV-1a over the UTF-16 chars, finished with the murmur3 64-bit mixer to spread the high bits
+        private static long hash(String value) {
+            long hash = FNV_OFFSET_BASIS;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= FNV_PRIME;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.configuration.ProductImportProperties;
+import com.example.productmanagement.dto.BulkImportResultDto;
+import com.example.productmanagement.dto.BulkImportResultDto.RowErrorDto;
+import com.example.productmanagement.dto.ProductDto;
+import com.example.productmanagement.event.ProductsChangedEvent;
+import com.example.productmanagement.mapper.ProductMapper;
+import com.example.productmanagement.model.Product;
+import com.example.productmanagement.repo.ProductBatchRepository;
+import com.example.productmanagement.service.impl.ProductRowSource.Row;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import: rows are read one at a time from the request body, validated, and written in
+ * JDBC batches of products.import.batch-size, one transaction per batch. Invalid rows and duplicate codes
+ * are reported per row and do not stop the import.
+ */
+@Service
+public class ProductImportService {
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private static final String DUPLICATE_CODE = "Product with code %s already exists";
+
+    private final ProductBatchRepository batchRepository;
+    private final ProductMapper mapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductImportProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductImportService(ProductBatchRepository batchRepository, ProductMapper mapper, Validator validator,
+                                ObjectMapper objectMapper, TransactionTemplate transactionTemplate,
+                                ProductImportProperties properties, ApplicationEventPublisher eventPublisher) {
+        this.batchRepository = batchRepository;
+        this.mapper = mapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public BulkImportResultDto importProducts(InputStream body, MediaType contentType) throws IOException {
+        try (ProductRowSource rows = openRows(body, contentType)) {
+            return importRows(rows);
+        }
+    }
+
+    BulkImportResultDto importRows(ProductRowSource rows) throws IOException {
+        ImportProgress progress = new ImportProgress(properties.getMaxReportedErrors());
+        List<Row> chunk = new ArrayList<>(properties.getBatchSize());
+
+        Row row;
+        while ((row = rows.next()) != null) {
+            progress.received++;
+            String error = row.error() != null ? row.error() : validate(row.product());
+            if (error != null) {
+                progress.reject(row, error);
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == properties.getBatchSize()) {
+                writeChunk(chunk, progress);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, progress);
+        }
+        return progress.toResult();
+    }
+
+    private ProductRowSource openRows(InputStream body, MediaType contentType) throws IOException {
+        if (contentType != null && TEXT_CSV.includes(contentType)) {
+            return new CsvProductRowSource(body);
+        }
+        return new JsonProductRowSource(objectMapper, body);
+    }
+
+    private String validate(ProductDto product) {
+        Set<ConstraintViolation<ProductDto>> violations = validator.validate(product);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private void writeChunk(List<Row> chunk, ImportProgress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertChunk(chunk, progress.fork()));
+            publishWritten(progress.join());
+        } catch (DataAccessException e) {
+            // Something other than a duplicate code failed the batch, isolate the offending rows
+            progress.discardFork();
+            for (Row row : chunk) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insertChunk(List.of(row), progress.fork()));
+                    publishWritten(progress.join());
+                } catch (DataAccessException rowFailure) {
+                    progress.discardFork();
+                    progress.reject(row, rootCauseMessage(rowFailure));
+                }
+            }
+        }
+    }
+
+    private void insertChunk(List<Row> chunk, ImportProgress progress) {
+        List<Product> products = chunk.stream().map(row -> mapper.toEntity(row.product())).toList();
+        boolean[] inserted = batchRepository.insertIgnoringDuplicates(products);
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i]) {
+                progress.written(products.get(i));
+            } else {
+                progress.reject(chunk.get(i), String.format(DUPLICATE_CODE, products.get(i).getCode()));
+            }
+        }
+    }
+
+    private void publishWritten(List<Product> written) {
+        if (!written.isEmpty()) {
+            eventPublisher.publishEvent(new ProductsChangedEvent(
+                    written.stream().map(Product::getId).toList(),
+                    written.stream().map(Product::getCode).toList()));
+        }
+    }
+
+    private static String rootCauseMessage(DataAccessException e) {
+        Throwable cause = e.getMostSpecificCause();
+        return cause.getMessage() != null ? cause.getMessage() : e.getMessage();
+    }
+
+    /**
+     * Counters and reported errors of one import. Chunk writes record into a fork that is only
+     * joined once the chunk's transaction commits, so a rolled back chunk leaves no trace.
+     */
+    private static final class ImportProgress {
+
+        private final int maxReportedErrors;
+        private final List<RowErrorDto> errors = new ArrayList<>();
+        private final List<Product> written = new ArrayList<>();
+        private long received;
+        private long imported;
+        private long rejected;
+        private ImportProgress pending;
+
+        private ImportProgress(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void reject(Row row, String message) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                String code = row.product() != null ? row.product().getCode() : null;
+                errors.add(new RowErrorDto(row.number(), code, message));
+            }
+        }
+
+        private void written(Product product) {
+            imported++;
+            written.add(product);
+        }
+
+        private ImportProgress fork() {
+            pending = new ImportProgress(Math.max(0, maxReportedErrors - errors.size()));
+            return pending;
+        }
+
+        /**
+         * @return products written by the joined chunk
+         */
+        private List<Product> join() {
+            ImportProgress chunk = pending;
+            imported += chunk.imported;
+            rejected += chunk.rejected;
+            errors.addAll(chunk.errors);
+            pending = null;
+            return chunk.written;
+        }
+
+        private void discardFork() {
+            pending = null;
+        }
+
+        private BulkImportResultDto toResult() {
+            errors.sort(Comparator.comparingLong(RowErrorDto::getRow));
+            return new BulkImportResultDto(received, imported, rejected, errors);
+        }
+    }
+}
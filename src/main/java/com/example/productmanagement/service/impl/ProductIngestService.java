@@ -0,0 +1,274 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.configuration.ProductIngestProperties;
+import com.example.productmanagement.dto.IngestStatusDto;
+import com.example.productmanagement.dto.IngestStatusDto.Status;
+import com.example.productmanagement.event.ProductsChangedEvent;
+import com.example.productmanagement.exception.IngestQueueFullException;
+import com.example.productmanagement.model.Product;
+import com.example.productmanagement.repo.ProductBatchRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous product creation for high-volume producers: validated products are queued in a bounded
+ * in-memory queue and acknowledged with a tracking id, a single writer thread drains the queue in batches
+ * of products.ingest.batch-size, each written as one JDBC batch in one transaction. A full queue refuses
+ * further products instead of blocking the caller. Queued products are lost if the process dies.
+ */
+@Slf4j
+@Service
+public class ProductIngestService implements MeterBinder {
+
+    private static final String DUPLICATE_CODE = "Product with code %s already exists";
+
+    private final ProductBatchRepository batchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductIngestProperties properties;
+
+    private final BlockingQueue<Entry> queue;
+    private final Cache<UUID, IngestStatusDto> statuses;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong refused = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public ProductIngestService(ProductBatchRepository batchRepository, TransactionTemplate transactionTemplate,
+                                ApplicationEventPublisher eventPublisher, ProductIngestProperties properties) {
+        this.batchRepository = batchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedStatuses())
+                .expireAfterWrite(properties.getStatusRetention())
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        writer = new Thread(this::drainUntilStopped, "product-ingest");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops accepting products and lets the writer drain what is already queued.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(properties.getShutdownTimeout().toMillis());
+            if (!queue.isEmpty()) {
+                log.warn("Product ingest stopped with {} products still queued", queue.size());
+            }
+        }
+    }
+
+    /**
+     * @return the QUEUED status with the tracking id of the product
+     * @throws IngestQueueFullException if the queue is full (or shutting down); the caller should retry later
+     */
+    public IngestStatusDto enqueue(Product product) {
+        Entry entry = new Entry(UUID.randomUUID(), product);
+        if (!running || !queue.offer(entry)) {
+            refused.incrementAndGet();
+            throw new IngestQueueFullException("Ingest queue is full, retry later");
+        }
+        accepted.incrementAndGet();
+        IngestStatusDto status = new IngestStatusDto(entry.id(), Status.QUEUED, product.getCode(), null, null);
+        // A fast writer may already have recorded the outcome
+        statuses.asMap().putIfAbsent(entry.id(), status);
+        return status;
+    }
+
+    public Optional<IngestStatusDto> status(UUID trackingId) {
+        return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    /**
+     * Waits up to {@code pollTimeoutMillis} for a product, then writes it together with whatever else is queued,
+     * up to one batch.
+     * @return number of products taken from the queue
+     */
+    int drain(long pollTimeoutMillis) throws InterruptedException {
+        Entry first = queue.poll(pollTimeoutMillis, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return 0;
+        }
+        List<Entry> batch = new ArrayList<>(properties.getBatchSize());
+        batch.add(first);
+        queue.drainTo(batch, properties.getBatchSize() - 1);
+        writeBatch(batch);
+        return batch.size();
+    }
+
+    private void drainUntilStopped() {
+        while (running || !queue.isEmpty()) {
+            try {
+                drain(properties.getPollTimeout().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Product ingest writer failed on a batch, continuing", e);
+            }
+        }
+    }
+
+    private void writeBatch(List<Entry> batch) {
+        batches.incrementAndGet();
+        Set<UUID> recorded = new HashSet<>(batch.size() * 2);
+        try {
+            List<IngestStatusDto> outcomes;
+            try {
+                outcomes = transactionTemplate.execute(status -> insert(batch));
+            } catch (DataAccessException e) {
+                if (batch.size() == 1) {
+                    fail(batch.get(0), e.getMostSpecificCause().getMessage(), recorded);
+                    return;
+                }
+                // One product can fail the whole batch, write them one by one so only the offending ones fail
+                log.warn("Product ingest batch of {} failed, writing its products one by one: {}", batch.size(),
+                        e.getMostSpecificCause().getMessage());
+                writeOneByOne(batch, recorded);
+                return;
+            }
+            record(outcomes, recorded);
+        } catch (RuntimeException e) {
+            // No connection, a failing listener, ...: the batch is already off the queue, so whatever has no
+            // outcome yet must not stay QUEUED forever
+            log.error("Product ingest batch of {} failed", batch.size(), e);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+            for (Entry entry : batch) {
+                if (!recorded.contains(entry.id())) {
+                    fail(entry, message, recorded);
+                }
+            }
+        }
+    }
+
+    private void writeOneByOne(List<Entry> batch, Set<UUID> recorded) {
+        for (Entry entry : batch) {
+            List<IngestStatusDto> outcomes;
+            try {
+                outcomes = transactionTemplate.execute(status -> insert(List.of(entry)));
+            } catch (DataAccessException e) {
+                fail(entry, e.getMostSpecificCause().getMessage(), recorded);
+                continue;
+            }
+            record(outcomes, recorded);
+        }
+    }
+
+    // Outcomes become visible only once the transaction committed
+    private void record(List<IngestStatusDto> outcomes, Set<UUID> recorded) {
+        List<IngestStatusDto> inserted = new ArrayList<>(outcomes.size());
+        for (IngestStatusDto outcome : outcomes) {
+            statuses.put(outcome.getTrackingId(), outcome);
+            recorded.add(outcome.getTrackingId());
+            if (outcome.getStatus() == Status.WRITTEN) {
+                inserted.add(outcome);
+            }
+        }
+        rejected.addAndGet(outcomes.size() - inserted.size());
+        if (!inserted.isEmpty()) {
+            written.addAndGet(inserted.size());
+            eventPublisher.publishEvent(new ProductsChangedEvent(
+                    inserted.stream().map(IngestStatusDto::getProductId).toList(),
+                    inserted.stream().map(IngestStatusDto::getCode).toList()));
+        }
+    }
+
+    private void fail(Entry entry, String message, Set<UUID> recorded) {
+        failed.incrementAndGet();
+        log.warn("Product ingest of {} failed: {}", entry.product().getCode(), message);
+        statuses.put(entry.id(), new IngestStatusDto(entry.id(), Status.FAILED, entry.product().getCode(), null, message));
+        recorded.add(entry.id());
+    }
+
+    private List<IngestStatusDto> insert(List<Entry> batch) {
+        List<Product> products = batch.stream().map(Entry::product).toList();
+        boolean[] inserted = batchRepository.insertIgnoringDuplicates(products);
+        List<IngestStatusDto> outcomes = new ArrayList<>(batch.size());
+        for (int i = 0; i < inserted.length; i++) {
+            Entry entry = batch.get(i);
+            outcomes.add(inserted[i]
+                    ? new IngestStatusDto(entry.id(), Status.WRITTEN, entry.product().getCode(), entry.product().getId(), null)
+                    : rejectedDuplicate(entry));
+        }
+        return outcomes;
+    }
+
+    private static IngestStatusDto rejectedDuplicate(Entry entry) {
+        String code = entry.product().getCode();
+        return new IngestStatusDto(entry.id(), Status.REJECTED, code, null, String.format(DUPLICATE_CODE, code));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("products.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Products waiting to be written by the ingest writer")
+                .register(registry);
+        Gauge.builder("products.ingest.queue.remaining", queue, BlockingQueue::remainingCapacity)
+                .description("Products the ingest queue can still take before refusing")
+                .register(registry);
+        FunctionCounter.builder("products.ingest.requests", accepted, AtomicLong::get)
+                .tag("result", "accepted")
+                .description("Products offered to the ingest queue")
+                .register(registry);
+        FunctionCounter.builder("products.ingest.requests", refused, AtomicLong::get)
+                .tag("result", "refused")
+                .description("Products offered to the ingest queue")
+                .register(registry);
+        FunctionCounter.builder("products.ingest.products", written, AtomicLong::get)
+                .tag("result", "written")
+                .description("Queued products processed by the ingest writer")
+                .register(registry);
+        FunctionCounter.builder("products.ingest.products", rejected, AtomicLong::get)
+                .tag("result", "rejected")
+                .description("Queued products processed by the ingest writer")
+                .register(registry);
+        FunctionCounter.builder("products.ingest.products", failed, AtomicLong::get)
+                .tag("result", "failed")
+                .description("Queued products processed by the ingest writer")
+                .register(registry);
+        FunctionCounter.builder("products.ingest.batches", batches, AtomicLong::get)
+                .description("Batches written by the ingest writer")
+                .register(registry);
+    }
+
+    private record Entry(UUID id, Product product) {
+    }
+}
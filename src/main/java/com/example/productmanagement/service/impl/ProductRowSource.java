@@ -0,0 +1,29 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.dto.ProductDto;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Sequential reader over the rows of a bulk import body. Rows that cannot be read are returned with an error
+ * instead of failing the whole import.
+ */
+interface ProductRowSource extends Closeable {
+
+    /**
+     * @return next row, or null when the input is exhausted
+     */
+    Row next() throws IOException;
+
+    record Row(long number, ProductDto product, String error) {
+
+        static Row of(long number, ProductDto product) {
+            return new Row(number, product, null);
+        }
+
+        static Row failed(long number, String error) {
+            return new Row(number, null, error);
+        }
+    }
+}
@@ -1,27 +1,102 @@
 package com.example.productmanagement.service.impl;
 
+import com.example.productmanagement.event.ProductSavedEvent;
+import com.example.productmanagement.exception.ProductConflictException;
 import com.example.productmanagement.exception.ProductNotFoundException;
+import com.example.productmanagement.exception.ProductPreconditionFailedException;
+import com.example.productmanagement.model.Currency;
+import com.example.productmanagement.model.PriceConverter;
 import com.example.productmanagement.model.Product;
+import com.example.productmanagement.repo.CatalogVersion;
 import com.example.productmanagement.repo.ProductRepository;
+import com.example.productmanagement.repo.ProductSearchCriteria;
+import com.example.productmanagement.repo.ProductSummary;
 import com.example.productmanagement.service.ExchangeRateService;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
+/**
+ * Every public method is timed as products.service, tagged with the method and the exception it failed with.
+ */
 @Service
+@Timed(value = "products.service", description = "Product service calls")
 public class ProductService {
 
+    private static final Long FIRST_CURSOR = 0L;
+
     private final ProductRepository productRepository;
     private final ExchangeRateService exchangeRateService;
+    private final ProductCache productCache;
+    private final ProductCodeFilter codeFilter;
+    private final ProductCatalogSnapshot catalogSnapshot;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
-    public ProductService(ProductRepository productRepository, ExchangeRateService exchangeRateService) {
+    public ProductService(ProductRepository productRepository, ExchangeRateService exchangeRateService,
+                          ProductCache productCache, ProductCodeFilter codeFilter,
+                          ProductCatalogSnapshot catalogSnapshot, ApplicationEventPublisher eventPublisher,
+                          TransactionTemplate transactionTemplate) {
         this.productRepository = productRepository;
         this.exchangeRateService = exchangeRateService;
+        this.productCache = productCache;
+        this.codeFilter = codeFilter;
+        this.catalogSnapshot = catalogSnapshot;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
     }
 
     public Product save(Product product) {
         product = productRepository.save(product);
-        product.setPriceUsd(exchangeRateService.convertEurToUsd(product.getPriceEur()));
+        codeFilter.add(product.getCode());
+        productCache.put(product);
+        catalogSnapshot.put(product);
+        eventPublisher.publishEvent(new ProductSavedEvent(product.getId(), List.of(product.getCode())));
+        return product;
+    }
+
+    /**
+     * Applies changes to the current state of a product. Loaded and written in one transaction, so the entity
+     * stays managed and only the changed columns are written, in a single UPDATE guarded by the version:
+     * concurrent updates of the same product never silently overwrite each other. Caches and other instances
+     * learn about the change once it is committed.
+     * @param expectedVersions versions the changes may be based on (If-Match), null to change whatever is current
+     * @throws ProductPreconditionFailedException if the product is at none of those versions
+     * @throws ProductConflictException if the product was updated concurrently
+     */
+    public Product update(Long id, Set<Long> expectedVersions, Consumer<Product> changes) {
+        Update update;
+        try {
+            update = transactionTemplate.execute(status -> {
+                Product product = productRepository.findById(id)
+                        .orElseThrow(() -> new ProductNotFoundException("Product with ID " + id + " not found"));
+                if (expectedVersions != null && !expectedVersions.contains(product.getVersion())) {
+                    throw new ProductPreconditionFailedException("Product with ID " + id + " is at version "
+                            + product.getVersion() + ", not " + expectedVersions);
+                }
+                String previousCode = product.getCode();
+                changes.accept(product);
+                // Flushed here, so a concurrent update fails inside this try rather than at commit
+                return new Update(productRepository.saveAndFlush(product), previousCode);
+            });
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ProductConflictException("Product with ID " + id + " was updated concurrently", e);
+        }
+        Product product = update.product();
+        codeFilter.add(product.getCode());
+        productCache.put(product);
+        catalogSnapshot.put(product);
+        eventPublisher.publishEvent(new ProductSavedEvent(product.getId(), update.previousCode().equals(product.getCode())
+                ? List.of(product.getCode()) : List.of(update.previousCode(), product.getCode())));
         return product;
     }
 
@@ -30,15 +105,70 @@ public class ProductService {
             throw new ProductNotFoundException("Product ID cannot be null");
         }
 
-        Product product = productRepository.findById(id)
+        return productCache.getById(id, productRepository::findById)
                 .orElseThrow(() -> new ProductNotFoundException("Product with ID " + id + " not found"));
-        product.setPriceUsd(exchangeRateService.convertEurToUsd(product.getPriceEur()));
-        return product;
+    }
+
+    public Product findByCode(String code) {
+        if (code == null) {
+            throw new ProductNotFoundException("Product code cannot be null");
+        }
+        if (!codeFilter.mightContain(code)) {
+            throw new ProductNotFoundException("Product with code " + code + " not found");
+        }
+
+        return productCache.getByCode(code, productRepository::findByCode)
+                .orElseThrow(() -> new ProductNotFoundException("Product with code " + code + " not found"));
     }
 
     public List<Product> findAll() {
-        List<Product> products = productRepository.findAll();
-        products.forEach(p -> p.setPriceUsd(exchangeRateService.convertEurToUsd(p.getPriceEur())));
-        return products;
+        return productRepository.findAll();
+    }
+
+    /**
+     * Changes whenever a product is added, changed or removed, read without loading any product.
+     */
+    public CatalogVersion catalogVersion() {
+        return productRepository.catalogVersion();
+    }
+
+    public List<Product> findPage(Long afterId, int limit) {
+        return productRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId == null ? FIRST_CURSOR : afterId, Limit.of(limit));
+    }
+
+    /**
+     * Filtered, sorted page of products, read as {@link ProductSummary} projections rather than entities.
+     */
+    public Slice<ProductSummary> search(ProductSearchCriteria criteria, Pageable pageable) {
+        return productRepository.search(criteria, pageable);
+    }
+
+    /**
+     * Converter of EUR prices into the given currencies, bound to one rate snapshot
+     * so every product of a response is priced with the same rates. Products themselves only carry EUR,
+     * other currencies are converted when a response asks for them.
+     */
+    public PriceConverter priceConverter(Currency[] currencies) {
+        return exchangeRateService.priceConverter(Currency.EUR, currencies);
+    }
+
+    /**
+     * Walks the whole catalog in id order, one keyset page of {@code batchSize} rows at a time,
+     * so only a single batch is ever held in memory.
+     */
+    public void forEachBatch(int batchSize, Consumer<List<Product>> batchConsumer) {
+        Long cursor = FIRST_CURSOR;
+        List<Product> batch;
+        do {
+            batch = findPage(cursor, batchSize);
+            if (!batch.isEmpty()) {
+                batchConsumer.accept(batch);
+                cursor = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private record Update(Product product, String previousCode) {
     }
-}
\ No newline at end of file
+}
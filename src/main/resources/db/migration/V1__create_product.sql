@@ -0,0 +1,9 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update). Existing databases are baselined at
+-- this version (spring.flyway.baseline-on-migrate), so it only runs against empty databases.
+CREATE TABLE IF NOT EXISTS product (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    code         VARCHAR(10)    NOT NULL UNIQUE,
+    name         VARCHAR(255)   NOT NULL,
+    price_eur    NUMERIC(38, 2) NOT NULL,
+    is_available BOOLEAN        NOT NULL
+);
@@ -0,0 +1,10 @@
+-- Product ids move from an identity column to a pooled sequence, so Hibernate can batch inserts.
+-- Each nextval reserves a block of ${product_id_allocation_size} ids (pooled-lo), the sequence increment
+-- must therefore always equal products.id.allocation-size.
+CREATE SEQUENCE IF NOT EXISTS product_seq INCREMENT BY ${product_id_allocation_size};
+
+-- Continue after the highest id handed out by the identity column, existing ids stay untouched
+SELECT setval('product_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM product), false);
+
+ALTER TABLE product ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE product ALTER COLUMN id SET DEFAULT nextval('product_seq');
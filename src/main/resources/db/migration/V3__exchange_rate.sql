@@ -0,0 +1,8 @@
+-- Last-known-good exchange rate snapshot, one row per currency, replaced on every successful refresh.
+-- Read on startup so conversions work before (or without) HNB answering.
+CREATE TABLE IF NOT EXISTS exchange_rate (
+    currency   VARCHAR(3)               NOT NULL PRIMARY KEY,
+    rate       NUMERIC                  NOT NULL,
+    valid_on   DATE,
+    fetched_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,3 @@
+-- Row version for optimistic locking, also the per-product part of the HTTP ETag.
+-- Bumped by every update of a product, existing rows start at 0.
+ALTER TABLE product ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
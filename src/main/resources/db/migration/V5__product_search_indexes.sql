@@ -0,0 +1,8 @@
+-- Indexes for GET /api/products/search.
+-- Searches are mostly for available products: a partial index keeps unavailable rows out and
+-- serves price ranges and price ordering.
+CREATE INDEX IF NOT EXISTS product_available_price_idx ON product (price_eur) WHERE is_available;
+
+-- Case-insensitive name prefix (lower(name) LIKE 'abc%'); text_pattern_ops lets LIKE use the
+-- index whatever the database collation is.
+CREATE INDEX IF NOT EXISTS product_name_prefix_idx ON product (lower(name) text_pattern_ops);
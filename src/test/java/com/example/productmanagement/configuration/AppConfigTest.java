@@ -0,0 +1,169 @@
+package com.example.productmanagement.configuration;
+
+import com.example.productmanagement.exception.ExchangeRateUnavailableException;
+import com.example.productmanagement.model.ExchangeRateSnapshot;
+import com.example.productmanagement.service.ExchangeRateService;
+import com.example.productmanagement.service.impl.ExchangeRateCacheLoader;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AppConfigTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/stall", exchange -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.createContext("/ok", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void restTemplate_shouldFailStalledCallAfterReadTimeout() {
+        HnbClientProperties properties = new HnbClientProperties();
+        properties.setReadTimeout(Duration.ofMillis(200));
+        RestTemplate restTemplate = new AppConfig().restTemplate(properties);
+
+        long started = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> restTemplate.getForObject(baseUrl + "/stall", String.class));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(Duration.ofSeconds(2)) < 0);
+    }
+
+    @Test
+    void restTemplate_shouldReturnBodyWithinTimeout() {
+        RestTemplate restTemplate = new AppConfig().restTemplate(new HnbClientProperties());
+
+        assertEquals("ok", restTemplate.getForObject(baseUrl + "/ok", String.class));
+    }
+
+    @Test
+    void cacheManager_shouldServeStaleRateWhileReloadingInBackground() throws Exception {
+        // Arrange
+        CountDownLatch reloadRunning = new CountDownLatch(1);
+        CountDownLatch finishReload = new CountDownLatch(1);
+        ExchangeRateService exchangeRateService = mock(ExchangeRateService.class);
+        when(exchangeRateService.currentSnapshot()).thenAnswer(invocation -> {
+            reloadRunning.countDown();
+            finishReload.await();
+            return Optional.of(new ExchangeRateSnapshot(2L, Map.of("USD", new BigDecimal("1.10")), Instant.now()));
+        });
+        CacheManager cacheManager = new AppConfig().cacheManager(exchangeRatesSpec(Duration.ofMillis(50)),
+                new HnbPublicationProperties(), new ExchangeRateCacheLoader(exchangeRateService));
+        Cache cache = cacheManager.getCache(ExchangeRateCacheLoader.CACHE_NAME);
+        cache.put("USD", new BigDecimal("1.08"));
+        Thread.sleep(100);
+
+        // Act
+        Cache.ValueWrapper stale = cache.get("USD");
+
+        // Assert
+        assertEquals(new BigDecimal("1.08"), stale.get());
+        assertTrue(reloadRunning.await(5, TimeUnit.SECONDS));
+        finishReload.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!new BigDecimal("1.10").equals(cache.get("USD").get()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(new BigDecimal("1.10"), cache.get("USD").get());
+    }
+
+    @Test
+    void cacheManager_shouldKeepRateWhenReloadFails() throws Exception {
+        // Arrange
+        ExchangeRateService exchangeRateService = mock(ExchangeRateService.class);
+        when(exchangeRateService.currentSnapshot()).thenReturn(Optional.empty());
+        when(exchangeRateService.refreshSnapshot()).thenThrow(new ExchangeRateUnavailableException("HNB down"));
+        CacheManager cacheManager = new AppConfig().cacheManager(exchangeRatesSpec(Duration.ofMillis(50)),
+                new HnbPublicationProperties(), new ExchangeRateCacheLoader(exchangeRateService));
+        Cache cache = cacheManager.getCache(ExchangeRateCacheLoader.CACHE_NAME);
+        cache.put("USD", new BigDecimal("1.08"));
+        Thread.sleep(100);
+
+        // Act
+        cache.get("USD");
+
+        // Assert
+        verify(exchangeRateService, timeout(5000)).refreshSnapshot();
+        assertEquals(new BigDecimal("1.08"), cache.get("USD").get());
+    }
+
+    @Test
+    void cacheManager_shouldOnlyProvideConfiguredCaches() {
+        CacheManager cacheManager = new AppConfig().cacheManager(exchangeRatesSpec(null),
+                new HnbPublicationProperties(), new ExchangeRateCacheLoader(mock(ExchangeRateService.class)));
+
+        assertEquals(List.of(ExchangeRateCacheLoader.CACHE_NAME), List.copyOf(cacheManager.getCacheNames()));
+        assertNull(cacheManager.getCache("unknown"));
+    }
+
+    @Test
+    void cacheManager_shouldRefuseRefreshWithoutLoader() {
+        // Arrange
+        CaffeineCacheProperties properties = new CaffeineCacheProperties();
+        CaffeineCacheProperties.Spec spec = new CaffeineCacheProperties.Spec();
+        spec.setRefreshAfterWrite(Duration.ofMinutes(1));
+        properties.getSpecs().put("prices", spec);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new AppConfig().cacheManager(properties,
+                new HnbPublicationProperties(), new ExchangeRateCacheLoader(mock(ExchangeRateService.class))));
+    }
+
+    private static CaffeineCacheProperties exchangeRatesSpec(Duration refreshAfterWrite) {
+        CaffeineCacheProperties properties = new CaffeineCacheProperties();
+        CaffeineCacheProperties.Spec spec = new CaffeineCacheProperties.Spec();
+        spec.setRefreshAfterWrite(refreshAfterWrite);
+        spec.setExpireAtHnbPublication(true);
+        spec.setExpireAfterWrite(Duration.ofDays(4));
+        properties.getSpecs().put(ExchangeRateCacheLoader.CACHE_NAME, spec);
+        return properties;
+    }
+}
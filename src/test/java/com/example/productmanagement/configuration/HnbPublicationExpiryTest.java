@@ -0,0 +1,61 @@
+package com.example.productmanagement.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HnbPublicationExpiryTest {
+
+    // Zagreb is on UTC+2 in the week of these dates: 16:00 local is 14:00 UTC
+    private static final Instant WEDNESDAY_MORNING = Instant.parse("2026-10-14T08:00:00Z");
+    private static final Instant WEDNESDAY_IN_GRACE = Instant.parse("2026-10-14T14:10:00Z");
+    private static final Instant WEDNESDAY_EVENING = Instant.parse("2026-10-14T15:00:00Z");
+    private static final Instant FRIDAY_EVENING = Instant.parse("2026-10-16T15:00:00Z");
+
+    private final HnbPublicationExpiry expiry = new HnbPublicationExpiry(new HnbPublicationProperties(), Duration.ofDays(4));
+
+    @Test
+    void timeToLive_shouldLastUntilGraceOfSameDayPublication() {
+        assertEquals(Duration.ofHours(6).plusMinutes(30), expiry.timeToLive(WEDNESDAY_MORNING));
+    }
+
+    @Test
+    void timeToLive_shouldEndWithGraceWhenWrittenJustAfterPublication() {
+        assertEquals(Duration.ofMinutes(20), expiry.timeToLive(WEDNESDAY_IN_GRACE));
+    }
+
+    @Test
+    void timeToLive_shouldLastUntilNextPublicationDay() {
+        assertEquals(Duration.ofHours(23).plusMinutes(30), expiry.timeToLive(WEDNESDAY_EVENING));
+        // No list on weekends, Friday's rates stay until Monday
+        assertEquals(Duration.ofHours(71).plusMinutes(30), expiry.timeToLive(FRIDAY_EVENING));
+    }
+
+    @Test
+    void timeToLive_shouldBeCappedByMaximum() {
+        // Arrange
+        HnbPublicationExpiry capped = new HnbPublicationExpiry(new HnbPublicationProperties(), Duration.ofHours(1));
+
+        // Act & Assert
+        assertEquals(Duration.ofHours(1), capped.timeToLive(FRIDAY_EVENING));
+    }
+
+    @Test
+    void expiry_shouldBeSetOnWriteAndReloadButNotExtendedByReads() {
+        // Arrange
+        HnbPublicationExpiry fixedClock = new HnbPublicationExpiry(new HnbPublicationProperties(), Duration.ofDays(4),
+                Clock.fixed(WEDNESDAY_EVENING, ZoneOffset.UTC));
+        long untilThursday = TimeUnit.MINUTES.toNanos(23 * 60 + 30);
+
+        // Act & Assert
+        assertEquals(untilThursday, fixedClock.expireAfterCreate("USD", 1, 0));
+        assertEquals(untilThursday, fixedClock.expireAfterUpdate("USD", 1, 0, 5));
+        assertEquals(5, fixedClock.expireAfterRead("USD", 1, 0, 5));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.productmanagement.controller;
+
+import com.example.productmanagement.model.ExchangeRateSnapshot;
+import com.example.productmanagement.service.ExchangeRateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ExchangeRateHeadersInterceptorTest {
+
+    private static final Instant NOW = Instant.parse("2024-04-01T10:00:00Z");
+
+    private ExchangeRateService exchangeRateService;
+    private ExchangeRateHeadersInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        exchangeRateService = mock(ExchangeRateService.class);
+        interceptor = new ExchangeRateHeadersInterceptor(exchangeRateService, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void preHandle_shouldDescribeFreshSnapshot() {
+        when(exchangeRateService.currentSnapshot()).thenReturn(Optional.of(snapshot(NOW.minusSeconds(30))));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/api/products/1"), response, null);
+
+        assertEquals("2024-03-29", response.getHeader(ExchangeRateHeadersInterceptor.RATE_DATE_HEADER));
+        assertEquals("30", response.getHeader(ExchangeRateHeadersInterceptor.RATE_AGE_HEADER));
+    }
+
+    @Test
+    void preHandle_shouldReportAgeOfOldSnapshotWithoutWarningHeader() {
+        when(exchangeRateService.currentSnapshot()).thenReturn(Optional.of(snapshot(NOW.minus(Duration.ofHours(3)))));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/api/products"), response, null);
+
+        assertEquals("10800", response.getHeader(ExchangeRateHeadersInterceptor.RATE_AGE_HEADER));
+        assertNull(response.getHeader(HttpHeaders.WARNING));
+    }
+
+    @Test
+    void preHandle_shouldAddNothingWithoutSnapshot() {
+        when(exchangeRateService.currentSnapshot()).thenReturn(Optional.empty());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/api/products/1"), response, null);
+
+        assertTrue(response.getHeaderNames().isEmpty());
+    }
+
+    private static ExchangeRateSnapshot snapshot(Instant fetchedAt) {
+        return new ExchangeRateSnapshot(1L, Map.of("EUR", BigDecimal.ONE), fetchedAt, LocalDate.parse("2024-03-29"));
+    }
+}
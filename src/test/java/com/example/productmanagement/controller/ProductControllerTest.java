@@ -1,8 +1,18 @@
 package com.example.productmanagement.controller;
 
 import com.example.productmanagement.dto.ProductDto;
+import com.example.productmanagement.exception.ProductConflictException;
+import com.example.productmanagement.exception.ProductNotFoundException;
+import com.example.productmanagement.exception.ProductPreconditionFailedException;
 import com.example.productmanagement.mapper.ProductMapper;
+import com.example.productmanagement.model.Currency;
+import com.example.productmanagement.model.ExchangeRateSnapshot;
 import com.example.productmanagement.model.Product;
+import com.example.productmanagement.repo.CatalogVersion;
+import com.example.productmanagement.repo.ProductSearchCriteria;
+import com.example.productmanagement.repo.ProductSummary;
+import com.example.productmanagement.service.ExchangeRateService;
+import com.example.productmanagement.service.impl.ProductCatalogSnapshot;
 import com.example.productmanagement.service.impl.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -10,14 +20,31 @@ import org.mockito.Mockito;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -35,6 +62,12 @@ public class ProductControllerTest {
     @MockBean
     private ProductMapper mapper;
 
+    @MockBean
+    private ExchangeRateService exchangeRateService;
+
+    @MockBean
+    private ProductCatalogSnapshot catalogSnapshot;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -90,6 +123,127 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.name").value(dto.getName()));
     }
 
+    @Test
+    void testGetProductByIdWithCurrencies() throws Exception {
+        ProductDto dto = getSampleDto();
+        Product entity = getSampleEntity();
+        ExchangeRateSnapshot snapshot = new ExchangeRateSnapshot(1L,
+                Map.of("EUR", new BigDecimal("7.5"), "USD", new BigDecimal("6.5"), "GBP", new BigDecimal("8.5")),
+                Instant.now());
+
+        Mockito.when(service.findById(1L)).thenReturn(entity);
+        Mockito.when(mapper.toDto(entity)).thenReturn(dto);
+        Mockito.when(service.priceConverter(any()))
+                .thenAnswer(invocation -> snapshot.priceConverter(Currency.EUR, invocation.getArgument(0)));
+
+        mockMvc.perform(get("/api/products/1").param("currencies", "USD,GBP"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.prices.USD").value(115.3846))
+                .andExpect(jsonPath("$.prices.GBP").value(88.2353));
+    }
+
+    @Test
+    void testGetProductByIdWithRepeatedCurrencies() throws Exception {
+        ProductDto dto = getSampleDto();
+        Product entity = getSampleEntity();
+        ExchangeRateSnapshot snapshot = new ExchangeRateSnapshot(1L,
+                Map.of("EUR", new BigDecimal("7.5"), "USD", new BigDecimal("6.5"), "GBP", new BigDecimal("8.5")),
+                Instant.now());
+
+        Mockito.when(service.findById(1L)).thenReturn(entity);
+        Mockito.when(mapper.toDto(entity)).thenReturn(dto);
+        Mockito.when(service.priceConverter(any()))
+                .thenAnswer(invocation -> snapshot.priceConverter(Currency.EUR, invocation.getArgument(0)));
+
+        mockMvc.perform(get("/api/products/1").param("currencies", "USD,GBP,USD"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"prices\":{\"USD\":115.3846,\"GBP\":88.2353}")));
+    }
+
+    @Test
+    void testGetProductByIdWithUnknownCurrency() throws Exception {
+        mockMvc.perform(get("/api/products/1").param("currencies", "XYZ"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetProductById_ConvertsUsdPriceByDefault() throws Exception {
+        Product entity = getSampleEntity();
+        ExchangeRateSnapshot snapshot = new ExchangeRateSnapshot(1L,
+                Map.of("EUR", new BigDecimal("7.5"), "USD", new BigDecimal("6.5")), Instant.now());
+
+        Mockito.when(service.findById(1L)).thenReturn(entity);
+        Mockito.when(mapper.toDto(entity)).thenReturn(getSampleDto());
+        Mockito.when(service.priceConverter(any()))
+                .thenAnswer(invocation -> snapshot.priceConverter(Currency.EUR, invocation.getArgument(0)));
+
+        mockMvc.perform(get("/api/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.priceUsd").value(115.3846))
+                .andExpect(jsonPath("$.available").value(true));
+    }
+
+    @Test
+    void testGetProductById_WritesOnlySelectedFieldsWithoutConverting() throws Exception {
+        Product entity = getSampleEntity();
+        Mockito.when(exchangeRateService.currentSnapshot()).thenReturn(Optional.of(
+                new ExchangeRateSnapshot(1L, Map.of("EUR", BigDecimal.ONE), Instant.ofEpochMilli(0xff))));
+        Mockito.when(service.findById(1L)).thenReturn(entity);
+        Mockito.when(mapper.toDto(entity)).thenReturn(getSampleDto());
+
+        mockMvc.perform(get("/api/products/1").param("fields", "code,name,priceEur"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-0-0\""))
+                .andExpect(jsonPath("$.code").value("CODE000001"))
+                .andExpect(jsonPath("$.priceEur").value(100.00))
+                .andExpect(jsonPath("$.priceUsd").doesNotExist())
+                .andExpect(jsonPath("$.available").doesNotExist());
+        Mockito.verify(service, Mockito.never()).priceConverter(any());
+    }
+
+    @Test
+    void testGetAllProducts_WritesOnlySelectedFields() throws Exception {
+        Product entity = getSampleEntity();
+        Mockito.when(service.catalogVersion()).thenReturn(new CatalogVersion(1, 1, 0));
+        Mockito.when(service.findAll()).thenReturn(List.of(entity));
+        Mockito.when(mapper.toDto(entity)).thenReturn(getSampleDto());
+
+        mockMvc.perform(get("/api/products").param("fields", "code"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].code").value("CODE000001"))
+                .andExpect(jsonPath("$[0].name").doesNotExist());
+    }
+
+    @Test
+    void testGetProductById_UnknownFieldReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/products/1").param("fields", "code,version"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").exists());
+        Mockito.verify(service, Mockito.never()).findById(any());
+    }
+
+    @Test
+    void testGetProductByCode() throws Exception {
+        ProductDto dto = getSampleDto();
+        Product entity = getSampleEntity();
+
+        Mockito.when(service.findByCode("1234567890")).thenReturn(entity);
+        Mockito.when(mapper.toDto(entity)).thenReturn(dto);
+
+        mockMvc.perform(get("/api/products/code/1234567890"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(dto.getName()));
+    }
+
+    @Test
+    void testGetProductByUnknownCode() throws Exception {
+        Mockito.when(service.findByCode("CODE000099"))
+                .thenThrow(new ProductNotFoundException("Product with code CODE000099 not found"));
+
+        mockMvc.perform(get("/api/products/code/CODE000099"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testGetAllProducts() throws Exception {
         ProductDto dto = getSampleDto();
@@ -97,6 +251,7 @@ public class ProductControllerTest {
         List<Product> entityList = List.of(entity);
         List<ProductDto> dtoList = List.of(dto);
 
+        Mockito.when(service.catalogVersion()).thenReturn(new CatalogVersion(1, 1, 0));
         Mockito.when(service.findAll()).thenReturn(entityList);
         Mockito.when(mapper.toDto(entity)).thenReturn(dto);
 
@@ -106,6 +261,306 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$[0].code").value(dto.getCode()));
     }
 
+    @Test
+    void testGetProductById_ReturnsETagAndCacheControl() throws Exception {
+        Product entity = getSampleEntity();
+        entity.setVersion(3);
+
+        Mockito.when(service.findById(1L)).thenReturn(entity);
+        Mockito.when(mapper.toDto(entity)).thenReturn(getSampleDto());
+
+        mockMvc.perform(get("/api/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3-0\""))
+                .andExpect(header().string("Cache-Control", "max-age=0, must-revalidate, public"));
+    }
+
+    @Test
+    void testGetProductById_NotModifiedWhenETagMatches() throws Exception {
+        Product entity = getSampleEntity();
+        ExchangeRateSnapshot snapshot = new ExchangeRateSnapshot(1L, Map.of("EUR", BigDecimal.ONE),
+                Instant.ofEpochMilli(0x1234));
+
+        Mockito.when(exchangeRateService.currentSnapshot()).thenReturn(Optional.of(snapshot));
+        Mockito.when(service.findById(1L)).thenReturn(entity);
+
+        String etag = "\"1-0-" + snapshot.getRatesTag() + "\"";
+        mockMvc.perform(get("/api/products/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(header().exists("Cache-Control"))
+                .andExpect(content().string(""));
+        Mockito.verify(mapper, Mockito.never()).toDto(any());
+    }
+
+    @Test
+    void testGetProductById_ModifiedAfterVersionOrRatesChange() throws Exception {
+        Product entity = getSampleEntity();
+        entity.setVersion(1);
+
+        Mockito.when(service.findById(1L)).thenReturn(entity);
+        Mockito.when(mapper.toDto(entity)).thenReturn(getSampleDto());
+
+        mockMvc.perform(get("/api/products/1").header("If-None-Match", "\"1-0-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-1-0\""));
+
+        ExchangeRateSnapshot snapshot = new ExchangeRateSnapshot(2L, Map.of("EUR", BigDecimal.ONE), Instant.ofEpochMilli(0xff));
+        Mockito.when(exchangeRateService.currentSnapshot()).thenReturn(Optional.of(snapshot));
+        mockMvc.perform(get("/api/products/1").header("If-None-Match", "\"1-1-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-1-" + snapshot.getRatesTag() + "\""));
+    }
+
+    @Test
+    void testGetProductById_NotModifiedAfterRefreshWithSameRates() throws Exception {
+        Product entity = getSampleEntity();
+        Mockito.when(service.findById(1L)).thenReturn(entity);
+        Mockito.when(mapper.toDto(entity)).thenReturn(getSampleDto());
+        Mockito.when(exchangeRateService.currentSnapshot()).thenReturn(Optional.of(new ExchangeRateSnapshot(1L,
+                Map.of("EUR", new BigDecimal("7.5"), "USD", new BigDecimal("6.5")), Instant.ofEpochMilli(1000))));
+
+        String etag = mockMvc.perform(get("/api/products/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Refreshed later (or fetched by another instance) with the same rates
+        Mockito.when(exchangeRateService.currentSnapshot()).thenReturn(Optional.of(new ExchangeRateSnapshot(7L,
+                Map.of("EUR", new BigDecimal("7.5000"), "USD", new BigDecimal("6.5000")), Instant.ofEpochMilli(250_000))));
+        mockMvc.perform(get("/api/products/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testGetAllProducts_NotModifiedUntilCatalogChanges() throws Exception {
+        Product entity = getSampleEntity();
+        Mockito.when(service.catalogVersion()).thenReturn(new CatalogVersion(1, 1, 0));
+        Mockito.when(service.findAll()).thenReturn(List.of(entity));
+        Mockito.when(mapper.toDto(any(Product.class))).thenReturn(getSampleDto());
+
+        String etag = mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        Mockito.clearInvocations(service);
+        mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        Mockito.verify(service, Mockito.never()).findAll();
+
+        Product added = getSampleEntity();
+        added.setId(2L);
+        Mockito.when(service.catalogVersion()).thenReturn(new CatalogVersion(2, 3, 0));
+        Mockito.when(service.findAll()).thenReturn(List.of(entity, added));
+        mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void testGetAllProducts_ServedFromCatalogSnapshot() throws Exception {
+        String json = "[" + objectMapper.writeValueAsString(getSampleDto()) + "]";
+        Mockito.when(catalogSnapshot.current()).thenReturn(Optional.of(catalogBody(json)));
+
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string(json))
+                .andExpect(header().string("ETag", "\"abc-1\""))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andExpect(header().doesNotExist("Content-Encoding"));
+
+        mockMvc.perform(get("/api/products").header("If-None-Match", "\"abc-1\""))
+                .andExpect(status().isNotModified());
+        Mockito.verify(service, Mockito.never()).findAll();
+    }
+
+    @Test
+    void testGetAllProducts_ServedGzippedFromCatalogSnapshot() throws Exception {
+        Mockito.when(catalogSnapshot.current()).thenReturn(Optional.of(catalogBody("[]")));
+
+        mockMvc.perform(get("/api/products").header("Accept-Encoding", "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("ETag", "\"abc-1-gzip\""));
+
+        mockMvc.perform(get("/api/products").header("Accept-Encoding", "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("[]"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReplaceProduct() throws Exception {
+        ProductDto dto = getSampleDto();
+        Product entity = getSampleEntity();
+
+        Mockito.when(service.update(eq(1L), isNull(), any(Consumer.class))).thenAnswer(invocation -> {
+            invocation.<Consumer<Product>>getArgument(2).accept(entity);
+            entity.setVersion(1);
+            return entity;
+        });
+        Mockito.when(mapper.toDto(entity)).thenReturn(dto);
+
+        mockMvc.perform(put("/api/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-1-0\""));
+
+        assertEquals(dto.getCode(), entity.getCode());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPatchProduct_ChangesOnlyFieldsPresent() throws Exception {
+        Product entity = getSampleEntity();
+        entity.setVersion(4);
+
+        Mockito.when(service.update(eq(1L), eq(Set.of(4L)), any(Consumer.class))).thenAnswer(invocation -> {
+            invocation.<Consumer<Product>>getArgument(2).accept(entity);
+            return entity;
+        });
+        Mockito.when(mapper.toDto(entity)).thenReturn(getSampleDto());
+
+        mockMvc.perform(patch("/api/products/1")
+                        .contentType("application/merge-patch+json")
+                        .header("If-Match", "\"1-4-1234\"")
+                        .content("{\"priceEur\": 12.50}"))
+                .andExpect(status().isOk());
+
+        assertEquals(new BigDecimal("12.50"), entity.getPriceEur());
+        assertEquals("Test Product", entity.getName());
+        assertEquals("1234567890", entity.getCode());
+        assertTrue(entity.isAvailable());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPatchProduct_StaleVersionReturnsPreconditionFailed() throws Exception {
+        Mockito.when(service.update(eq(1L), eq(Set.of(3L)), any(Consumer.class)))
+                .thenThrow(new ProductPreconditionFailedException("Product with ID 1 is at version 4, not [3]"));
+
+        mockMvc.perform(patch("/api/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "\"1-3-0\"")
+                        .content("{\"available\": false}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.message").value("Product with ID 1 is at version 4, not [3]"));
+    }
+
+    @Test
+    void testPatchProduct_IfMatchOfOtherProductReturnsPreconditionFailed() throws Exception {
+        mockMvc.perform(patch("/api/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "\"2-3-0\"")
+                        .content("{\"available\": false}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPatchProduct_IfMatchListAcceptsAnyOfItsVersions() throws Exception {
+        Product entity = getSampleEntity();
+        entity.setVersion(4);
+        Mockito.when(service.update(eq(1L), eq(Set.of(3L, 4L)), any(Consumer.class))).thenReturn(entity);
+        Mockito.when(mapper.toDto(entity)).thenReturn(getSampleDto());
+
+        mockMvc.perform(patch("/api/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "\"2-9-0\", \"1-3-0\", W/\"1-5-0\", \"1-4-1234\"")
+                        .content("{\"available\": false}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testPatchProduct_IfMatchNeverMatchesWeakTag() throws Exception {
+        mockMvc.perform(patch("/api/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "W/\"1-4-0\"")
+                        .content("{\"available\": false}"))
+                .andExpect(status().isPreconditionFailed());
+        Mockito.verifyNoInteractions(service);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPatchProduct_IfMatchWildcardAcceptsAnyVersion() throws Exception {
+        Product entity = getSampleEntity();
+        Mockito.when(service.update(eq(1L), isNull(), any(Consumer.class))).thenReturn(entity);
+        Mockito.when(mapper.toDto(entity)).thenReturn(getSampleDto());
+
+        mockMvc.perform(patch("/api/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "*")
+                        .content("{\"available\": false}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPatchProduct_ConcurrentUpdateReturnsConflict() throws Exception {
+        Mockito.when(service.update(eq(1L), isNull(), any(Consumer.class)))
+                .thenThrow(new ProductConflictException("Product with ID 1 was updated concurrently"));
+
+        mockMvc.perform(patch("/api/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"available\": false}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPatchProduct_TakenCodeReturnsConflict() throws Exception {
+        Mockito.when(service.update(eq(1L), isNull(), any(Consumer.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new RuntimeException("duplicate key value violates unique constraint \"product_code_key\"")));
+
+        mockMvc.perform(patch("/api/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"code\": \"CODE000002\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value(
+                        "Conflicts with existing data: duplicate key value violates unique constraint \"product_code_key\""));
+    }
+
+    @Test
+    void testPatchProduct_InvalidPriceReturnsBadRequest() throws Exception {
+        mockMvc.perform(patch("/api/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"priceEur\": -1}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSearchProducts_MapsSummariesAndCapsPageSize() throws Exception {
+        ProductSummary summary = new ProductSummary(1L, "CODE000001", "Test Product", new BigDecimal("100.00"), true);
+        ExchangeRateSnapshot snapshot = new ExchangeRateSnapshot(1L,
+                Map.of("EUR", new BigDecimal("7.5"), "USD", new BigDecimal("6.5")), Instant.now());
+
+        Mockito.when(service.search(any(), any())).thenAnswer(invocation ->
+                new SliceImpl<>(List.of(summary), invocation.getArgument(1), true));
+        Mockito.when(service.priceConverter(any()))
+                .thenAnswer(invocation -> snapshot.priceConverter(Currency.EUR, invocation.getArgument(0)));
+        Mockito.when(mapper.toDto(summary)).thenReturn(getSampleDto());
+
+        mockMvc.perform(get("/api/products/search")
+                        .param("available", "true")
+                        .param("minPrice", "10")
+                        .param("namePrefix", "Test")
+                        .param("sort", "priceEur,desc")
+                        .param("size", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].code").value("CODE000001"))
+                .andExpect(jsonPath("$.items[0].priceUsd").value(115.3846))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.size").value(1000));
+
+        Mockito.verify(service).search(
+                eq(new ProductSearchCriteria(true, new BigDecimal("10"), null, "Test")),
+                eq(PageRequest.of(0, 1000, Sort.by(Sort.Direction.DESC, "priceEur"))));
+    }
+
     @Test
     void testCreateProduct_InvalidName_ShouldReturnBadRequest() throws Exception {
         ProductDto invalidDto = getSampleDto();
@@ -140,4 +595,60 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.message").exists());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testGetProductPage() throws Exception {
+        ProductDto dto = getSampleDto();
+        Product entity = getSampleEntity();
+
+        Mockito.when(service.findPage(eq(null), eq(1))).thenReturn(List.of(entity));
+        Mockito.when(mapper.toDto(entity)).thenReturn(dto);
+
+        mockMvc.perform(get("/api/products").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].code").value(dto.getCode()))
+                .andExpect(jsonPath("$.nextCursor").value(ID));
+    }
+
+    @Test
+    void testGetProductPage_LastPageHasNoCursor() throws Exception {
+        ProductDto dto = getSampleDto();
+        Product entity = getSampleEntity();
+
+        Mockito.when(service.findPage(eq(ID), eq(10))).thenReturn(List.of(entity));
+        Mockito.when(mapper.toDto(entity)).thenReturn(dto);
+
+        mockMvc.perform(get("/api/products").param("after", "1").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamAllProducts_AsNdjson() throws Exception {
+        ProductDto dto = getSampleDto();
+        Product entity = getSampleEntity();
+
+        Mockito.doAnswer(invocation -> {
+            Consumer<List<Product>> consumer = invocation.getArgument(1);
+            consumer.accept(List.of(entity, entity));
+            return null;
+        }).when(service).forEachBatch(anyInt(), any(Consumer.class));
+        Mockito.when(mapper.toDto(entity)).thenReturn(dto);
+
+        MvcResult result = mockMvc.perform(get("/api/products").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String line = objectMapper.writeValueAsString(dto);
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(line + "\n" + line + "\n"));
+    }
+
+    private static ProductCatalogSnapshot.Body catalogBody(String json) {
+        return new ProductCatalogSnapshot.Body(json.getBytes(StandardCharsets.UTF_8), true, "abc-1", "0", 1);
+    }
+}
@@ -25,7 +25,6 @@ class ProductMapperTest {
         product.setCode("CODE000001");
         product.setName("Test Product");
         product.setPriceEur(BigDecimal.valueOf(10.99));
-        product.setPriceUsd(BigDecimal.valueOf(11.99));
         product.setAvailable(true);
 
         ProductDto dto = mapper.toDto(product);
@@ -34,7 +33,7 @@ class ProductMapperTest {
         assertEquals("CODE000001", dto.getCode());
         assertEquals("Test Product", dto.getName());
         assertEquals(BigDecimal.valueOf(10.99), dto.getPriceEur());
-        assertEquals(BigDecimal.valueOf(11.99), dto.getPriceUsd());
+        assertNull(dto.getPriceUsd());
         assertTrue(dto.isAvailable());
     }
 
@@ -50,7 +49,6 @@ class ProductMapperTest {
                 .code("CODE000001")
                 .name("Another Product")
                 .priceEur(BigDecimal.valueOf(20.0))
-                .priceUsd(BigDecimal.valueOf(21.0))
                 .isAvailable(false)
                 .build();
 
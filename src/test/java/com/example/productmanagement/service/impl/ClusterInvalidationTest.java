@@ -0,0 +1,167 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.event.CachesClearedEvent;
+import com.example.productmanagement.event.ExchangeRatesChangedEvent;
+import com.example.productmanagement.event.ProductSavedEvent;
+import com.example.productmanagement.event.ProductsChangedEvent;
+import com.example.productmanagement.service.InvalidationBus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ClusterInvalidationTest {
+
+    private InProcessInvalidationBus bus;
+    private ApplicationEventPublisher firstPublisher;
+    private ApplicationEventPublisher secondPublisher;
+    private ClusterInvalidation first;
+    private ClusterInvalidation second;
+
+    @BeforeEach
+    void setUp() {
+        // Two instances sharing one bus
+        bus = new InProcessInvalidationBus();
+        firstPublisher = mock(ApplicationEventPublisher.class);
+        secondPublisher = mock(ApplicationEventPublisher.class);
+        first = new ClusterInvalidation(bus, firstPublisher, new ObjectMapper());
+        second = new ClusterInvalidation(bus, secondPublisher, new ObjectMapper());
+        first.subscribe();
+        second.subscribe();
+    }
+
+    @Test
+    void onProductsChanged_shouldReachOtherInstancesOnly() {
+        // Act
+        first.onProductsChanged(new ProductsChangedEvent(List.of(1L, 2L), List.of("CODE000001")));
+
+        // Assert
+        verify(secondPublisher).publishEvent(new ProductsChangedEvent(List.of(1L, 2L), List.of("CODE000001"), true));
+        verifyNoInteractions(firstPublisher);
+        assertEquals(1, first.getSent());
+        assertEquals(1, second.getReceived());
+        assertEquals(0, first.getReceived());
+    }
+
+    @Test
+    void onProductsChanged_shouldNotSendRemoteChangesOn() {
+        // Act
+        first.onProductsChanged(new ProductsChangedEvent(List.of(1L), List.of(), true));
+
+        // Assert
+        verifyNoInteractions(secondPublisher);
+        assertEquals(0, first.getSent());
+    }
+
+    @Test
+    void onProductSaved_shouldEvictProductAndCodesElsewhere() {
+        // Act
+        first.onProductSaved(new ProductSavedEvent(7L, List.of("CODE000001", "CODE000002")));
+
+        // Assert
+        verify(secondPublisher).publishEvent(
+                new ProductsChangedEvent(List.of(7L), List.of("CODE000001", "CODE000002"), true));
+    }
+
+    @Test
+    void onProductsChanged_shouldSplitChangesTooLargeForOneNotification() {
+        // Arrange
+        List<Long> ids = IntStream.range(0, 2000).mapToObj(i -> 1_000_000_000L + i).toList();
+        List<String> codes = IntStream.range(0, 2000).mapToObj(i -> String.format("CODE%06d", i)).toList();
+        List<String> payloads = new ArrayList<>();
+        bus.subscribe(payloads::add);
+
+        // Act
+        first.onProductsChanged(new ProductsChangedEvent(ids, codes));
+
+        // Assert
+        assertTrue(payloads.size() > 2);
+        payloads.forEach(payload ->
+                assertTrue(payload.getBytes(StandardCharsets.UTF_8).length <= ClusterInvalidation.MAX_PAYLOAD_BYTES));
+        ArgumentCaptor<ProductsChangedEvent> events = ArgumentCaptor.forClass(ProductsChangedEvent.class);
+        verify(secondPublisher, times(payloads.size())).publishEvent(events.capture());
+        Set<Long> receivedIds = new HashSet<>();
+        Set<String> receivedCodes = new HashSet<>();
+        events.getAllValues().forEach(event -> {
+            assertTrue(event.remote());
+            receivedIds.addAll(event.ids());
+            receivedCodes.addAll(event.codes());
+        });
+        assertEquals(Set.copyOf(ids), receivedIds);
+        assertEquals(Set.copyOf(codes), receivedCodes);
+    }
+
+    @Test
+    void onCachesCleared_shouldClearSameCacheElsewhere() {
+        // Act
+        first.onCachesCleared(new CachesClearedEvent("exchangeRates", false));
+        first.onCachesCleared(new CachesClearedEvent(null, false));
+
+        // Assert
+        verify(secondPublisher).publishEvent(new CachesClearedEvent("exchangeRates", true));
+        verify(secondPublisher).publishEvent(new CachesClearedEvent(null, true));
+    }
+
+    @Test
+    void onExchangeRatesChanged_shouldAnnounceRefreshAndClear() {
+        // Act
+        first.onExchangeRatesChanged(new ExchangeRatesChangedEvent(false, false));
+        first.onExchangeRatesChanged(new ExchangeRatesChangedEvent(true, false));
+        first.onExchangeRatesChanged(new ExchangeRatesChangedEvent(false, true));
+
+        // Assert
+        verify(secondPublisher).publishEvent(new ExchangeRatesChangedEvent(false, true));
+        verify(secondPublisher).publishEvent(new ExchangeRatesChangedEvent(true, true));
+        verify(secondPublisher, times(2)).publishEvent(any(ExchangeRatesChangedEvent.class));
+    }
+
+    @Test
+    void reconnect_shouldClearAllCachesLocally() {
+        // Act
+        bus.reconnected();
+
+        // Assert
+        verify(firstPublisher).publishEvent(new CachesClearedEvent(null, true));
+        verify(secondPublisher).publishEvent(new CachesClearedEvent(null, true));
+    }
+
+    @Test
+    void send_shouldCountFailureWithoutFailingTheCaller() {
+        // Arrange
+        InvalidationBus failingBus = mock(InvalidationBus.class);
+        doThrow(new DataAccessResourceFailureException("Database down")).when(failingBus).publish(anyString());
+        ClusterInvalidation invalidation = new ClusterInvalidation(failingBus, firstPublisher, new ObjectMapper());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        invalidation.bindTo(registry);
+
+        // Act
+        invalidation.onProductsChanged(new ProductsChangedEvent(List.of(1L), List.of()));
+
+        // Assert
+        assertEquals(1, registry.get("cluster.invalidation.failures").functionCounter().count());
+        assertEquals(0, registry.get("cluster.invalidation.messages").tag("direction", "sent").functionCounter().count());
+    }
+
+    @Test
+    void receive_shouldIgnoreUnreadableMessages() {
+        // Act
+        bus.publish("not json");
+
+        // Assert
+        verifyNoInteractions(firstPublisher, secondPublisher);
+        assertEquals(1, first.getFailed());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.exception.ExchangeRateUnavailableException;
+import com.example.productmanagement.model.ExchangeRateSnapshot;
+import com.example.productmanagement.service.ExchangeRateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ExchangeRateRefresherTest {
+
+    private static final Instant NOW = Instant.parse("2024-04-01T10:00:00Z");
+
+    private ExchangeRateService exchangeRateService;
+    private ExchangeRateRefresher refresher;
+
+    @BeforeEach
+    void setUp() {
+        exchangeRateService = mock(ExchangeRateService.class);
+        refresher = new ExchangeRateRefresher(exchangeRateService, true, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void refresh_shouldCountSuccess() {
+        refresher.refresh();
+
+        verify(exchangeRateService).refreshSnapshot();
+        assertEquals(1, refresher.getRefreshSuccesses());
+        assertEquals(0, refresher.getRefreshFailures());
+    }
+
+    @Test
+    void refresh_shouldCountFailureAndNotPropagate() {
+        when(exchangeRateService.refreshSnapshot()).thenThrow(new ExchangeRateUnavailableException("HNB API is down"));
+
+        assertDoesNotThrow(() -> refresher.refresh());
+
+        assertEquals(0, refresher.getRefreshSuccesses());
+        assertEquals(1, refresher.getRefreshFailures());
+    }
+
+    @Test
+    void refresh_shouldDoNothingWhenDisabled() {
+        ExchangeRateRefresher disabled = new ExchangeRateRefresher(exchangeRateService, false, Clock.systemUTC());
+
+        disabled.refresh();
+
+        verifyNoInteractions(exchangeRateService);
+    }
+
+    @Test
+    void snapshotAge_shouldBeMeasuredFromFetchTime() {
+        ExchangeRateSnapshot snapshot = new ExchangeRateSnapshot(1L, Map.of("EUR", BigDecimal.ONE), NOW.minusSeconds(90));
+        when(exchangeRateService.currentSnapshot()).thenReturn(Optional.of(snapshot));
+
+        assertEquals(90.0, refresher.snapshotAgeSeconds());
+    }
+
+    @Test
+    void snapshotAge_shouldBeNaNWithoutSnapshot() {
+        when(exchangeRateService.currentSnapshot()).thenReturn(Optional.empty());
+
+        assertTrue(Double.isNaN(refresher.snapshotAgeSeconds()));
+    }
+}
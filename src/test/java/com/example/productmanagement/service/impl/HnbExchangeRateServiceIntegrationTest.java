@@ -2,178 +2,196 @@ package com.example.productmanagement.service.impl;
 
 import com.example.productmanagement.exception.ExchangeRateUnavailableException;
 import com.example.productmanagement.service.ExchangeRateService;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
-import org.springframework.http.MediaType;
-import org.springframework.test.annotation.DirtiesContext;
-import org.springframework.test.web.client.MockRestServiceServer;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
 
 import static com.example.productmanagement.model.Currency.EUR;
 import static com.example.productmanagement.model.Currency.USD;
 import static org.junit.jupiter.api.Assertions.*;
-import static org.springframework.test.web.client.ExpectedCount.once;
-import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
-import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 
-@SpringBootTest
-//@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+// The application's HNB client over HTTP against HnbStubServer, wired through hnb.client.base-url
+@SpringBootTest(properties = {"hnb.rates.refresh.enabled=false", "hnb.client.read-timeout=500ms"})
 class HnbExchangeRateServiceIntegrationTest {
 
-    // URL Constants
-    private static final String EUR_API_URL = "https://api.hnb.hr/tecajn/v2?valuta=EUR";
-    private static final String USD_API_URL = "https://api.hnb.hr/tecajn/v2?valuta=USD";
+    private static final HnbStubServer hnb = startStub();
 
-    // JSON Response Constants
-    private static final String EUR_SUCCESS_RESPONSE = "[{\"valuta\":\"EUR\",\"srednji_tecaj\":\"7,5345\"}]";
-    private static final String USD_SUCCESS_RESPONSE = "[{\"valuta\":\"USD\",\"srednji_tecaj\":\"6,6350\"}]";
-    private static final String EMPTY_RESPONSE = "[]";
-    private static final String INVALID_FORMAT_RESPONSE = "[{\"valuta\":\"USD\",\"srednji_tecaj\":\"abc\"}]";
-
-    // Expected Values Constants
-    private static final BigDecimal EXPECTED_EUR_RATE = new BigDecimal("7.5345");
-    private static final BigDecimal EXPECTED_USD_RATE = new BigDecimal("6.6350");
+    // Expected Values Constants, as served by the stub
+    private static final BigDecimal EXPECTED_EUR_RATE = new BigDecimal("7.534500");
+    private static final BigDecimal EXPECTED_USD_RATE = new BigDecimal("6.635000");
     private static final BigDecimal TEST_EUR_AMOUNT = new BigDecimal("10");
 
     // Error Message Constants
-    private static final String EXCHANGE_RATE_NOT_FOUND_MESSAGE = "Exchange rate not found";
+    private static final String EXCHANGE_RATE_NOT_FOUND_MESSAGE = "No exchange rate for XYZ";
     private static final String INVALID_EXCHANGE_RATE_FORMAT_MESSAGE = "Invalid exchange rate format.";
 
     @Autowired
     private ExchangeRateService exchangeRateService;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private HnbExchangeRateService hnbExchangeRateService;
 
     @Autowired
     private CaffeineCacheManager cacheManager;
 
+    @DynamicPropertySource
+    static void hnbProperties(DynamicPropertyRegistry registry) {
+        registry.add("hnb.client.base-url", hnb::baseUrl);
+    }
 
-    private MockRestServiceServer mockServer;
+    @AfterAll
+    static void stopStub() {
+        hnb.close();
+    }
 
     @BeforeEach
     void setUp() {
-        mockServer = MockRestServiceServer.createServer(restTemplate);
+        hnb.setFaults(HnbStubServer.Faults.NONE);
 
         cacheManager.getCache("exchangeRates").clear();
-        cacheManager.getCache( "eurToUsd").clear();
-
+        hnbExchangeRateService.clearAllCaches();
     }
 
-
     @Test
     void testGetEurRate_Success() {
-        // Arrange
-        mockServer.expect(once(), requestTo(EUR_API_URL))
-                .andRespond(withSuccess(EUR_SUCCESS_RESPONSE, MediaType.APPLICATION_JSON));
-
         // Act
         BigDecimal rate = exchangeRateService.getExchangeRate(EUR.name());
 
         // Assert
         assertEquals(EXPECTED_EUR_RATE, rate);
-        mockServer.verify();
     }
 
     @Test
     void testGetUsdRate_Success() {
-        // Arrange
-        mockServer.expect(once(), requestTo(USD_API_URL))
-                .andRespond(withSuccess(USD_SUCCESS_RESPONSE, MediaType.APPLICATION_JSON));
-
         // Act
         BigDecimal rate = exchangeRateService.getExchangeRate(USD.name());
 
         // Assert
         assertEquals(EXPECTED_USD_RATE, rate);
-        mockServer.verify();
     }
 
     @Test
     void testConvertEurToUsd_Success() {
         // Arrange
-        mockServer.expect(once(), requestTo(USD_API_URL))
-                .andRespond(withSuccess(USD_SUCCESS_RESPONSE, MediaType.APPLICATION_JSON));
-
-        mockServer.expect(once(), requestTo(EUR_API_URL))
-                .andRespond(withSuccess(EUR_SUCCESS_RESPONSE, MediaType.APPLICATION_JSON));
-
         BigDecimal expectedUsd = TEST_EUR_AMOUNT.multiply(EXPECTED_EUR_RATE)
-                .divide(EXPECTED_USD_RATE, 4, BigDecimal.ROUND_HALF_UP);
+                .divide(EXPECTED_USD_RATE, 4, RoundingMode.HALF_UP);
 
         // Act
         BigDecimal actualUsd = exchangeRateService.convertEurToUsd(TEST_EUR_AMOUNT);
 
         // Assert
         assertEquals(expectedUsd, actualUsd);
-        mockServer.verify();
     }
 
     @Test
-    void testGetEurRate_ThrowsExceptionWhenResponseIsEmpty() {
-        // Arrange
-        mockServer.expect(once(), requestTo(EUR_API_URL))
-                .andRespond(withSuccess(EMPTY_RESPONSE, MediaType.APPLICATION_JSON));
-
+    void testGetExchangeRate_ThrowsExceptionWhenCurrencyNotListed() {
         // Act & Assert
         ExchangeRateUnavailableException ex = assertThrows(ExchangeRateUnavailableException.class,
-                () -> exchangeRateService.getExchangeRate(EUR.name()));
+                () -> exchangeRateService.getExchangeRate("XYZ"));
 
         assertTrue(ex.getMessage().contains(EXCHANGE_RATE_NOT_FOUND_MESSAGE));
-        mockServer.verify();
     }
 
     @Test
-    void testGetUsdRate_ThrowsExceptionWhenInvalidFormat() {
+    void testGetExchangeRate_HandlesZeroAmount() {
+        // Act
+        BigDecimal result = exchangeRateService.convertEurToUsd(BigDecimal.ZERO);
+
+        // Assert
+        assertEquals(BigDecimal.ZERO.setScale(4), result);
+    }
+
+    @Test
+    void testConvertEurToUsd_ReusesSnapshotForDistinctPrices() {
         // Arrange
-        mockServer.expect(once(), requestTo(USD_API_URL))
-                .andRespond(withSuccess(INVALID_FORMAT_RESPONSE, MediaType.APPLICATION_JSON));
+        long requestsBefore = hnb.requests();
+
+        // Act
+        exchangeRateService.convertEurToUsd(TEST_EUR_AMOUNT);
+        exchangeRateService.convertEurToUsd(TEST_EUR_AMOUNT.add(BigDecimal.ONE));
+
+        // Assert
+        assertTrue(exchangeRateService.currentSnapshot().isPresent());
+        assertEquals(requestsBefore + 1, hnb.requests());
+    }
+
+    @Test
+    void testGetUsdRate_ThrowsExceptionWhenRateMalformed() {
+        // Arrange
+        hnb.setFaults(HnbStubServer.Faults.NONE.withMalformedRate(1));
 
         // Act & Assert
         ExchangeRateUnavailableException ex = assertThrows(ExchangeRateUnavailableException.class,
                 () -> exchangeRateService.getExchangeRate(USD.name()));
 
-        assertTrue(ex.getMessage().contains(INVALID_EXCHANGE_RATE_FORMAT_MESSAGE));
-        System.out.println(ex.getMessage());
-        mockServer.verify();
+        assertTrue(ex.getMessage().contains(INVALID_EXCHANGE_RATE_FORMAT_MESSAGE), ex.getMessage());
     }
 
     @Test
-    void testGetEurRate_ThrowsExceptionWhenMissingRateField() {
+    void testGetEurRate_ThrowsExceptionWhenHnbFails() {
         // Arrange
-        String responseWithoutRate = "[{\"valuta\":\"EUR\"}]";
-
-        mockServer.expect(once(), requestTo(EUR_API_URL))
-                .andRespond(withSuccess(responseWithoutRate, MediaType.APPLICATION_JSON));
+        long errorsBefore = hnb.errors();
+        hnb.setFaults(HnbStubServer.Faults.NONE.withErrorRate(1));
 
         // Act & Assert
-        ExchangeRateUnavailableException ex = assertThrows(ExchangeRateUnavailableException.class,
-                () -> exchangeRateService.getExchangeRate(EUR.name()));
-
-        assertTrue(ex.getMessage().contains(EXCHANGE_RATE_NOT_FOUND_MESSAGE));
-        mockServer.verify();
+        assertThrows(ExchangeRateUnavailableException.class, () -> exchangeRateService.getExchangeRate(EUR.name()));
+        assertEquals(errorsBefore + 1, hnb.errors());
     }
 
+    @Test
+    void testGetEurRate_ServesSnapshotWhileHnbFails() {
+        // Arrange
+        exchangeRateService.getExchangeRate(EUR.name());
+        hnb.setFaults(HnbStubServer.Faults.NONE.withErrorRate(1));
+
+        // Act
+        BigDecimal rate = exchangeRateService.getExchangeRate(EUR.name());
+
+        // Assert
+        assertEquals(EXPECTED_EUR_RATE, rate);
+    }
 
     @Test
-    void testGetExchangeRate_HandlesZeroAmount() {
+    void testGetEurRate_FailsAfterReadTimeoutWhenHnbDoesNotAnswer() {
         // Arrange
-        mockServer.expect(once(), requestTo(USD_API_URL))
-                .andRespond(withSuccess(USD_SUCCESS_RESPONSE, MediaType.APPLICATION_JSON));
+        hnb.setFaults(HnbStubServer.Faults.NONE.withTimeoutRate(1).withTimeout(Duration.ofSeconds(10)));
+        long start = System.nanoTime();
 
-        mockServer.expect(once(), requestTo(EUR_API_URL))
-                .andRespond(withSuccess(EUR_SUCCESS_RESPONSE, MediaType.APPLICATION_JSON));
+        // Act & Assert
+        assertThrows(ExchangeRateUnavailableException.class, () -> exchangeRateService.getExchangeRate(EUR.name()));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+    }
+
+    @Test
+    void testGetEurRate_WaitsForSlowHnb() {
+        // Arrange
+        hnb.setFaults(HnbStubServer.Faults.NONE.withLatency(Duration.ofMillis(100), Duration.ofMillis(100)));
+        long start = System.nanoTime();
 
         // Act
-        BigDecimal result = exchangeRateService.convertEurToUsd(BigDecimal.ZERO);
+        BigDecimal rate = exchangeRateService.getExchangeRate(EUR.name());
 
         // Assert
-        assertEquals(BigDecimal.ZERO.setScale(4), result);
-        mockServer.verify();
+        assertEquals(EXPECTED_EUR_RATE, rate);
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofMillis(100)) >= 0);
+    }
+
+    private static HnbStubServer startStub() {
+        try {
+            return HnbStubServer.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,91 +1,141 @@
 package com.example.productmanagement.service.impl;
 
+import com.example.productmanagement.configuration.HnbClientProperties;
+import com.example.productmanagement.event.ExchangeRatesChangedEvent;
 import com.example.productmanagement.exception.ExchangeRateUnavailableException;
+import com.example.productmanagement.model.Currency;
+import com.example.productmanagement.model.CurrencyPrices;
+import com.example.productmanagement.model.ExchangeRateSnapshot;
+import com.example.productmanagement.repo.ExchangeRateSnapshotRepository;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.web.client.RestClientException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.productmanagement.model.Currency.CHF;
 import static com.example.productmanagement.model.Currency.EUR;
+import static com.example.productmanagement.model.Currency.GBP;
+import static com.example.productmanagement.model.Currency.JPY;
 import static com.example.productmanagement.model.Currency.USD;
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 
-@ExtendWith(MockitoExtension.class)
 class HnbExchangeRateServiceUnitTest {
 
-    @Mock
-    private RestTemplate restTemplate;
+    private static final String RATES_URL = "https://api.hnb.hr/tecajn/v2";
 
-    @InjectMocks
+    private RestTemplate restTemplate;
+    private MockRestServiceServer mockServer;
     private HnbExchangeRateService exchangeRateService;
 
+    @BeforeEach
+    void setUp() {
+        restTemplate = new RestTemplate();
+        mockServer = MockRestServiceServer.bindTo(restTemplate).build();
+        exchangeRateService = new HnbExchangeRateService(restTemplate, mock(ExchangeRateSnapshotRepository.class), mock(ApplicationEventPublisher.class),
+                new HnbClientProperties());
+    }
+
     @Test
     void getEurRate_ReturnsCorrectRate() {
         // Arrange
-        Map<String, Object> mockResponse = Map.of("srednji_tecaj", "7,1234");
-        Map[] responseArray = new Map[] { mockResponse };
-
-        when(restTemplate.getForObject(eq("https://api.hnb.hr/tecajn/v2?valuta=EUR"), eq(Map[].class)))
-                .thenReturn(responseArray);
+        expectRates(rates("7,1234", "6,9876"));
 
         // Act
         BigDecimal rate = exchangeRateService.getExchangeRate(EUR.name());
 
         // Assert
         assertEquals(new BigDecimal("7.1234"), rate);
-        verify(restTemplate, times(1)).getForObject(eq("https://api.hnb.hr/tecajn/v2?valuta=EUR"), eq(Map[].class));
+        mockServer.verify();
     }
 
     @Test
     void getUsdRate_ReturnsCorrectRate() {
         // Arrange
-        Map<String, Object> mockResponse = Map.of("srednji_tecaj", "6,9876");
-        Map[] responseArray = new Map[] { mockResponse };
+        expectRates(rates("7,1234", "6,9876"));
 
-        System.out.println("Setting up mock for USD rate test");
+        // Act
+        BigDecimal rate = exchangeRateService.getExchangeRate(USD.name());
 
-        when(restTemplate.getForObject(anyString(), eq(Map[].class))).thenReturn(responseArray);
+        // Assert
+        assertEquals(new BigDecimal("6.9876"), rate);
+        mockServer.verify();
+    }
+
+    @Test
+    void getExchangeRate_CallsConfiguredBaseUrl() {
+        // Arrange
+        HnbClientProperties clientProperties = new HnbClientProperties();
+        clientProperties.setBaseUrl("http://localhost:8089/hnb/");
+        exchangeRateService = new HnbExchangeRateService(restTemplate, mock(ExchangeRateSnapshotRepository.class), event -> {
+        }, clientProperties);
+        mockServer.expect(once(), requestTo("http://localhost:8089/hnb/tecajn/v2"))
+                .andRespond(withSuccess(rates("7,1234", "6,9876"), MediaType.APPLICATION_JSON));
 
         // Act
-        System.out.println("Calling getExchangeRate for USD");
         BigDecimal rate = exchangeRateService.getExchangeRate(USD.name());
 
         // Assert
         assertEquals(new BigDecimal("6.9876"), rate);
-        verify(restTemplate, times(1)).getForObject(contains("valuta=USD"), eq(Map[].class));
+        mockServer.verify();
     }
 
     @Test
-    void debugMockSetup() {
-        Map<String, Object> mockResponse = Map.of("srednji_tecaj", "7,1234");
-        Map[] responseArray = new Map[] { mockResponse };
+    void getExchangeRate_FillsWholeRateTableWithOneRequest() {
+        // Arrange
+        expectRates(rates("7,1234", "6,9876"));
 
-        System.out.println("Mock response: " + java.util.Arrays.toString(responseArray));
-        System.out.println("Response[0]: " + responseArray[0]);
-        System.out.println("MID_MARKET_EXCHANGE_RATE value: " + responseArray[0].get("srednji_tecaj"));
+        // Act
+        BigDecimal eurRate = exchangeRateService.getExchangeRate(EUR.name());
+        BigDecimal usdRate = exchangeRateService.getExchangeRate(USD.name());
 
-        when(restTemplate.getForObject(eq("https://api.hnb.hr/tecajn/v2?valuta=EUR"), eq(Map[].class)))
-                .thenReturn(responseArray);
+        // Assert
+        assertEquals(new BigDecimal("7.1234"), eurRate);
+        assertEquals(new BigDecimal("6.9876"), usdRate);
+        mockServer.verify();
+    }
 
-        // Test
-        BigDecimal rate = exchangeRateService.getExchangeRate("EUR");
-        assertEquals(new BigDecimal("7.1234"), rate);
+    @Test
+    void getExchangeRate_DividesRatesQuotedPerUnit() {
+        // Arrange
+        expectRates(rates("7,5000", "6,5000"));
+
+        // Act
+        BigDecimal rate = exchangeRateService.getExchangeRate("JPY");
+
+        // Assert
+        assertEquals(new BigDecimal("0.052960"), rate);
     }
 
     @Test
     void getEurRate_ThrowsExceptionWhenResponseIsNull() {
         // Arrange
-        when(restTemplate.getForObject(anyString(), eq(Map[].class))).thenReturn(null);
+        expectRates("");
 
         // Act & Assert
         ExchangeRateUnavailableException exception = assertThrows(ExchangeRateUnavailableException.class,
@@ -97,10 +147,19 @@ class HnbExchangeRateServiceUnitTest {
     @Test
     void getUsdRate_ThrowsExceptionWhenRateMissing() {
         // Arrange
-        Map<String, Object> mockResponse = Map.of();
-        Map[] responseArray = new Map[] { mockResponse };
+        expectRates(rates("7,5000", "6,5000").replace(entry("USD", 1, "6,5000"), "{\"valuta\":\"USD\",\"jedinica\":1}"));
+
+        // Act & Assert
+        ExchangeRateUnavailableException exception = assertThrows(ExchangeRateUnavailableException.class,
+                () -> exchangeRateService.getExchangeRate(USD.name()));
 
-        when(restTemplate.getForObject(anyString(), eq(Map[].class))).thenReturn(responseArray);
+        assertTrue(exception.getMessage().contains("Exchange rate not found"));
+    }
+
+    @Test
+    void getUsdRate_ThrowsExceptionWhenCurrencyMissingFromList() {
+        // Arrange
+        expectRates(rates("7,5000", "6,5000").replace(entry("USD", 1, "6,5000") + ",", ""));
 
         // Act & Assert
         ExchangeRateUnavailableException exception = assertThrows(ExchangeRateUnavailableException.class,
@@ -112,10 +171,7 @@ class HnbExchangeRateServiceUnitTest {
     @Test
     void getUsdRate_ThrowsExceptionWhenRateFormatInvalid() {
         // Arrange
-        Map<String, Object> mockResponse = Map.of("srednji_tecaj", "abc");
-        Map[] responseArray = new Map[] { mockResponse };
-
-        when(restTemplate.getForObject(anyString(), eq(Map[].class))).thenReturn(responseArray);
+        expectRates(rates("7,5000", "abc"));
 
         // Act & Assert
         ExchangeRateUnavailableException exception = assertThrows(ExchangeRateUnavailableException.class,
@@ -124,11 +180,22 @@ class HnbExchangeRateServiceUnitTest {
         assertTrue(exception.getMessage().contains("Invalid exchange rate format"));
     }
 
+    @Test
+    void getExchangeRate_ThrowsExceptionWhenResponseIsMalformed() {
+        // Arrange
+        expectRates("[{\"valuta\":\"EUR\",");
+
+        // Act & Assert
+        ExchangeRateUnavailableException exception = assertThrows(ExchangeRateUnavailableException.class,
+                () -> exchangeRateService.getExchangeRate(EUR.name()));
+
+        assertTrue(exception.getMessage().contains("Invalid HNB API response"));
+    }
+
     @Test
     void getEurRate_ThrowsExceptionOnRestClientException() {
         // Arrange
-        when(restTemplate.getForObject(anyString(), eq(Map[].class)))
-                .thenThrow(new RestClientException("Connection error"));
+        mockServer.expect(once(), requestTo(RATES_URL)).andRespond(withServerError());
 
         // Act & Assert
         ExchangeRateUnavailableException exception = assertThrows(ExchangeRateUnavailableException.class,
@@ -140,8 +207,7 @@ class HnbExchangeRateServiceUnitTest {
     @Test
     void getExchangeRate_ThrowsExceptionWhenResponseArrayIsEmpty() {
         // Arrange
-        Map[] emptyResponseArray = new Map[0];
-        when(restTemplate.getForObject(anyString(), eq(Map[].class))).thenReturn(emptyResponseArray);
+        expectRates("[]");
 
         // Act & Assert
         ExchangeRateUnavailableException exception = assertThrows(ExchangeRateUnavailableException.class,
@@ -153,13 +219,7 @@ class HnbExchangeRateServiceUnitTest {
     @Test
     void convertEurToUsd_ReturnsCorrectValue() {
         // Arrange
-        Map<String, Object> usdResponse = Map.of("srednji_tecaj", "6,5000");
-        Map<String, Object> eurResponse = Map.of("srednji_tecaj", "7,5000");
-
-        when(restTemplate.getForObject(contains("valuta=USD"), eq(Map[].class)))
-                .thenReturn(new Map[]{usdResponse});
-        when(restTemplate.getForObject(contains("valuta=EUR"), eq(Map[].class)))
-                .thenReturn(new Map[]{eurResponse});
+        expectRates(rates("7,5000", "6,5000"));
 
         BigDecimal priceEur = new BigDecimal("10");
         BigDecimal expectedUsd = priceEur.multiply(new BigDecimal("7.5000"))
@@ -170,20 +230,13 @@ class HnbExchangeRateServiceUnitTest {
 
         // Assert
         assertEquals(expectedUsd, actualUsd);
-        verify(restTemplate, times(1)).getForObject(contains("valuta=USD"), eq(Map[].class));
-        verify(restTemplate, times(1)).getForObject(contains("valuta=EUR"), eq(Map[].class));
+        mockServer.verify();
     }
 
     @Test
     void convertEurToUsd_HandlesZeroAmount() {
         // Arrange
-        Map<String, Object> usdResponse = Map.of("srednji_tecaj", "6,5000");
-        Map<String, Object> eurResponse = Map.of("srednji_tecaj", "7,5000");
-
-        when(restTemplate.getForObject(contains("valuta=USD"), eq(Map[].class)))
-                .thenReturn(new Map[]{usdResponse});
-        when(restTemplate.getForObject(contains("valuta=EUR"), eq(Map[].class)))
-                .thenReturn(new Map[]{eurResponse});
+        expectRates(rates("7,5000", "6,5000"));
 
         // Act
         BigDecimal result = exchangeRateService.convertEurToUsd(BigDecimal.ZERO);
@@ -195,10 +248,7 @@ class HnbExchangeRateServiceUnitTest {
     @Test
     void getExchangeRate_HandlesCommaToDecimalConversion() {
         // Arrange
-        Map<String, Object> mockResponse = Map.of("srednji_tecaj", "1,234567");
-        Map[] responseArray = new Map[] { mockResponse };
-
-        when(restTemplate.getForObject(anyString(), eq(Map[].class))).thenReturn(responseArray);
+        expectRates(rates("1,234567", "6,5000"));
 
         // Act
         BigDecimal rate = exchangeRateService.getExchangeRate(EUR.name());
@@ -206,4 +256,363 @@ class HnbExchangeRateServiceUnitTest {
         // Assert
         assertEquals(new BigDecimal("1.234567"), rate);
     }
-}
\ No newline at end of file
+
+    @Test
+    void convertEurToUsd_ServesFromSnapshotAfterFirstLoad() {
+        // Arrange
+        expectRates(rates("7,5000", "6,5000"));
+
+        // Act
+        exchangeRateService.convertEurToUsd(new BigDecimal("10"));
+        exchangeRateService.convertEurToUsd(new BigDecimal("20"));
+        exchangeRateService.convertEurToUsd(new BigDecimal("30"));
+
+        // Assert
+        mockServer.verify();
+    }
+
+    @Test
+    void refreshSnapshot_SwapsInNewRates() {
+        // Arrange
+        expectRates(rates("7,5000", "6,5000"));
+        expectRates(rates("7,5000", "5,0000"));
+
+        // Act
+        ExchangeRateSnapshot first = exchangeRateService.refreshSnapshot();
+        ExchangeRateSnapshot second = exchangeRateService.refreshSnapshot();
+
+        // Assert
+        assertTrue(second.getId() > first.getId());
+        assertSame(second, exchangeRateService.currentSnapshot().orElseThrow());
+        assertEquals(new BigDecimal("15.0000"), exchangeRateService.convertEurToUsd(new BigDecimal("10")));
+    }
+
+    @Test
+    void refreshSnapshot_KeepsPreviousSnapshotWhenHnbFails() {
+        // Arrange
+        expectRates(rates("7,5000", "6,5000"));
+        mockServer.expect(once(), requestTo(RATES_URL)).andRespond(withServerError());
+        ExchangeRateSnapshot first = exchangeRateService.refreshSnapshot();
+
+        // Act & Assert
+        assertThrows(ExchangeRateUnavailableException.class, () -> exchangeRateService.refreshSnapshot());
+        assertSame(first, exchangeRateService.currentSnapshot().orElseThrow());
+    }
+
+    @Test
+    void refreshSnapshot_KeepsPreviousSnapshotWhenRateMalformed() {
+        // Arrange
+        expectRates(rates("7,5000", "6,5000"));
+        expectRates(rates("7,5000", "6.5.0"));
+        ExchangeRateSnapshot first = exchangeRateService.refreshSnapshot();
+
+        // Act & Assert
+        assertThrows(ExchangeRateUnavailableException.class, () -> exchangeRateService.refreshSnapshot());
+        assertSame(first, exchangeRateService.currentSnapshot().orElseThrow());
+    }
+
+    @Test
+    void refreshSnapshot_TimesEveryHnbCallAndCountsFailures() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        exchangeRateService.bindTo(registry);
+        expectRates(rates("7,5000", "6,5000"));
+        mockServer.expect(once(), requestTo(RATES_URL)).andRespond(withServerError());
+        expectRates(rates("7,5000", "6,5000").replace("," + entry("PLN", 1, "1,609000"), ""));
+
+        // Act
+        exchangeRateService.refreshSnapshot();
+        assertThrows(ExchangeRateUnavailableException.class, () -> exchangeRateService.refreshSnapshot());
+        assertThrows(ExchangeRateUnavailableException.class, () -> exchangeRateService.refreshSnapshot());
+
+        // Assert
+        FunctionTimer fetch = registry.get("hnb.rates.fetch").functionTimer();
+        assertEquals(3, fetch.count());
+        assertTrue(fetch.totalTime(TimeUnit.NANOSECONDS) > 0);
+        assertEquals(2, registry.get("hnb.rates.fetch.failures").functionCounter().count());
+        mockServer.verify();
+    }
+
+    @Test
+    void convert_ConvertsBetweenAnyTwoCurrencies() {
+        // Arrange
+        expectRates(rates("7,5000", "6,5000"));
+
+        // Act
+        BigDecimal gbpToChf = exchangeRateService.convert(new BigDecimal("10"), GBP, CHF);
+        BigDecimal eurToEur = exchangeRateService.convert(new BigDecimal("10"), EUR, EUR);
+
+        // Assert
+        assertEquals(new BigDecimal("10").multiply(new BigDecimal("8.497"))
+                .divide(new BigDecimal("7.627"), 4, RoundingMode.HALF_UP), gbpToChf);
+        assertEquals(new BigDecimal("10.0000"), eurToEur);
+        mockServer.verify();
+    }
+
+    @Test
+    void priceConverter_ConvertsIntoEveryRequestedCurrencyFromOneSnapshot() {
+        // Arrange
+        expectRates(rates("7,5000", "6,5000"));
+        Currency[] currencies = {USD, JPY, EUR};
+
+        // Act
+        CurrencyPrices prices = exchangeRateService.priceConverter(EUR, currencies).convert(new BigDecimal("10"));
+
+        // Assert
+        for (Currency currency : currencies) {
+            assertEquals(exchangeRateService.convert(new BigDecimal("10"), EUR, currency), prices.get(currency));
+        }
+        assertNull(prices.get(GBP));
+        mockServer.verify();
+    }
+
+    @Test
+    void convertEurToUsd_CrossRateMatchesRateByRateConversion() {
+        // Arrange: none of these prices comes within 1e-30 of a rounding tie, where the two may differ
+        expectRates(rates("7,534500", "6,635000"));
+        BigDecimal usdRate = new BigDecimal("6.635000");
+        BigDecimal eurRate = new BigDecimal("7.534500");
+
+        // Act & Assert
+        for (int cents = 0; cents < 100_000; cents += 7) {
+            BigDecimal priceEur = BigDecimal.valueOf(cents, 2);
+            BigDecimal expected = priceEur.multiply(eurRate).divide(usdRate, 4, RoundingMode.HALF_UP);
+            assertEquals(expected, exchangeRateService.convertEurToUsd(priceEur));
+        }
+    }
+
+    @Test
+    void refreshSnapshot_PersistsSnapshotWithValidityDate() {
+        // Arrange
+        ExchangeRateSnapshotRepository repository = mock(ExchangeRateSnapshotRepository.class);
+        exchangeRateService = new HnbExchangeRateService(restTemplate, repository, mock(ApplicationEventPublisher.class),
+                new HnbClientProperties());
+        expectRates(rates("7,5000", "6,5000"));
+
+        // Act
+        ExchangeRateSnapshot refreshed = exchangeRateService.refreshSnapshot();
+
+        // Assert
+        assertEquals(LocalDate.parse("2022-12-30"), refreshed.getValidOn());
+        verify(repository).save(refreshed);
+    }
+
+    @Test
+    void refreshSnapshot_SucceedsWhenSnapshotCannotBePersisted() {
+        // Arrange
+        ExchangeRateSnapshotRepository repository = mock(ExchangeRateSnapshotRepository.class);
+        doThrow(new DataAccessResourceFailureException("Database down")).when(repository).save(any());
+        exchangeRateService = new HnbExchangeRateService(restTemplate, repository, mock(ApplicationEventPublisher.class),
+                new HnbClientProperties());
+        expectRates(rates("7,5000", "6,5000"));
+
+        // Act
+        ExchangeRateSnapshot refreshed = exchangeRateService.refreshSnapshot();
+
+        // Assert
+        assertSame(refreshed, exchangeRateService.currentSnapshot().orElseThrow());
+    }
+
+    @Test
+    void restoreSnapshot_ServesPersistedRatesWithoutCallingHnb() {
+        // Arrange
+        ExchangeRateSnapshotRepository repository = mock(ExchangeRateSnapshotRepository.class);
+        Map<String, BigDecimal> persisted = new HashMap<>();
+        for (Currency currency : Currency.values()) {
+            persisted.put(currency.name(), BigDecimal.ONE);
+        }
+        persisted.put(EUR.name(), new BigDecimal("7.5"));
+        persisted.put(USD.name(), new BigDecimal("6.5"));
+        when(repository.load(anyLong())).thenAnswer(invocation -> Optional.of(new ExchangeRateSnapshot(
+                invocation.getArgument(0), persisted, Instant.now(), LocalDate.parse("2022-12-30"))));
+        exchangeRateService = new HnbExchangeRateService(restTemplate, repository, mock(ApplicationEventPublisher.class),
+                new HnbClientProperties());
+
+        // Act
+        exchangeRateService.restoreSnapshot();
+
+        // Assert
+        assertEquals(new BigDecimal("11.5385"), exchangeRateService.convertEurToUsd(new BigDecimal("10")));
+        mockServer.verify();
+    }
+
+    @Test
+    void refreshSnapshot_AnnouncesOnlyChangedRates() {
+        // Arrange
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+        exchangeRateService = new HnbExchangeRateService(restTemplate, mock(ExchangeRateSnapshotRepository.class), eventPublisher, new HnbClientProperties());
+        expectRates(rates("7,5000", "6,5000"));
+        expectRates(rates("7,5000", "6,5000"));
+        expectRates(rates("7,5000", "6,6000"));
+
+        // Act
+        exchangeRateService.refreshSnapshot();
+        exchangeRateService.refreshSnapshot();
+        exchangeRateService.refreshSnapshot();
+
+        // Assert
+        verify(eventPublisher, times(2)).publishEvent(new ExchangeRatesChangedEvent(false, false));
+    }
+
+    @Test
+    void onExchangeRatesChanged_AdoptsRatesPersistedByAnotherInstanceWithoutCallingHnb() {
+        // Arrange
+        ExchangeRateSnapshotRepository repository = mock(ExchangeRateSnapshotRepository.class);
+        Map<String, BigDecimal> persisted = Map.of(EUR.name(), new BigDecimal("7.5"), USD.name(), new BigDecimal("6.5"));
+        when(repository.load(anyLong())).thenAnswer(invocation -> Optional.of(new ExchangeRateSnapshot(
+                invocation.getArgument(0), persisted, Instant.now(), LocalDate.parse("2022-12-30"))));
+        exchangeRateService = new HnbExchangeRateService(restTemplate, repository, mock(ApplicationEventPublisher.class),
+                new HnbClientProperties());
+
+        // Act
+        exchangeRateService.onExchangeRatesChanged(new ExchangeRatesChangedEvent(false, true));
+
+        // Assert
+        assertEquals(new BigDecimal("11.5385"), exchangeRateService.convertEurToUsd(new BigDecimal("10")));
+        mockServer.verify();
+    }
+
+    @Test
+    void onExchangeRatesChanged_KeepsNewerOwnSnapshot() {
+        // Arrange
+        ExchangeRateSnapshotRepository repository = mock(ExchangeRateSnapshotRepository.class);
+        when(repository.load(anyLong())).thenReturn(Optional.of(new ExchangeRateSnapshot(99L,
+                Map.of(EUR.name(), BigDecimal.ONE, USD.name(), BigDecimal.ONE), Instant.now().minusSeconds(600))));
+        exchangeRateService = new HnbExchangeRateService(restTemplate, repository, mock(ApplicationEventPublisher.class),
+                new HnbClientProperties());
+        expectRates(rates("7,5000", "6,5000"));
+        ExchangeRateSnapshot own = exchangeRateService.refreshSnapshot();
+
+        // Act
+        exchangeRateService.onExchangeRatesChanged(new ExchangeRatesChangedEvent(false, true));
+
+        // Assert
+        assertSame(own, exchangeRateService.currentSnapshot().orElseThrow());
+    }
+
+    @Test
+    void onExchangeRatesChanged_DropsSnapshotClearedByAnotherInstance() {
+        // Arrange
+        expectRates(rates("7,5000", "6,5000"));
+        exchangeRateService.refreshSnapshot();
+
+        // Act
+        exchangeRateService.onExchangeRatesChanged(new ExchangeRatesChangedEvent(true, true));
+
+        // Assert
+        assertTrue(exchangeRateService.currentSnapshot().isEmpty());
+    }
+
+    @Test
+    void restoreSnapshot_StartsEmptyWhenDatabaseUnavailable() {
+        // Arrange
+        ExchangeRateSnapshotRepository repository = mock(ExchangeRateSnapshotRepository.class);
+        when(repository.load(anyLong())).thenThrow(new DataAccessResourceFailureException("Database down"));
+        exchangeRateService = new HnbExchangeRateService(restTemplate, repository, mock(ApplicationEventPublisher.class),
+                new HnbClientProperties());
+
+        // Act
+        exchangeRateService.restoreSnapshot();
+
+        // Assert
+        assertTrue(exchangeRateService.currentSnapshot().isEmpty());
+    }
+
+    @Test
+    void convertEurToUsd_ConcurrentMissesShareOneFetch() throws Exception {
+        // Arrange
+        int callers = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        mockServer.expect(once(), requestTo(RATES_URL)).andRespond(request -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return withSuccess(rates("7,5000", "6,5000"), MediaType.APPLICATION_JSON).createResponse(request);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            // Act
+            List<Future<BigDecimal>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> exchangeRateService.convertEurToUsd(new BigDecimal("10"))));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (exchangeRateService.getCoalescedWaiters() < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            // Assert
+            for (Future<BigDecimal> result : results) {
+                assertEquals(new BigDecimal("11.5385"), result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(callers - 1, exchangeRateService.getCoalescedWaiters());
+            mockServer.verify();
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void refreshSnapshot_WaitersReceiveFailureOfSharedFetch() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        mockServer.expect(once(), requestTo(RATES_URL)).andRespond(request -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return withServerError().createResponse(request);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act
+            Future<ExchangeRateSnapshot> leader = executor.submit(() -> exchangeRateService.refreshSnapshot());
+            Future<ExchangeRateSnapshot> waiter = executor.submit(() -> exchangeRateService.refreshSnapshot());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (exchangeRateService.getCoalescedWaiters() < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            // Assert
+            ExecutionException leaderFailure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            ExecutionException waiterFailure = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ExchangeRateUnavailableException.class, leaderFailure.getCause());
+            assertInstanceOf(ExchangeRateUnavailableException.class, waiterFailure.getCause());
+            assertTrue(exchangeRateService.currentSnapshot().isEmpty());
+            mockServer.verify();
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private void expectRates(String body) {
+        mockServer.expect(once(), requestTo(RATES_URL))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+    }
+
+    // Full HNB list, so every supported currency is present
+    private static String rates(String eurRate, String usdRate) {
+        return "[" + entry("AUD", 1, "4,778000") + "," + entry("CAD", 1, "5,191000") + ","
+                + entry("CZK", 1, "0,308000") + "," + entry("DKK", 1, "1,013000") + ","
+                + entry("HUF", 100, "1,781000") + "," + entry("JPY", 100, "5,296000") + ","
+                + entry("NOK", 1, "0,716000") + "," + entry("SEK", 1, "0,677000") + ","
+                + entry("CHF", 1, "7,627000") + "," + entry("GBP", 1, "8,497000") + ","
+                + entry("USD", 1, usdRate) + "," + entry("EUR", 1, eurRate) + ","
+                + entry("PLN", 1, "1,609000") + "]";
+    }
+
+    private static String entry(String currency, int unit, String rate) {
+        return "{\"broj_tecajnice\":\"1\",\"datum_primjene\":\"2022-12-30\",\"valuta\":\"" + currency
+                + "\",\"jedinica\":" + unit + ",\"kupovni_tecaj\":\"" + rate + "\",\"srednji_tecaj\":\"" + rate
+                + "\",\"prodajni_tecaj\":\"" + rate + "\"}";
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.configuration.AppConfig;
+import com.example.productmanagement.configuration.HnbClientProperties;
+import com.example.productmanagement.exception.ExchangeRateUnavailableException;
+import com.example.productmanagement.model.ExchangeRateSnapshot;
+import com.example.productmanagement.repo.InMemoryExchangeRateSnapshotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static com.example.productmanagement.model.Currency.EUR;
+import static com.example.productmanagement.model.Currency.USD;
+import static org.junit.jupiter.api.Assertions.*;
+
+// HnbExchangeRateService over HTTP against the local HNB stand-in, with the client configured as in AppConfig
+class HnbStubServerTest {
+
+    private HnbStubServer hnb;
+    private HnbClientProperties clientProperties;
+    private HnbExchangeRateService exchangeRateService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        hnb = HnbStubServer.start();
+        clientProperties = new HnbClientProperties();
+        clientProperties.setBaseUrl(hnb.baseUrl());
+        clientProperties.setReadTimeout(Duration.ofMillis(500));
+        exchangeRateService = new HnbExchangeRateService(new AppConfig().restTemplate(clientProperties),
+                new InMemoryExchangeRateSnapshotRepository(), event -> {
+        }, clientProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hnb.close();
+    }
+
+    @Test
+    void refreshSnapshot_shouldReadRateListFromStub() {
+        // Act
+        ExchangeRateSnapshot snapshot = exchangeRateService.refreshSnapshot();
+
+        // Assert
+        assertEquals(new BigDecimal("6.635000"), snapshot.getRate(USD.name()));
+        assertEquals(new BigDecimal("7.534500"), snapshot.getRate(EUR.name()));
+        assertEquals(LocalDate.now(), snapshot.getValidOn());
+        assertEquals(1, hnb.requests());
+    }
+
+    @Test
+    void refreshSnapshot_shouldRejectListWithMalformedRate() {
+        // Arrange
+        hnb.setFaults(HnbStubServer.Faults.NONE.withMalformedRate(1));
+
+        // Act
+        ExchangeRateUnavailableException exception = assertThrows(ExchangeRateUnavailableException.class,
+                exchangeRateService::refreshSnapshot);
+
+        // Assert
+        assertTrue(exception.getMessage().startsWith("Invalid exchange rate format."), exception.getMessage());
+        assertEquals(1, hnb.malformed());
+    }
+
+    @Test
+    void refreshSnapshot_shouldKeepSnapshotWhileHnbFails() {
+        // Arrange
+        ExchangeRateSnapshot healthy = exchangeRateService.refreshSnapshot();
+        hnb.setFaults(HnbStubServer.Faults.NONE.withErrorRate(1));
+
+        // Act
+        assertThrows(ExchangeRateUnavailableException.class, exchangeRateService::refreshSnapshot);
+
+        // Assert
+        assertSame(healthy, exchangeRateService.currentSnapshot().orElseThrow());
+        assertEquals(1, hnb.errors());
+    }
+
+    @Test
+    void refreshSnapshot_shouldFailAfterReadTimeoutWhenHnbDoesNotAnswer() {
+        // Arrange
+        hnb.setFaults(HnbStubServer.Faults.NONE.withTimeoutRate(1).withTimeout(Duration.ofSeconds(10)));
+        long start = System.nanoTime();
+
+        // Act
+        assertThrows(ExchangeRateUnavailableException.class, exchangeRateService::refreshSnapshot);
+
+        // Assert
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+        assertEquals(1, hnb.timeouts());
+    }
+
+    @Test
+    void refreshSnapshot_shouldWaitForInjectedLatency() {
+        // Arrange
+        hnb.setFaults(HnbStubServer.Faults.NONE.withLatency(Duration.ofMillis(100), Duration.ofMillis(100)));
+        long start = System.nanoTime();
+
+        // Act
+        exchangeRateService.refreshSnapshot();
+
+        // Assert
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofMillis(100)) >= 0);
+    }
+
+    @Test
+    void rates_shouldBeFilteredByValuta() {
+        // Arrange
+        RestTemplate restTemplate = new AppConfig().restTemplate(clientProperties);
+
+        // Act
+        String body = restTemplate.getForObject(hnb.baseUrl() + HnbStubServer.RATES_PATH + "?valuta=USD", String.class);
+
+        // Assert
+        assertTrue(body.contains("\"valuta\":\"USD\""));
+        assertFalse(body.contains("\"valuta\":\"EUR\""));
+    }
+
+    @Test
+    void faults_shouldRejectRatesAddingUpToMoreThanOne() {
+        assertThrows(IllegalArgumentException.class,
+                () -> HnbStubServer.Faults.NONE.withErrorRate(0.6).withTimeoutRate(0.6));
+    }
+}
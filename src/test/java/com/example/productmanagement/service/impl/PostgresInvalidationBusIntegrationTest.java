@@ -0,0 +1,38 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.service.InvalidationBus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "hnb.rates.refresh.enabled=false")
+class PostgresInvalidationBusIntegrationTest {
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @Test
+    void publish_shouldReachSubscribersThroughTheDatabase() throws InterruptedException {
+        // Arrange
+        assertInstanceOf(PostgresInvalidationBus.class, invalidationBus);
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        invalidationBus.subscribe(received::add);
+        String payload = "ping-" + System.nanoTime();
+
+        // Act, repeated until the listener connection is up
+        String message = null;
+        for (int attempt = 0; attempt < 50 && !payload.equals(message); attempt++) {
+            invalidationBus.publish(payload);
+            message = received.poll(200, TimeUnit.MILLISECONDS);
+        }
+
+        // Assert
+        assertEquals(payload, message);
+    }
+}
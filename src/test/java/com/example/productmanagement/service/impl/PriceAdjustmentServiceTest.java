@@ -0,0 +1,112 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.configuration.PriceAdjustmentProperties;
+import com.example.productmanagement.dto.PriceAdjustmentDto;
+import com.example.productmanagement.dto.PriceAdjustmentJobDto;
+import com.example.productmanagement.dto.PriceAdjustmentJobDto.Status;
+import com.example.productmanagement.event.ProductsChangedEvent;
+import com.example.productmanagement.repo.ProductBatchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PriceAdjustmentServiceTest {
+
+    private static final BigDecimal FACTOR_3_PERCENT = new BigDecimal("1.03");
+
+    private ProductBatchRepository batchRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private PriceAdjustmentService adjustmentService;
+
+    @BeforeEach
+    void setUp() {
+        batchRepository = mock(ProductBatchRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        PriceAdjustmentProperties properties = new PriceAdjustmentProperties();
+        properties.setChunkSize(2);
+        adjustmentService = new PriceAdjustmentService(batchRepository, eventPublisher, properties, Runnable::run);
+    }
+
+    @Test
+    void start_shouldRepriceInChunksAndEvictOncePerChunk() {
+        // Arrange
+        when(batchRepository.adjustPrices(0L, FACTOR_3_PERCENT, true, 2)).thenReturn(List.of(1L, 4L));
+        when(batchRepository.adjustPrices(4L, FACTOR_3_PERCENT, true, 2)).thenReturn(List.of(7L, 5L));
+        when(batchRepository.adjustPrices(7L, FACTOR_3_PERCENT, true, 2)).thenReturn(List.of(9L));
+
+        // Act
+        PriceAdjustmentJobDto job = adjustmentService.start(new PriceAdjustmentDto(new BigDecimal("3"), true));
+
+        // Assert
+        assertEquals(Status.COMPLETED, job.getStatus());
+        assertEquals(5, job.getUpdated());
+        assertEquals(3, job.getChunks());
+        assertEquals(9L, job.getLastId());
+        assertNotNull(job.getFinishedAt());
+        verify(eventPublisher).publishEvent(new ProductsChangedEvent(List.of(7L, 5L), List.of()));
+        verify(eventPublisher, times(3)).publishEvent(any(ProductsChangedEvent.class));
+        assertEquals(job, adjustmentService.find(job.getId()).orElseThrow());
+    }
+
+    @Test
+    void start_shouldStopAfterEmptyChunk() {
+        // Arrange
+        when(batchRepository.adjustPrices(anyLong(), any(), isNull(), anyInt())).thenReturn(List.of(1L, 2L), List.of());
+
+        // Act
+        PriceAdjustmentJobDto job = adjustmentService.start(new PriceAdjustmentDto(new BigDecimal("-10"), null));
+
+        // Assert
+        assertEquals(Status.COMPLETED, job.getStatus());
+        assertEquals(2, job.getUpdated());
+        verify(batchRepository).adjustPrices(2L, new BigDecimal("0.90"), null, 2);
+        verify(eventPublisher, times(1)).publishEvent(any(ProductsChangedEvent.class));
+    }
+
+    @Test
+    void start_shouldReportFailureWithCommittedProgress() {
+        // Arrange
+        when(batchRepository.adjustPrices(0L, FACTOR_3_PERCENT, null, 2)).thenReturn(List.of(1L, 2L));
+        when(batchRepository.adjustPrices(2L, FACTOR_3_PERCENT, null, 2)).thenThrow(new QueryTimeoutException("timeout"));
+
+        // Act
+        PriceAdjustmentJobDto job = adjustmentService.start(new PriceAdjustmentDto(new BigDecimal("3"), null));
+
+        // Assert
+        assertEquals(Status.FAILED, job.getStatus());
+        assertEquals(2, job.getUpdated());
+        assertEquals(2L, job.getLastId());
+        assertEquals("timeout", job.getError());
+    }
+
+    @Test
+    void start_shouldFailJobOnAnyException() {
+        // Arrange
+        when(batchRepository.adjustPrices(0L, FACTOR_3_PERCENT, null, 2)).thenReturn(List.of(1L, 2L));
+        doThrow(new IllegalStateException("listener failed"))
+                .when(eventPublisher).publishEvent(any(ProductsChangedEvent.class));
+
+        // Act
+        PriceAdjustmentJobDto job = adjustmentService.start(new PriceAdjustmentDto(new BigDecimal("3"), null));
+
+        // Assert
+        assertEquals(Status.FAILED, job.getStatus());
+        assertEquals("listener failed", job.getError());
+        assertNotNull(job.getFinishedAt());
+    }
+
+    @Test
+    void start_shouldRejectPercentTakingPricesToZero() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> adjustmentService.start(new PriceAdjustmentDto(new BigDecimal("-100"), null)));
+        verifyNoInteractions(batchRepository);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.configuration.ProductCacheProperties;
+import com.example.productmanagement.event.ProductsChangedEvent;
+import com.example.productmanagement.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheTest {
+
+    private ConcurrentMapCache secondTier;
+    private ProductCache productCache;
+
+    @BeforeEach
+    void setUp() {
+        secondTier = new ConcurrentMapCache("products");
+        productCache = new ProductCache(new ProductCacheProperties(), secondTier);
+    }
+
+    @Test
+    void getById_shouldLoadOnceAndReturnCopies() {
+        AtomicInteger loads = new AtomicInteger();
+
+        Product first = productCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(product(id, "CODE000001"));
+        }).orElseThrow();
+        first.setName("Changed by caller");
+        Product second = productCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        }).orElseThrow();
+
+        assertEquals(1, loads.get());
+        assertEquals("Product", second.getName());
+    }
+
+    @Test
+    void getById_shouldPreferSecondTierOverLoader() {
+        secondTier.put(1L, product(1L, "CODE000001"));
+
+        Optional<Product> result = productCache.getById(1L, id -> fail("database should not be queried"));
+
+        assertEquals("CODE000001", result.orElseThrow().getCode());
+    }
+
+    @Test
+    void put_shouldMoveCodeIndexWhenCodeChanges() {
+        productCache.put(product(1L, "CODE000001"));
+        productCache.put(product(1L, "CODE000002"));
+
+        assertEquals(1L, productCache.getByCode("CODE000002", code -> Optional.empty()).orElseThrow().getId());
+        assertTrue(productCache.getByCode("CODE000001", code -> Optional.empty()).isEmpty());
+    }
+
+    @Test
+    void onProductsChanged_shouldEvictFromBothTiers() {
+        productCache.put(product(1L, "CODE000001"));
+
+        productCache.onProductsChanged(new ProductsChangedEvent(List.of(1L), List.of("CODE000001")));
+
+        assertNull(secondTier.get(1L));
+        assertTrue(productCache.getById(1L, id -> Optional.empty()).isEmpty());
+        assertTrue(productCache.getByCode("CODE000001", code -> Optional.empty()).isEmpty());
+    }
+
+    private static Product product(Long id, String code) {
+        Product product = new Product(code, "Product", BigDecimal.TEN, true);
+        product.setId(id);
+        return product;
+    }
+}
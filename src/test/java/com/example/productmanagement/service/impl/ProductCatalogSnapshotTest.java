@@ -0,0 +1,240 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.configuration.CatalogSnapshotProperties;
+import com.example.productmanagement.event.CachesClearedEvent;
+import com.example.productmanagement.event.ProductsChangedEvent;
+import com.example.productmanagement.mapper.ProductMapper;
+import com.example.productmanagement.model.ExchangeRateSnapshot;
+import com.example.productmanagement.model.Product;
+import com.example.productmanagement.repo.ProductRepository;
+import com.example.productmanagement.service.ExchangeRateService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductCatalogSnapshotTest {
+
+    private static final String PRODUCT_1 = "{\"code\":\"CODE000001\",\"name\":\"Product A\",\"priceEur\":10,\"priceUsd\":11.5385,\"available\":true}";
+    private static final String PRODUCT_2 = "{\"code\":\"CODE000002\",\"name\":\"Product B\",\"priceEur\":20,\"priceUsd\":23.0769,\"available\":false}";
+
+    private ProductRepository productRepository;
+    private ExchangeRateService exchangeRateService;
+    private CatalogSnapshotProperties properties;
+    private ProductCatalogSnapshot catalogSnapshot;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        exchangeRateService = mock(ExchangeRateService.class);
+        when(exchangeRateService.currentSnapshot()).thenReturn(Optional.of(rates(1L, "6.5")));
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .thenReturn(List.of(product(1L, "CODE000001", "Product A", 10, true), product(2L, "CODE000002", "Product B", 20, false)));
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(2))).thenReturn(List.of());
+
+        properties = new CatalogSnapshotProperties();
+        properties.setBatchSize(2);
+        catalogSnapshot = new ProductCatalogSnapshot(productRepository, exchangeRateService, new ProductMapper(),
+                new ObjectMapper(), properties);
+    }
+
+    @Test
+    void current_shouldSerializeWholeCatalogInIdOrderWithGzipCopy() throws IOException {
+        // Act
+        ProductCatalogSnapshot.Body body = catalogSnapshot.current().orElseThrow();
+
+        // Assert
+        assertEquals("[" + PRODUCT_1 + "," + PRODUCT_2 + "]", text(body.json()));
+        assertEquals(text(body.json()), gunzip(body.gzip()));
+        assertTrue(body.json().hasArray());
+        assertEquals(2, body.products());
+    }
+
+    @Test
+    void gzip_shouldCompressOnceOnFirstRequest() {
+        // Arrange
+        ProductCatalogSnapshot.Body body = catalogSnapshot.current().orElseThrow();
+
+        // Act
+        ByteBuffer first = body.gzip();
+        ByteBuffer second = body.gzip();
+
+        // Assert
+        assertSame(first.array(), second.array());
+    }
+
+    @Test
+    void current_shouldTagSameContentAlike() {
+        // Arrange
+        ProductCatalogSnapshot.Body before = catalogSnapshot.current().orElseThrow();
+        catalogSnapshot.onProductsChanged(new ProductsChangedEvent(List.of(1L), List.of()));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product(1L, "CODE000001", "Product A", 10, true)));
+
+        // Act
+        ProductCatalogSnapshot.Body after = catalogSnapshot.current().orElseThrow();
+
+        // Assert
+        assertNotSame(before, after);
+        assertEquals(before.tag(), after.tag());
+    }
+
+    @Test
+    void current_shouldServeSameBodyUntilSomethingChanges() {
+        // Act
+        ProductCatalogSnapshot.Body first = catalogSnapshot.current().orElseThrow();
+        ProductCatalogSnapshot.Body second = catalogSnapshot.current().orElseThrow();
+
+        // Assert
+        assertSame(first, second);
+        verify(productRepository, times(2)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+        assertEquals(1, catalogSnapshot.getFullBuilds());
+    }
+
+    @Test
+    void put_shouldReserializeOnlyTheSavedProduct() {
+        // Arrange
+        ProductCatalogSnapshot.Body before = catalogSnapshot.current().orElseThrow();
+        Product renamed = product(2L, "CODE000002", "Product B2", 20, false);
+        renamed.setVersion(1);
+
+        // Act
+        catalogSnapshot.put(renamed);
+        ProductCatalogSnapshot.Body after = catalogSnapshot.current().orElseThrow();
+
+        // Assert
+        assertEquals("[" + PRODUCT_1 + "," + PRODUCT_2.replace("Product B", "Product B2") + "]", text(after.json()));
+        assertNotEquals(before.tag(), after.tag());
+        assertEquals(1, catalogSnapshot.getIncrementalBuilds());
+        verify(productRepository, times(2)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void put_shouldKeepNewerVersionThanLateWriteThrough() {
+        // Arrange
+        catalogSnapshot.current();
+        Product newer = product(1L, "CODE000001", "Newer", 10, true);
+        newer.setVersion(3);
+        Product older = product(1L, "CODE000001", "Older", 10, true);
+        older.setVersion(2);
+
+        // Act
+        catalogSnapshot.put(newer);
+        catalogSnapshot.put(older);
+
+        // Assert
+        assertTrue(text(catalogSnapshot.current().orElseThrow().json()).contains("\"name\":\"Newer\""));
+    }
+
+    @Test
+    void onProductsChanged_shouldReloadChangedProductsAndDropDeletedOnes() {
+        // Arrange
+        catalogSnapshot.current();
+        when(productRepository.findAllById(List.of(1L, 2L)))
+                .thenReturn(List.of(product(1L, "CODE000001", "Product A", 12, true)));
+
+        // Act
+        catalogSnapshot.onProductsChanged(new ProductsChangedEvent(List.of(1L, 2L), List.of()));
+        String json = text(catalogSnapshot.current().orElseThrow().json());
+
+        // Assert
+        assertEquals("[{\"code\":\"CODE000001\",\"name\":\"Product A\",\"priceEur\":12,\"priceUsd\":13.8462,\"available\":true}]", json);
+    }
+
+    @Test
+    void onCachesCleared_shouldReloadWholeCatalogOnlyWhenEveryCacheWasCleared() {
+        // Arrange
+        catalogSnapshot.current();
+
+        // Act
+        catalogSnapshot.onCachesCleared(new CachesClearedEvent("exchangeRates", true));
+        catalogSnapshot.current();
+        catalogSnapshot.onCachesCleared(new CachesClearedEvent(null, true));
+        catalogSnapshot.current();
+
+        // Assert
+        assertEquals(2, catalogSnapshot.getFullBuilds());
+        verify(productRepository, times(4)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void current_shouldReconvertFromMemoryWhenRatesChange() {
+        // Arrange
+        catalogSnapshot.current();
+        when(exchangeRateService.currentSnapshot()).thenReturn(Optional.of(rates(2L, "7.5")));
+
+        // Act
+        String json = text(catalogSnapshot.current().orElseThrow().json());
+
+        // Assert
+        assertTrue(json.contains("\"priceUsd\":10.0000"));
+        assertTrue(json.contains("\"priceUsd\":20.0000"));
+        verify(productRepository, times(2)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+        verify(productRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void current_shouldKeepBodyWhenRefreshBringsSameRates() {
+        // Arrange
+        ProductCatalogSnapshot.Body first = catalogSnapshot.current().orElseThrow();
+        when(exchangeRateService.currentSnapshot()).thenReturn(Optional.of(rates(2L, "6.5")));
+
+        // Act
+        ProductCatalogSnapshot.Body second = catalogSnapshot.current().orElseThrow();
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(1, catalogSnapshot.getFullBuilds());
+        assertEquals(0, catalogSnapshot.getIncrementalBuilds());
+    }
+
+    @Test
+    void current_shouldBeEmptyAndIgnoreChangesWhenDisabled() {
+        // Arrange
+        properties.setEnabled(false);
+
+        // Act
+        catalogSnapshot.put(product(3L, "CODE000003", "Product C", 30, true));
+
+        // Assert
+        assertTrue(catalogSnapshot.current().isEmpty());
+        verifyNoInteractions(productRepository);
+    }
+
+    private static ExchangeRateSnapshot rates(long id, String usdRate) {
+        return new ExchangeRateSnapshot(id, Map.of("EUR", new BigDecimal("7.5"), "USD", new BigDecimal(usdRate)), Instant.now());
+    }
+
+    private static Product product(Long id, String code, String name, int priceEur, boolean available) {
+        Product product = new Product(code, name, BigDecimal.valueOf(priceEur), available);
+        product.setId(id);
+        return product;
+    }
+
+    private static String text(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String gunzip(ByteBuffer buffer) throws IOException {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
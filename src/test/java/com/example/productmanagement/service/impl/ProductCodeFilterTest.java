@@ -0,0 +1,166 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.configuration.ProductCodeFilterProperties;
+import com.example.productmanagement.event.CachesClearedEvent;
+import com.example.productmanagement.event.ProductsChangedEvent;
+import com.example.productmanagement.repo.ProductBatchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductCodeFilterTest {
+
+    private ProductBatchRepository batchRepository;
+    private ProductCodeFilterProperties properties;
+    private ProductCodeFilter codeFilter;
+
+    @BeforeEach
+    void setUp() {
+        batchRepository = mock(ProductBatchRepository.class);
+        properties = new ProductCodeFilterProperties();
+        properties.setExpectedInsertions(10_000);
+        properties.setSettleTime(Duration.ZERO);
+        codeFilter = new ProductCodeFilter(batchRepository, properties, Runnable::run);
+    }
+
+    @Test
+    void mightContain_shouldPassEveryCodeUntilLoaded() {
+        assertTrue(codeFilter.mightContain("CODE000099"));
+    }
+
+    @Test
+    void load_shouldRejectCodesThatDoNotExist() {
+        doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(0);
+            for (int i = 0; i < 10_000; i++) {
+                consumer.accept(String.format("CODE%06d", i));
+            }
+            return null;
+        }).when(batchRepository).forEachCode(any());
+
+        codeFilter.load();
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(codeFilter.mightContain(String.format("CODE%06d", i)));
+        }
+        long falsePositives = 0;
+        for (int i = 10_000; i < 20_000; i++) {
+            if (codeFilter.mightContain(String.format("CODE%06d", i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void load_shouldKeepCodesWrittenWhileLoading() {
+        doAnswer(invocation -> {
+            codeFilter.onProductsChanged(new ProductsChangedEvent(List.of(2L), List.of("CODE000002")));
+            Consumer<String> consumer = invocation.getArgument(0);
+            consumer.accept("CODE000001");
+            return null;
+        }).when(batchRepository).forEachCode(any());
+
+        codeFilter.load();
+        codeFilter.add("CODE000003");
+
+        assertTrue(codeFilter.mightContain("CODE000001"));
+        assertTrue(codeFilter.mightContain("CODE000002"));
+        assertTrue(codeFilter.mightContain("CODE000003"));
+    }
+
+    @Test
+    void add_shouldNotLoseCodesWrittenAsALoadFinishes() throws Exception {
+        // Codes are committed before they are added, so a load sees every code committed before it started
+        Queue<String> committed = new ConcurrentLinkedQueue<>();
+        doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(0);
+            committed.forEach(consumer);
+            return null;
+        }).when(batchRepository).forEachCode(any());
+        codeFilter.load();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Thread loader = new Thread(() -> {
+            while (writing.get()) {
+                codeFilter.load();
+            }
+        });
+
+        loader.start();
+        for (int i = 0; i < 20_000; i++) {
+            String code = String.format("CODE%06d", i);
+            committed.add(code);
+            codeFilter.add(code);
+        }
+        writing.set(false);
+        loader.join();
+
+        for (String code : committed) {
+            assertTrue(codeFilter.mightContain(code), code);
+        }
+    }
+
+    @Test
+    void mightContain_shouldPassEveryCodeUntilSettled() {
+        properties.setSettleTime(Duration.ofHours(1));
+        doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(0);
+            consumer.accept("CODE000001");
+            return null;
+        }).when(batchRepository).forEachCode(any());
+
+        codeFilter.load();
+
+        assertTrue(codeFilter.mightContain("CODE000099"));
+    }
+
+    @Test
+    void onCachesCleared_shouldReloadCodesMissedMeanwhile() {
+        // CODE000002 was written elsewhere and its announcement lost, e.g. while the invalidation listener reconnected
+        doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(0);
+            consumer.accept("CODE000001");
+            return null;
+        }).doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(0);
+            consumer.accept("CODE000001");
+            consumer.accept("CODE000002");
+            return null;
+        }).when(batchRepository).forEachCode(any());
+        codeFilter.load();
+        assertFalse(codeFilter.mightContain("CODE000002"));
+
+        codeFilter.onCachesCleared(new CachesClearedEvent(null, true));
+
+        assertTrue(codeFilter.mightContain("CODE000002"));
+        verify(batchRepository, times(2)).forEachCode(any());
+    }
+
+    @Test
+    void onCachesCleared_shouldKeepFilterWhenOneCacheWasCleared() {
+        codeFilter.load();
+
+        codeFilter.onCachesCleared(new CachesClearedEvent("exchangeRates", false));
+
+        verify(batchRepository).forEachCode(any());
+    }
+
+    @Test
+    void load_shouldPassEveryCodeWhenDatabaseFails() {
+        doThrow(new DataAccessResourceFailureException("down")).when(batchRepository).forEachCode(any());
+
+        codeFilter.load();
+
+        assertTrue(codeFilter.mightContain("CODE000099"));
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.configuration.ProductImportProperties;
+import com.example.productmanagement.dto.BulkImportResultDto;
+import com.example.productmanagement.event.ProductsChangedEvent;
+import com.example.productmanagement.mapper.ProductMapper;
+import com.example.productmanagement.model.Product;
+import com.example.productmanagement.repo.ProductBatchRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductImportServiceUnitTest {
+
+    private ProductBatchRepository batchRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private ProductImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        batchRepository = mock(ProductBatchRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        when(batchRepository.insertIgnoringDuplicates(anyList()))
+                .thenAnswer(invocation -> allInserted(((List<?>) invocation.getArgument(0)).size()));
+
+        ProductImportProperties properties = new ProductImportProperties();
+        properties.setBatchSize(2);
+
+        importService = new ProductImportService(batchRepository, new ProductMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), Jackson2ObjectMapperBuilder.json().build(),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), properties, eventPublisher);
+    }
+
+    @Test
+    void importProducts_shouldWriteJsonArrayInBatches() throws Exception {
+        String body = "[" + json("CODE000001", "10.00") + "," + json("CODE000002", "20.00") + "," + json("CODE000003", "30.00") + "]";
+
+        BulkImportResultDto result = importService.importProducts(stream(body), MediaType.APPLICATION_JSON);
+
+        assertEquals(3, result.getReceived());
+        assertEquals(3, result.getImported());
+        assertEquals(0, result.getRejected());
+        verify(batchRepository, times(2)).insertIgnoringDuplicates(anyList());
+        verify(eventPublisher, times(2)).publishEvent(any(ProductsChangedEvent.class));
+    }
+
+    @Test
+    void importProducts_shouldReportInvalidNdjsonRowsAndContinue() throws Exception {
+        String body = json("CODE000001", "10.00") + "\n"
+                + json("SHORT", "10.00") + "\n"
+                + "{\"code\":\"CODE000003\",\"name\":\"P\",\"priceEur\":\"abc\"}\n"
+                + json("CODE000004", "40.00") + "\n";
+
+        BulkImportResultDto result = importService.importProducts(stream(body), MediaType.APPLICATION_NDJSON);
+
+        assertEquals(4, result.getReceived());
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(2, result.getErrors().get(0).getRow());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("code:"));
+        assertEquals(3, result.getErrors().get(1).getRow());
+    }
+
+    @Test
+    void importProducts_shouldRejectDuplicateCodes() throws Exception {
+        // CODE000001 exists, CODE000002 comes twice; batches of two
+        when(batchRepository.insertIgnoringDuplicates(anyList()))
+                .thenReturn(new boolean[]{false, true}, new boolean[]{false});
+        String body = json("CODE000001", "10.00") + "\n" + json("CODE000002", "20.00") + "\n" + json("CODE000002", "20.00");
+
+        BulkImportResultDto result = importService.importProducts(stream(body), MediaType.APPLICATION_NDJSON);
+
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertTrue(result.getErrors().stream().allMatch(error -> error.getMessage().contains("already exists")));
+    }
+
+    @Test
+    void importProducts_shouldRejectCodesSkippedByTheDatabase() throws Exception {
+        // CODE000002 inserted by someone else between the existence check and the insert
+        when(batchRepository.insertIgnoringDuplicates(anyList())).thenReturn(new boolean[]{true, false});
+        String body = "[" + json("CODE000001", "10.00") + "," + json("CODE000002", "20.00") + "]";
+
+        BulkImportResultDto result = importService.importProducts(stream(body), MediaType.APPLICATION_JSON);
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals("CODE000002", result.getErrors().get(0).getCode());
+        assertTrue(result.getErrors().get(0).getMessage().contains("already exists"));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof ProductsChangedEvent changed
+                && changed.codes().equals(List.of("CODE000001"))));
+    }
+
+    @Test
+    void importProducts_shouldReadCsvWithHeader() throws Exception {
+        String body = "code,name,priceEur,isAvailable\n"
+                + "CODE000001,\"Chair, oak\",12.50,true\n"
+                + "CODE000002,Table,abc,false\n";
+
+        BulkImportResultDto result = importService.importProducts(stream(body), ProductImportService.TEXT_CSV);
+
+        assertEquals(2, result.getReceived());
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getErrors().get(0).getRow());
+        verify(batchRepository).insertIgnoringDuplicates(argThat((List<Product> products) ->
+                products.size() == 1 && products.get(0).getName().equals("Chair, oak") && products.get(0).isAvailable()));
+    }
+
+    @Test
+    void importProducts_shouldIsolateRowsWhenBatchFails() throws Exception {
+        when(batchRepository.insertIgnoringDuplicates(anyList())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            if (products.stream().anyMatch(product -> product.getCode().equals("CODE000002"))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            return allInserted(products.size());
+        });
+        String body = "[" + json("CODE000001", "10.00") + "," + json("CODE000002", "20.00") + "]";
+
+        BulkImportResultDto result = importService.importProducts(stream(body), MediaType.APPLICATION_JSON);
+
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals("CODE000002", result.getErrors().get(0).getCode());
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof ProductsChangedEvent changed
+                && changed.codes().equals(List.of("CODE000001"))));
+    }
+
+    private static String json(String code, String price) {
+        return "{\"code\":\"" + code + "\",\"name\":\"Product\",\"priceEur\":" + price + ",\"available\":true}";
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean[] allInserted(int size) {
+        boolean[] inserted = new boolean[size];
+        java.util.Arrays.fill(inserted, true);
+        return inserted;
+    }
+}
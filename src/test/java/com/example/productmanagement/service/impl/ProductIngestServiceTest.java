@@ -0,0 +1,211 @@
+package com.example.productmanagement.service.impl;
+
+import com.example.productmanagement.configuration.ProductIngestProperties;
+import com.example.productmanagement.dto.IngestStatusDto;
+import com.example.productmanagement.dto.IngestStatusDto.Status;
+import com.example.productmanagement.event.ProductsChangedEvent;
+import com.example.productmanagement.exception.IngestQueueFullException;
+import com.example.productmanagement.model.Product;
+import com.example.productmanagement.repo.ProductBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductIngestServiceTest {
+
+    private ProductBatchRepository batchRepository;
+    private PlatformTransactionManager transactionManager;
+    private ApplicationEventPublisher eventPublisher;
+    private ProductIngestService ingestService;
+
+    @BeforeEach
+    void setUp() {
+        batchRepository = mock(ProductBatchRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        when(batchRepository.insertIgnoringDuplicates(anyList())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            boolean[] inserted = new boolean[products.size()];
+            for (int i = 0; i < products.size(); i++) {
+                products.get(i).setId(100L + i);
+                inserted[i] = true;
+            }
+            return inserted;
+        });
+
+        ProductIngestProperties properties = new ProductIngestProperties();
+        properties.setQueueCapacity(3);
+        properties.setBatchSize(2);
+        // The writer thread is not started, tests drain the queue themselves
+        ingestService = new ProductIngestService(batchRepository, new TransactionTemplate(transactionManager),
+                eventPublisher, properties);
+    }
+
+    @Test
+    void enqueue_shouldAcknowledgeBeforeWriting() {
+        // Act
+        IngestStatusDto status = ingestService.enqueue(product("CODE000001"));
+
+        // Assert
+        assertEquals(Status.QUEUED, status.getStatus());
+        assertEquals(status, ingestService.status(status.getTrackingId()).orElseThrow());
+        verifyNoInteractions(batchRepository);
+    }
+
+    @Test
+    void drain_shouldWriteQueuedProductsInBatchesOfOneTransaction() throws Exception {
+        // Arrange
+        IngestStatusDto first = ingestService.enqueue(product("CODE000001"));
+        IngestStatusDto second = ingestService.enqueue(product("CODE000002"));
+        IngestStatusDto third = ingestService.enqueue(product("CODE000003"));
+
+        // Act
+        int firstBatch = ingestService.drain(0);
+        int secondBatch = ingestService.drain(0);
+
+        // Assert
+        assertEquals(2, firstBatch);
+        assertEquals(1, secondBatch);
+        assertEquals(0, ingestService.drain(0));
+        verify(transactionManager, times(2)).commit(any());
+        verify(batchRepository, times(2)).insertIgnoringDuplicates(anyList());
+        IngestStatusDto written = ingestService.status(second.getTrackingId()).orElseThrow();
+        assertEquals(Status.WRITTEN, written.getStatus());
+        assertEquals(101L, written.getProductId());
+        assertEquals(Status.WRITTEN, ingestService.status(first.getTrackingId()).orElseThrow().getStatus());
+        assertEquals(Status.WRITTEN, ingestService.status(third.getTrackingId()).orElseThrow().getStatus());
+        verify(eventPublisher).publishEvent(new ProductsChangedEvent(List.of(100L, 101L), List.of("CODE000001", "CODE000002")));
+    }
+
+    @Test
+    void drain_shouldRejectDuplicateCodes() throws Exception {
+        // Arrange
+        when(batchRepository.insertIgnoringDuplicates(anyList())).thenReturn(new boolean[]{false, true});
+        IngestStatusDto existing = ingestService.enqueue(product("CODE000001"));
+        IngestStatusDto fresh = ingestService.enqueue(product("CODE000002"));
+
+        // Act
+        ingestService.drain(0);
+
+        // Assert
+        IngestStatusDto rejected = ingestService.status(existing.getTrackingId()).orElseThrow();
+        assertEquals(Status.REJECTED, rejected.getStatus());
+        assertEquals("Product with code CODE000001 already exists", rejected.getMessage());
+        assertEquals(Status.WRITTEN, ingestService.status(fresh.getTrackingId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void drain_shouldMarkBatchFailedWhenWriteFails() throws Exception {
+        // Arrange
+        when(batchRepository.insertIgnoringDuplicates(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Database down"));
+        IngestStatusDto status = ingestService.enqueue(product("CODE000001"));
+
+        // Act
+        ingestService.drain(0);
+
+        // Assert
+        IngestStatusDto failed = ingestService.status(status.getTrackingId()).orElseThrow();
+        assertEquals(Status.FAILED, failed.getStatus());
+        assertEquals("Database down", failed.getMessage());
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void drain_shouldFailOnlyTheOffendingProductOfABatch() throws Exception {
+        // Arrange
+        when(batchRepository.insertIgnoringDuplicates(anyList())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            if (products.stream().anyMatch(product -> product.getCode().equals("CODE000002"))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            products.get(0).setId(100L);
+            return new boolean[]{true};
+        });
+        IngestStatusDto good = ingestService.enqueue(product("CODE000001"));
+        IngestStatusDto bad = ingestService.enqueue(product("CODE000002"));
+
+        // Act
+        ingestService.drain(0);
+
+        // Assert
+        assertEquals(Status.WRITTEN, ingestService.status(good.getTrackingId()).orElseThrow().getStatus());
+        IngestStatusDto failed = ingestService.status(bad.getTrackingId()).orElseThrow();
+        assertEquals(Status.FAILED, failed.getStatus());
+        assertEquals("value too long", failed.getMessage());
+        verify(eventPublisher).publishEvent(new ProductsChangedEvent(List.of(100L), List.of("CODE000001")));
+    }
+
+    @Test
+    void drain_shouldMarkBatchFailedWhenNoTransactionCanBeStarted() throws Exception {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ingestService.bindTo(registry);
+        when(transactionManager.getTransaction(any()))
+                .thenThrow(new CannotCreateTransactionException("Connection is not available, request timed out"));
+        IngestStatusDto first = ingestService.enqueue(product("CODE000001"));
+        IngestStatusDto second = ingestService.enqueue(product("CODE000002"));
+
+        // Act
+        int drained = ingestService.drain(0);
+
+        // Assert
+        assertEquals(2, drained);
+        for (IngestStatusDto status : List.of(first, second)) {
+            IngestStatusDto failed = ingestService.status(status.getTrackingId()).orElseThrow();
+            assertEquals(Status.FAILED, failed.getStatus());
+            assertEquals("Connection is not available, request timed out", failed.getMessage());
+        }
+        assertEquals(2, registry.get("products.ingest.products").tag("result", "failed").functionCounter().count());
+        verifyNoInteractions(batchRepository, eventPublisher);
+    }
+
+    @Test
+    void drain_shouldKeepWrittenStatusWhenListenerFails() throws Exception {
+        // Arrange
+        doThrow(new IllegalStateException("listener failed")).when(eventPublisher).publishEvent(any(Object.class));
+        IngestStatusDto first = ingestService.enqueue(product("CODE000001"));
+        IngestStatusDto second = ingestService.enqueue(product("CODE000002"));
+
+        // Act
+        ingestService.drain(0);
+
+        // Assert
+        assertEquals(Status.WRITTEN, ingestService.status(first.getTrackingId()).orElseThrow().getStatus());
+        assertEquals(Status.WRITTEN, ingestService.status(second.getTrackingId()).orElseThrow().getStatus());
+        verify(batchRepository).insertIgnoringDuplicates(anyList());
+    }
+
+    @Test
+    void enqueue_shouldRefuseWhenQueueIsFullAndCountIt() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ingestService.bindTo(registry);
+        ingestService.enqueue(product("CODE000001"));
+        ingestService.enqueue(product("CODE000002"));
+        ingestService.enqueue(product("CODE000003"));
+
+        // Act & Assert
+        assertThrows(IngestQueueFullException.class, () -> ingestService.enqueue(product("CODE000004")));
+        assertEquals(3, registry.get("products.ingest.queue.depth").gauge().value());
+        assertEquals(1, registry.get("products.ingest.requests").tag("result", "refused").functionCounter().count());
+        assertEquals(3, registry.get("products.ingest.requests").tag("result", "accepted").functionCounter().count());
+    }
+
+    private static Product product(String code) {
+        return new Product(code, "Product", BigDecimal.TEN, true);
+    }
+}
@@ -4,12 +4,20 @@ import com.example.productmanagement.exception.ExchangeRateUnavailableException;
 import com.example.productmanagement.exception.ProductNotFoundException;
 import com.example.productmanagement.model.Product;
 import com.example.productmanagement.repo.ProductRepository;
+import com.example.productmanagement.repo.ProductSearchCriteria;
+import com.example.productmanagement.repo.ProductSummary;
 import com.example.productmanagement.service.ExchangeRateService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -18,41 +26,27 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
-@SpringBootTest
+@SpringBootTest(properties = "hnb.rates.refresh.enabled=false")
 @Transactional
 class ProductServiceIntegrationTest {
 
     private static final String TEST_CODE_001 = "CODE000001";
     private static final String TEST_CODE_002 = "CODE000002";
-    private static final String TIMEOUT_CODE = "TIMEOUT001";
 
     private static final String INTEGRATION_TEST_PRODUCT = "Integration Test Product";
     private static final String PRODUCT_1_NAME = "P1";
     private static final String PRODUCT_2_NAME = "P2";
     private static final String TEST_PRODUCT = "Test Product";
     private static final String ZERO_PRICE_PRODUCT = "Zero Price Product";
-    private static final String CALL_ONCE_PRODUCT = "Call Once Product";
-    private static final String NULL_USD_PRODUCT = "Null USD Product";
     private static final String MULTI_CALL_PRODUCT = "Multi Call Product";
-    private static final String TIMEOUT_PRODUCT = "Timeout Product";
 
     private static final BigDecimal PRICE_100 = BigDecimal.valueOf(100);
     private static final BigDecimal PRICE_10 = BigDecimal.valueOf(10);
     private static final BigDecimal PRICE_20 = BigDecimal.valueOf(20);
     private static final BigDecimal PRICE_100_50 = BigDecimal.valueOf(100.50);
     private static final BigDecimal PRICE_50 = BigDecimal.valueOf(50.00);
-    private static final BigDecimal PRICE_42_42 = BigDecimal.valueOf(42.42);
     private static final BigDecimal PRICE_30 = BigDecimal.valueOf(30.00);
     private static final BigDecimal PRICE_60 = BigDecimal.valueOf(60.00);
-    private static final BigDecimal PRICE_88_88 = BigDecimal.valueOf(88.88);
-    private static final BigDecimal PRICE_25 = BigDecimal.valueOf(25.00);
-
-    private static final BigDecimal USD_PRICE_10_6 = BigDecimal.valueOf(10.6);
-    private static final BigDecimal USD_PRICE_20_6 = BigDecimal.valueOf(20.6);
-    private static final BigDecimal USD_PRICE_106_53 = BigDecimal.valueOf(106.53);
-    private static final BigDecimal USD_PRICE_44_96 = BigDecimal.valueOf(44.96);
-    private static final BigDecimal USD_PRICE_63_60 = BigDecimal.valueOf(63.60);
-    private static final BigDecimal USD_PRICE_94_21 = BigDecimal.valueOf(94.21);
 
     private static final Long NOT_EXISTENT_ID = 999L;
     private static final Long NEGATIVE_ID = -1L;
@@ -60,11 +54,8 @@ class ProductServiceIntegrationTest {
     private static final String PRODUCT_WITH_ID_999_NOT_FOUND_MESSAGE = "Product with ID 999 not found";
     private static final String PRODUCT_WITH_NEGATIVE_ID_NOT_FOUND_MESSAGE = "Product with ID -1 not found";
     private static final String HNB_API_DOWN_MESSAGE = "HNB API is down";
-    private static final String CONNECTION_TIMEOUT_MESSAGE = "Connection timeout";
 
     private static final int EXPECTED_LIST_SIZE_2 = 2;
-    private static final int EXPECTED_VERIFY_TIMES_1 = 1;
-    private static final int EXPECTED_VERIFY_TIMES_3 = 3;
 
     @Autowired
     private ProductRepository productRepository;
@@ -72,6 +63,9 @@ class ProductServiceIntegrationTest {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @MockBean
     private ExchangeRateService exchangeRateService;
 
@@ -97,7 +91,7 @@ class ProductServiceIntegrationTest {
     }
 
     @Test
-    void findAll_shouldReturnAllWithUsdPrices() {
+    void findAll_shouldReturnAllWithoutConvertingPrices() {
         // Arrange
         Product p1 = new Product(TEST_CODE_001, PRODUCT_1_NAME, PRICE_10, true);
         Product p2 = new Product(TEST_CODE_002, PRODUCT_2_NAME, PRICE_20, true);
@@ -105,28 +99,23 @@ class ProductServiceIntegrationTest {
         productRepository.save(p1);
         productRepository.save(p2);
 
-        when(exchangeRateService.convertEurToUsd(p1.getPriceEur())).thenReturn(USD_PRICE_10_6);
-        when(exchangeRateService.convertEurToUsd(p2.getPriceEur())).thenReturn(USD_PRICE_20_6);
-
         // Act
         List<Product> all = productService.findAll();
 
         // Assert
         assertEquals(EXPECTED_LIST_SIZE_2, all.size());
-        assertEquals(USD_PRICE_10_6, all.get(0).getPriceUsd());
-        assertEquals(USD_PRICE_20_6, all.get(1).getPriceUsd());
+        assertEquals(PRICE_10, all.get(0).getPriceEur());
+        assertEquals(PRICE_20, all.get(1).getPriceEur());
+        verifyNoInteractions(exchangeRateService);
     }
 
     @Test
-    void findById_shouldReturnProductWithUsdPrice_whenProductExists() {
+    void findById_shouldReturnProduct_whenProductExists() {
         // Arrange
         Product product = new Product(TEST_CODE_001, TEST_PRODUCT, PRICE_100_50, true);
         Product savedProduct = productRepository.save(product);
         Long productId = savedProduct.getId();
 
-        when(exchangeRateService.convertEurToUsd(PRICE_100_50))
-                .thenReturn(USD_PRICE_106_53);
-
         // Act
         Product foundProduct = productService.findById(productId);
 
@@ -136,10 +125,9 @@ class ProductServiceIntegrationTest {
         assertEquals(TEST_CODE_001, foundProduct.getCode());
         assertEquals(TEST_PRODUCT, foundProduct.getName());
         assertEquals(PRICE_100_50, foundProduct.getPriceEur());
-        assertEquals(USD_PRICE_106_53, foundProduct.getPriceUsd());
         assertTrue(foundProduct.isAvailable());
 
-        verify(exchangeRateService, times(EXPECTED_VERIFY_TIMES_1)).convertEurToUsd(PRICE_100_50);
+        verifyNoInteractions(exchangeRateService);
     }
 
     @Test
@@ -150,7 +138,6 @@ class ProductServiceIntegrationTest {
         });
 
         assertEquals(PRODUCT_WITH_ID_999_NOT_FOUND_MESSAGE, exception.getMessage());
-        verify(exchangeRateService, never()).convertEurToUsd(any(BigDecimal.class));
     }
 
     @Test
@@ -159,27 +146,25 @@ class ProductServiceIntegrationTest {
         assertThrows(ProductNotFoundException.class, () -> {
             productService.findById(null);
         });
-
-        verify(exchangeRateService, never()).convertEurToUsd(any(BigDecimal.class));
     }
 
     @Test
-    void findById_shouldPropagateExchangeRateException_whenExchangeServiceFails() {
+    void findById_shouldNotDependOnExchangeRates_whenExchangeServiceFails() {
         // Arrange
         Product product = new Product(TEST_CODE_001, TEST_PRODUCT, PRICE_50, true);
         Product savedProduct = productRepository.save(product);
         Long productId = savedProduct.getId();
 
-        when(exchangeRateService.convertEurToUsd(PRICE_50))
+        when(exchangeRateService.convertEurToUsd(any(BigDecimal.class)))
+                .thenThrow(new ExchangeRateUnavailableException(HNB_API_DOWN_MESSAGE));
+        when(exchangeRateService.priceConverter(any(), any()))
                 .thenThrow(new ExchangeRateUnavailableException(HNB_API_DOWN_MESSAGE));
 
-        // Act & Assert
-        ExchangeRateUnavailableException exception = assertThrows(ExchangeRateUnavailableException.class, () -> {
-            productService.findById(productId);
-        });
+        // Act
+        Product foundProduct = productService.findById(productId);
 
-        assertEquals(HNB_API_DOWN_MESSAGE, exception.getMessage());
-        verify(exchangeRateService, times(EXPECTED_VERIFY_TIMES_1)).convertEurToUsd(PRICE_50);
+        // Assert
+        assertEquals(PRICE_50, foundProduct.getPriceEur());
     }
 
     @Test
@@ -189,18 +174,13 @@ class ProductServiceIntegrationTest {
         Product savedProduct = productRepository.save(product);
         Long productId = savedProduct.getId();
 
-        when(exchangeRateService.convertEurToUsd(BigDecimal.ZERO))
-                .thenReturn(BigDecimal.ZERO);
-
         // Act
         Product foundProduct = productService.findById(productId);
 
         // Assert
         assertNotNull(foundProduct);
-        assertEquals(BigDecimal.ZERO, foundProduct.getPriceEur());
-        assertEquals(BigDecimal.ZERO, foundProduct.getPriceUsd());
+        assertEquals(0, BigDecimal.ZERO.compareTo(foundProduct.getPriceEur()));
         assertFalse(foundProduct.isAvailable());
-        verify(exchangeRateService, times(EXPECTED_VERIFY_TIMES_1)).convertEurToUsd(BigDecimal.ZERO);
     }
 
     @Test
@@ -211,91 +191,85 @@ class ProductServiceIntegrationTest {
         });
 
         assertEquals(PRODUCT_WITH_NEGATIVE_ID_NOT_FOUND_MESSAGE, exception.getMessage());
-        verify(exchangeRateService, never()).convertEurToUsd(any(BigDecimal.class));
     }
 
     @Test
-    void findById_shouldCallExchangeServiceExactlyOnce() {
+    void findById_shouldHandleMultipleConsecutiveCalls() {
         // Arrange
-        Product product = new Product(TEST_CODE_001, CALL_ONCE_PRODUCT, PRICE_42_42, true);
+        Product product = new Product(TEST_CODE_001, MULTI_CALL_PRODUCT, PRICE_60, true);
         Product savedProduct = productRepository.save(product);
         Long productId = savedProduct.getId();
 
-        when(exchangeRateService.convertEurToUsd(PRICE_42_42))
-                .thenReturn(USD_PRICE_44_96);
-
-        // Act
-        productService.findById(productId);
+        // Act - Call multiple times
+        Product foundProduct1 = productService.findById(productId);
+        Product foundProduct2 = productService.findById(productId);
+        Product foundProduct3 = productService.findById(productId);
 
         // Assert
-        verify(exchangeRateService, times(EXPECTED_VERIFY_TIMES_1)).convertEurToUsd(PRICE_42_42);
-        verifyNoMoreInteractions(exchangeRateService);
+        assertEquals(PRICE_60, foundProduct1.getPriceEur());
+        assertEquals(PRICE_60, foundProduct2.getPriceEur());
+        assertEquals(PRICE_60, foundProduct3.getPriceEur());
+        verifyNoInteractions(exchangeRateService);
     }
 
     @Test
-    void findById_shouldHandleExchangeServiceReturningNull() {
+    void findById_shouldBeTimedWithMethodAndException() {
         // Arrange
-        Product product = new Product(TEST_CODE_001, NULL_USD_PRODUCT, PRICE_30, true);
-        Product savedProduct = productRepository.save(product);
-        Long productId = savedProduct.getId();
-
-        when(exchangeRateService.convertEurToUsd(PRICE_30))
-                .thenReturn(null);
+        Product savedProduct = productRepository.save(new Product(TEST_CODE_001, TEST_PRODUCT, PRICE_50, true));
+        long before = timerCount("findById", "none");
+        long notFoundBefore = timerCount("findById", "ProductNotFoundException");
 
         // Act
-        Product foundProduct = productService.findById(productId);
+        productService.findById(savedProduct.getId());
+        assertThrows(ProductNotFoundException.class, () -> productService.findById(NOT_EXISTENT_ID));
 
         // Assert
-        assertNotNull(foundProduct);
-        assertNull(foundProduct.getPriceUsd()); // Should be null if exchange service returns null
-        assertEquals(PRICE_30, foundProduct.getPriceEur());
-        verify(exchangeRateService, times(EXPECTED_VERIFY_TIMES_1)).convertEurToUsd(PRICE_30);
+        assertEquals(before + 1, timerCount("findById", "none"));
+        assertEquals(notFoundBefore + 1, timerCount("findById", "ProductNotFoundException"));
     }
 
     @Test
-    void findById_shouldHandleMultipleConsecutiveCalls() {
+    void search_shouldFilterAndSortInDatabase() {
         // Arrange
-        Product product = new Product(TEST_CODE_001, MULTI_CALL_PRODUCT, PRICE_60, true);
-        Product savedProduct = productRepository.save(product);
-        Long productId = savedProduct.getId();
+        productRepository.save(new Product("SEARCH0001", "Usb cable", PRICE_10, true));
+        productRepository.save(new Product("SEARCH0002", "USB hub", PRICE_30, true));
+        productRepository.save(new Product("SEARCH0003", "Usb charger", PRICE_60, false));
+        productRepository.save(new Product("SEARCH0004", "Usb_less adapter", PRICE_20, true));
+        productRepository.save(new Product("SEARCH0005", "Mouse", PRICE_20, true));
 
-        when(exchangeRateService.convertEurToUsd(PRICE_60))
-                .thenReturn(USD_PRICE_63_60);
-
-        // Act - Call multiple times
-        Product foundProduct1 = productService.findById(productId);
-        Product foundProduct2 = productService.findById(productId);
-        Product foundProduct3 = productService.findById(productId);
+        // Act
+        Slice<ProductSummary> result = productService.search(
+                new ProductSearchCriteria(true, PRICE_10, PRICE_50, "usb"),
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "priceEur")));
 
         // Assert
-        assertNotNull(foundProduct1);
-        assertNotNull(foundProduct2);
-        assertNotNull(foundProduct3);
-
-        assertEquals(USD_PRICE_63_60, foundProduct1.getPriceUsd());
-        assertEquals(USD_PRICE_63_60, foundProduct2.getPriceUsd());
-        assertEquals(USD_PRICE_63_60, foundProduct3.getPriceUsd());
-
-        // Verify exchange service was called 3 times
-        verify(exchangeRateService, times(EXPECTED_VERIFY_TIMES_3)).convertEurToUsd(PRICE_60);
+        assertEquals(List.of("SEARCH0002", "SEARCH0004"), result.getContent().stream().map(ProductSummary::code).toList());
+        assertTrue(result.hasNext());
     }
 
     @Test
-    void findById_shouldHandleExchangeServiceTimeout() {
+    void search_shouldTreatLikeWildcardsInPrefixLiterally() {
         // Arrange
-        Product product = new Product(TIMEOUT_CODE, TIMEOUT_PRODUCT, PRICE_25, true);
-        Product savedProduct = productRepository.save(product);
-        Long productId = savedProduct.getId();
+        productRepository.save(new Product("SEARCH0001", "Usb_less adapter", PRICE_20, true));
+        productRepository.save(new Product("SEARCH0002", "Usbless adapter", PRICE_20, true));
 
-        when(exchangeRateService.convertEurToUsd(PRICE_25))
-                .thenThrow(new ExchangeRateUnavailableException(CONNECTION_TIMEOUT_MESSAGE));
+        // Act
+        Slice<ProductSummary> result = productService.search(
+                new ProductSearchCriteria(null, null, null, "usb_"), PageRequest.of(0, 10, Sort.by("id")));
 
-        // Act & Assert
-        ExchangeRateUnavailableException exception = assertThrows(ExchangeRateUnavailableException.class, () -> {
-            productService.findById(productId);
-        });
+        // Assert
+        assertEquals(List.of("SEARCH0001"), result.getContent().stream().map(ProductSummary::code).toList());
+        assertFalse(result.hasNext());
+    }
+
+    @Test
+    void search_shouldRejectUnknownSortProperty() {
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> productService.search(
+                new ProductSearchCriteria(null, null, null, null), PageRequest.of(0, 10, Sort.by("version"))));
+    }
 
-        assertEquals(CONNECTION_TIMEOUT_MESSAGE, exception.getMessage());
-        verify(exchangeRateService, times(EXPECTED_VERIFY_TIMES_1)).convertEurToUsd(PRICE_25);
+    private long timerCount(String method, String exception) {
+        Timer timer = meterRegistry.find("products.service").tag("method", method).tag("exception", exception).timer();
+        return timer == null ? 0 : timer.count();
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,27 @@
 package com.example.productmanagement.service.impl;
 
+import com.example.productmanagement.configuration.ProductCacheProperties;
+import com.example.productmanagement.event.ProductSavedEvent;
+import com.example.productmanagement.exception.ProductConflictException;
 import com.example.productmanagement.exception.ProductNotFoundException;
+import com.example.productmanagement.exception.ProductPreconditionFailedException;
 import com.example.productmanagement.model.Product;
 import com.example.productmanagement.repo.ProductRepository;
 import com.example.productmanagement.service.ExchangeRateService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -19,42 +30,54 @@ class ProductServiceUnitTest {
 
     private ProductRepository productRepository;
     private ExchangeRateService exchangeRateService;
+    private ProductCodeFilter codeFilter;
+    private ProductCatalogSnapshot catalogSnapshot;
+    private ApplicationEventPublisher eventPublisher;
+    private PlatformTransactionManager transactionManager;
     private ProductService productService;
 
     @BeforeEach
     void setUp() {
         productRepository = mock(ProductRepository.class);
         exchangeRateService = mock(ExchangeRateService.class);
-        productService = new ProductService(productRepository, exchangeRateService);
+        codeFilter = mock(ProductCodeFilter.class);
+        catalogSnapshot = mock(ProductCatalogSnapshot.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(codeFilter.mightContain(any())).thenReturn(true);
+        productService = new ProductService(productRepository, exchangeRateService,
+                new ProductCache(new ProductCacheProperties()), codeFilter, catalogSnapshot, eventPublisher,
+                new TransactionTemplate(transactionManager));
     }
 
     @Test
-    void save_shouldConvertPriceToUsd() {
+    void save_shouldNotConvertPrices() {
         Product input = new Product(null, "Product", BigDecimal.valueOf(100), true);
         Product saved = new Product("CODE000001", "Product A", BigDecimal.valueOf(100), true);
         saved.setId(1L);
 
         when(productRepository.save(input)).thenReturn(saved);
-        when(exchangeRateService.convertEurToUsd(any())).thenReturn(BigDecimal.valueOf(100.6));
 
         Product result = productService.save(input);
 
         assertEquals(1L, result.getId());
-        assertEquals(BigDecimal.valueOf(100.6), result.getPriceUsd());
+        verifyNoInteractions(exchangeRateService);
+        verify(catalogSnapshot).put(saved);
+        verify(eventPublisher).publishEvent(new ProductSavedEvent(1L, List.of("CODE000001")));
     }
 
     @Test
-    void findById_shouldReturnProductWithUsdPrice() {
+    void findById_shouldReturnProductWithoutConvertingPrice() {
         Product product = new Product("CODE000001", "Product", BigDecimal.valueOf(50), true);
         product.setId(1L);
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(exchangeRateService.convertEurToUsd(any())).thenReturn(BigDecimal.valueOf(50.6));
 
         Product result = productService.findById(1L);
 
         assertEquals(1L, result.getId());
-        assertEquals(BigDecimal.valueOf(50.6), result.getPriceUsd());
+        assertEquals(BigDecimal.valueOf(50), result.getPriceEur());
+        verifyNoInteractions(exchangeRateService);
     }
 
     @Test
@@ -65,19 +88,167 @@ class ProductServiceUnitTest {
     }
 
     @Test
-    void findAll_shouldReturnAllWithUsdPrices() {
+    void update_shouldApplyChangesToCurrentStateAndRefreshCache() {
+        Product current = new Product("CODE000001", "Product", BigDecimal.valueOf(50), true);
+        current.setId(1L);
+        current.setVersion(2);
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(current));
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(invocation -> {
+            Product saved = invocation.getArgument(0);
+            saved.setVersion(saved.getVersion() + 1);
+            return saved;
+        });
+
+        Product result = productService.update(1L, Set.of(2L), product -> product.setPriceEur(BigDecimal.valueOf(60)));
+
+        assertEquals(BigDecimal.valueOf(60), result.getPriceEur());
+        assertEquals("Product", result.getName());
+        assertEquals(3, result.getVersion());
+        verify(catalogSnapshot).put(result);
+        Product cached = productService.findById(1L);
+        assertEquals(BigDecimal.valueOf(60), cached.getPriceEur());
+        verify(productRepository, times(1)).findById(1L);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void update_shouldAnnouncePreviousAndNewCode() {
+        Product current = new Product("CODE000001", "Product", BigDecimal.valueOf(50), true);
+        current.setId(1L);
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(current));
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        productService.update(1L, null, product -> product.setCode("CODE000002"));
+
+        verify(eventPublisher).publishEvent(new ProductSavedEvent(1L, List.of("CODE000001", "CODE000002")));
+    }
+
+    @Test
+    void update_shouldFailPreconditionOnStaleVersionWithoutWriting() {
+        Product current = new Product("CODE000001", "Product", BigDecimal.valueOf(50), true);
+        current.setId(1L);
+        current.setVersion(3);
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(current));
+
+        assertThrows(ProductPreconditionFailedException.class,
+                () -> productService.update(1L, Set.of(1L, 2L), product -> product.setPriceEur(BigDecimal.ONE)));
+        verify(productRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void update_shouldReportConcurrentUpdateAsConflict() {
+        Product current = new Product("CODE000001", "Product", BigDecimal.valueOf(50), true);
+        current.setId(1L);
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(current));
+        when(productRepository.saveAndFlush(any(Product.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L));
+
+        assertThrows(ProductConflictException.class,
+                () -> productService.update(1L, null, product -> product.setName("Other")));
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(catalogSnapshot, eventPublisher);
+    }
+
+    @Test
+    void update_shouldThrowExceptionIfNotFound() {
+        when(productRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ProductNotFoundException.class, () -> productService.update(99L, null, product -> { }));
+    }
+
+    @Test
+    void findById_shouldServeRepeatedReadsFromCache() {
+        Product product = new Product("CODE000001", "Product", BigDecimal.valueOf(50), true);
+        product.setId(1L);
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        productService.findById(1L);
+        Product result = productService.findById(1L);
+
+        assertEquals("CODE000001", result.getCode());
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void findByCode_shouldUseProductCachedOnSave() {
+        Product saved = new Product("CODE000001", "Product", BigDecimal.valueOf(100), true);
+        saved.setId(1L);
+
+        when(productRepository.save(any())).thenReturn(saved);
+
+        productService.save(new Product("CODE000001", "Product", BigDecimal.valueOf(100), true));
+        Product result = productService.findByCode("CODE000001");
+
+        assertEquals(1L, result.getId());
+        verify(codeFilter).add("CODE000001");
+        verify(productRepository, never()).findByCode(any());
+    }
+
+    @Test
+    void findByCode_shouldThrowExceptionIfNotFound() {
+        when(productRepository.findByCode("CODE000099")).thenReturn(Optional.empty());
+
+        assertThrows(ProductNotFoundException.class, () -> productService.findByCode("CODE000099"));
+    }
+
+    @Test
+    void findByCode_shouldNotQueryRepositoryForCodeRejectedByFilter() {
+        when(codeFilter.mightContain("CODE000099")).thenReturn(false);
+
+        assertThrows(ProductNotFoundException.class, () -> productService.findByCode("CODE000099"));
+        verify(productRepository, never()).findByCode(any());
+    }
+
+    @Test
+    void findAll_shouldReturnAllWithoutConvertingPrices() {
         List<Product> products = Arrays.asList(
                 new Product("CODE000001", "Product A", BigDecimal.valueOf(10), true),
                 new Product("CODE000002", "Product B", BigDecimal.valueOf(10), true)
         );
 
         when(productRepository.findAll()).thenReturn(products);
-        when(exchangeRateService.convertEurToUsd(any())).thenReturn(BigDecimal.valueOf(10.6));
 
         List<Product> result = productService.findAll();
 
-        assertEquals(2, result.size());
-        assertEquals(BigDecimal.valueOf(10.6), result.get(0).getPriceUsd());
-        assertEquals(BigDecimal.valueOf(10.6), result.get(1).getPriceUsd());
+        assertEquals(products, result);
+        verifyNoInteractions(exchangeRateService);
+    }
+
+    @Test
+    void findPage_shouldStartFromFirstCursorWhenAfterIsNull() {
+        Product product = new Product("CODE000001", "Product A", BigDecimal.valueOf(10), true);
+        product.setId(1L);
+
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(10))).thenReturn(List.of(product));
+
+        List<Product> result = productService.findPage(null, 10);
+
+        assertEquals(List.of(product), result);
+    }
+
+    @Test
+    void forEachBatch_shouldWalkCatalogByKeysetUntilShortBatch() {
+        Product p1 = new Product("CODE000001", "Product A", BigDecimal.valueOf(10), true);
+        p1.setId(1L);
+        Product p2 = new Product("CODE000002", "Product B", BigDecimal.valueOf(20), true);
+        p2.setId(2L);
+        Product p3 = new Product("CODE000003", "Product C", BigDecimal.valueOf(30), true);
+        p3.setId(3L);
+
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(List.of(p1, p2));
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(2))).thenReturn(List.of(p3));
+
+        List<List<Product>> batches = new ArrayList<>();
+        productService.forEachBatch(2, batches::add);
+
+        assertEquals(2, batches.size());
+        assertEquals(List.of(p1, p2), batches.get(0));
+        assertEquals(List.of(p3), batches.get(1));
+        verify(productRepository, times(2)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
     }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.example.productmanagement.repo;
+
+import com.example.productmanagement.model.ExchangeRateSnapshot;
+
+import java.util.Optional;
+
+/**
+ * Keeps the last saved exchange rate snapshot in memory instead of the database, for tests and benchmarks that run
+ * HnbExchangeRateService without a DataSource.
+ */
+public class InMemoryExchangeRateSnapshotRepository extends ExchangeRateSnapshotRepository {
+
+    private volatile ExchangeRateSnapshot saved;
+
+    public InMemoryExchangeRateSnapshotRepository() {
+        super(null);
+    }
+
+    @Override
+    public Optional<ExchangeRateSnapshot> load(long id) {
+        ExchangeRateSnapshot current = saved;
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new ExchangeRateSnapshot(id, current.getRates(), current.getFetchedAt(), current.getValidOn()));
+    }
+
+    @Override
+    public void save(ExchangeRateSnapshot snapshot) {
+        saved = snapshot;
+    }
+}
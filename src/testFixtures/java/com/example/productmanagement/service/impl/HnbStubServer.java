@@ -0,0 +1,265 @@
+package com.example.productmanagement.service.impl;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Local stand-in for the HNB exchange rate API: serves the rate list at GET /tecajn/v2 (optionally filtered with
+ * ?valuta=) in HNB's format, with injectable latency, error responses, malformed srednji_tecaj values and requests
+ * that are never answered. Point hnb.client.base-url at {@link #baseUrl()}.
+ * <p>
+ * Faults can be changed while the server runs, e.g. to let a soak test go through an HNB outage and back.
+ */
+public final class HnbStubServer implements AutoCloseable {
+
+    public static final String RATES_PATH = "/tecajn/v2";
+
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    // Currency, country, ISO country code, numeric currency code, unit, mid-market rate
+    private static final List<String[]> RATES = List.of(
+            new String[]{"AUD", "Australija", "AUS", "036", "1", "4,778000"},
+            new String[]{"CAD", "Kanada", "CAN", "124", "1", "5,191000"},
+            new String[]{"CZK", "\u010Ce\u0161ka", "CZE", "203", "1", "0,308000"},
+            new String[]{"DKK", "Danska", "DNK", "208", "1", "1,013000"},
+            new String[]{"HUF", "Ma\u0111arska", "HUN", "348", "100", "1,781000"},
+            new String[]{"JPY", "Japan", "JPN", "392", "100", "5,296000"},
+            new String[]{"NOK", "Norve\u0161ka", "NOR", "578", "1", "0,716000"},
+            new String[]{"SEK", "\u0160vedska", "SWE", "752", "1", "0,677000"},
+            new String[]{"CHF", "\u0160vicarska", "CHE", "756", "1", "7,627000"},
+            new String[]{"GBP", "Velika Britanija", "GBR", "826", "1", "8,497000"},
+            new String[]{"USD", "SAD", "USA", "840", "1", "6,635000"},
+            new String[]{"EUR", "EMU", "EMU", "978", "1", "7,534500"},
+            new String[]{"PLN", "Poljska", "POL", "985", "1", "1,609000"});
+
+    // Raw JSON values: not a number, empty, thousands separator, a JSON number instead of a string, null
+    private static final List<String> MALFORMED_RATES = List.of("\"n/a\"", "\"\"", "\"7.534,500\"", "7.5345", "null");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile Faults faults;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong malformed = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    private HnbStubServer(HttpServer server, ExecutorService executor, Faults faults) {
+        this.server = server;
+        this.executor = executor;
+        this.faults = faults;
+    }
+
+    public static HnbStubServer start() throws IOException {
+        return start(Faults.NONE);
+    }
+
+    public static HnbStubServer start(Faults faults) throws IOException {
+        return start(0, faults);
+    }
+
+    /**
+     * Starts on the loopback address; port 0 picks a free one.
+     */
+    public static HnbStubServer start(int port, Faults faults) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        // One thread per request, so a delayed or unanswered request does not hold up the others
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "hnb-stub-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        HnbStubServer stub = new HnbStubServer(server, executor, faults);
+        server.createContext(RATES_PATH, stub::handle);
+        server.setExecutor(executor);
+        server.start();
+        return stub;
+    }
+
+    /**
+     * Value for hnb.client.base-url.
+     */
+    public String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    public Faults getFaults() {
+        return faults;
+    }
+
+    public void setFaults(Faults faults) {
+        this.faults = faults;
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public long errors() {
+        return errors.get();
+    }
+
+    public long malformed() {
+        return malformed.get();
+    }
+
+    public long timeouts() {
+        return timeouts.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        Faults current = faults;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try (exchange) {
+            double outcome = random.nextDouble();
+            if (outcome < current.timeoutRate()) {
+                // Held without a response until the client gives up or the timeout passes, then dropped
+                timeouts.incrementAndGet();
+                sleep(current.timeout());
+                return;
+            }
+            sleep(current.latency(random));
+            if (outcome < current.timeoutRate() + current.errorRate()) {
+                errors.incrementAndGet();
+                send(exchange, SERVICE_UNAVAILABLE, "text/plain", "Service Unavailable");
+                return;
+            }
+            boolean malform = outcome < current.timeoutRate() + current.errorRate() + current.malformedRate();
+            if (malform) {
+                malformed.incrementAndGet();
+            }
+            send(exchange, 200, "application/json", rates(currencies(exchange), malform, random));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Set<String> currencies(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getQuery();
+        if (query == null) {
+            return Set.of();
+        }
+        return Arrays.stream(query.split("&"))
+                .filter(parameter -> parameter.startsWith("valuta="))
+                .map(parameter -> parameter.substring("valuta=".length()))
+                .collect(Collectors.toSet());
+    }
+
+    // One entry of the list gets a malformed rate when malform is set
+    private static String rates(Set<String> currencies, boolean malform, ThreadLocalRandom random) {
+        List<String[]> selected = RATES.stream()
+                .filter(rate -> currencies.isEmpty() || currencies.contains(rate[0]))
+                .toList();
+        int malformedEntry = malform && !selected.isEmpty() ? random.nextInt(selected.size()) : -1;
+        String validOn = LocalDate.now().toString();
+
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < selected.size(); i++) {
+            String[] rate = selected.get(i);
+            String midRate = i == malformedEntry
+                    ? MALFORMED_RATES.get(random.nextInt(MALFORMED_RATES.size()))
+                    : "\"" + rate[5] + "\"";
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"broj_tecajnice\":\"1\",\"datum_primjene\":\"").append(validOn)
+                    .append("\",\"drzava\":\"").append(rate[1])
+                    .append("\",\"drzava_iso\":\"").append(rate[2])
+                    .append("\",\"sifra_valute\":\"").append(rate[3])
+                    .append("\",\"valuta\":\"").append(rate[0])
+                    .append("\",\"jedinica\":").append(rate[4])
+                    .append(",\"kupovni_tecaj\":\"").append(rate[5])
+                    .append("\",\"srednji_tecaj\":").append(midRate)
+                    .append(",\"prodajni_tecaj\":\"").append(rate[5]).append("\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", contentType + "; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(Duration duration) throws InterruptedException {
+        if (!duration.isZero()) {
+            Thread.sleep(duration.toMillis(), duration.toNanosPart() % 1_000_000);
+        }
+    }
+
+    /**
+     * Faults injected per request. A request times out, fails with 503 or gets a list with one malformed
+     * srednji_tecaj with the given probabilities, otherwise it gets the full list; every request but timed out ones
+     * is delayed by a latency drawn uniformly between the minimum and maximum.
+     *
+     * @param timeout how long an unanswered request is held, above the client's read timeout to make it time out
+     */
+    public record Faults(Duration minLatency, Duration maxLatency, double errorRate, double malformedRate,
+                         double timeoutRate, Duration timeout) {
+
+        public static final Faults NONE = new Faults(Duration.ZERO, Duration.ZERO, 0, 0, 0, Duration.ofSeconds(30));
+
+        public Faults {
+            if (minLatency.isNegative() || maxLatency.compareTo(minLatency) < 0) {
+                throw new IllegalArgumentException("Latency must be 0 <= min <= max, got " + minLatency + ".." + maxLatency);
+            }
+            if (errorRate < 0 || malformedRate < 0 || timeoutRate < 0 || errorRate + malformedRate + timeoutRate > 1) {
+                throw new IllegalArgumentException("Fault rates must be >= 0 and add up to at most 1");
+            }
+        }
+
+        public Faults withLatency(Duration min, Duration max) {
+            return new Faults(min, max, errorRate, malformedRate, timeoutRate, timeout);
+        }
+
+        public Faults withErrorRate(double rate) {
+            return new Faults(minLatency, maxLatency, rate, malformedRate, timeoutRate, timeout);
+        }
+
+        public Faults withMalformedRate(double rate) {
+            return new Faults(minLatency, maxLatency, errorRate, rate, timeoutRate, timeout);
+        }
+
+        public Faults withTimeoutRate(double rate) {
+            return new Faults(minLatency, maxLatency, errorRate, malformedRate, rate, timeout);
+        }
+
+        public Faults withTimeout(Duration timeout) {
+            return new Faults(minLatency, maxLatency, errorRate, malformedRate, timeoutRate, timeout);
+        }
+
+        Duration latency(ThreadLocalRandom random) {
+            long min = minLatency.toNanos();
+            long max = maxLatency.toNanos();
+            return Duration.ofNanos(min == max ? min : random.nextLong(min, max + 1));
+        }
+    }
+}